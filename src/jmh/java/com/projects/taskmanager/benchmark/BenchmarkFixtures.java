@@ -0,0 +1,99 @@
+package com.projects.taskmanager.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskStatus;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.service.NotificationInboxService;
+import com.projects.taskmanager.service.WebSocketNotificationService;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Test data and in-memory stand-ins shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A task with the fields a typical board task has filled in.
+     */
+    static Task task(long id, int assignees) {
+        TaskStatus[] statuses = TaskStatus.values();
+        Task task = new Task("Prepare quarterly report " + id, "Collect figures from every team and draft the summary", false);
+        ReflectionTestUtils.setField(task, "id", id);
+        ReflectionTestUtils.setField(task, "createdAt", Instant.parse("2025-01-06T09:30:00Z"));
+        task.setStatus(statuses[(int) (id % statuses.length)]);
+        task.setDueDate(LocalDate.of(2025, 3, 31).plusDays(id));
+        task.setEstimationHours(6.5);
+        for (long userId = 1; userId <= assignees; userId++) {
+            User user = new User("user" + userId, "user" + userId + "@example.com", "First", "Last");
+            user.setId(userId);
+            task.getAssignedUsers().add(user);
+        }
+        return task;
+    }
+
+    /**
+     * A TaskRepository over a map, supporting the reads and saves the
+     * benchmarked paths use. Anything else throws.
+     */
+    static TaskRepository taskRepository(int tasks) {
+        Map<Long, Task> store = new ConcurrentHashMap<>();
+        for (long id = 1; id <= tasks; id++) {
+            store.put(id, task(id, 2));
+        }
+        return (TaskRepository) Proxy.newProxyInstance(TaskRepository.class.getClassLoader(),
+                new Class<?>[] {TaskRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> List.copyOf(store.values());
+                    case "findById" -> Optional.ofNullable(store.get((Long) args[0]));
+                    case "findByStatus" -> store.values().stream().filter(task -> task.getStatus() == args[0]).toList();
+                    case "save" -> args[0];
+                    // No attachments, comments or activity, so every summary is empty
+                    case "summarize", "findSummaryCounters", "lockUncounted" -> List.of();
+                    case "countSummaries" -> 0;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryTaskRepository";
+                    default -> throw new UnsupportedOperationException(method.getName() + " is not faked");
+                });
+    }
+
+    /**
+     * The real notification service, serializing with Jackson as the broker
+     * would and then discarding the message. The inbox is only used for
+     * per-user notifications, which the benchmarks don't send.
+     */
+    static WebSocketNotificationService notificationService() {
+        MessageChannel discard = (message, timeout) -> true;
+        SimpMessagingTemplate template = new SimpMessagingTemplate(discard);
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        return new WebSocketNotificationService(template, unused(NotificationInboxService.class), ObservationRegistry.NOOP);
+    }
+
+    /**
+     * A collaborator the benchmarked path never calls. Stub-only, so it
+     * doesn't record invocations and skew allocation figures if it is.
+     */
+    static <T> T unused(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,65 @@
+package com.projects.taskmanager.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.projects.taskmanager.config.TaskProperties;
+import com.projects.taskmanager.graphql.BulkOperationResult;
+import com.projects.taskmanager.graphql.input.BulkUpdateTaskInput;
+import com.projects.taskmanager.model.TaskStatus;
+import com.projects.taskmanager.service.StorageQuotaService;
+import com.projects.taskmanager.service.TaskActivityService;
+import com.projects.taskmanager.service.TaskService;
+import com.projects.taskmanager.util.TextNormalizer;
+
+/**
+ * Building a BulkOperationResult for bulkUpdateTasks over 50 IDs, against the
+ * in-memory repository. "missing" asks for IDs that don't exist, so half the
+ * result is per-task error messages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkOperationBenchmark {
+
+    @Param({"found", "missing"})
+    public String ids;
+
+    private TaskService taskService;
+    private List<Long> taskIds;
+    private BulkUpdateTaskInput input;
+
+    @Setup
+    public void setUp() {
+        taskService = new TaskService(BenchmarkFixtures.taskRepository(100), new TaskProperties(), new TextNormalizer(),
+                BenchmarkFixtures.notificationService(), BenchmarkFixtures.unused(TaskActivityService.class),
+                BenchmarkFixtures.unused(StorageQuotaService.class));
+        taskIds = ids.equals("found")
+                ? LongStream.rangeClosed(1, 50).boxed().toList()
+                : LongStream.rangeClosed(76, 125).boxed().toList();
+        input = new BulkUpdateTaskInput();
+        input.setStatus(TaskStatus.IN_PROGRESS);
+        input.setDueDate("2025-06-30");
+    }
+
+    @Benchmark
+    public BulkOperationResult bulkUpdateTasks() {
+        return taskService.bulkUpdateTasks(taskIds, input);
+    }
+}
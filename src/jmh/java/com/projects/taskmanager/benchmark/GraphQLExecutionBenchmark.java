@@ -0,0 +1,129 @@
+package com.projects.taskmanager.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.data.method.annotation.support.AnnotatedControllerConfigurer;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.DefaultBatchLoaderRegistry;
+import org.springframework.graphql.execution.DefaultExecutionGraphQlService;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import com.projects.taskmanager.config.TaskProperties;
+import com.projects.taskmanager.controller.TaskController;
+import com.projects.taskmanager.controller.TaskSummaryController;
+import com.projects.taskmanager.graphql.GraphQLUserContext;
+import com.projects.taskmanager.observability.MetricsService;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.service.StorageQuotaService;
+import com.projects.taskmanager.service.TaskActivityService;
+import com.projects.taskmanager.service.TaskService;
+import com.projects.taskmanager.service.TaskSummaryService;
+import com.projects.taskmanager.service.UserService;
+import com.projects.taskmanager.util.TextNormalizer;
+
+/**
+ * Representative queries through the real schema and controllers, with
+ * Spring GraphQL's annotated controller support and DataLoader batching, and
+ * the repository replaced by an in-memory fake so only GraphQL, controller
+ * and service work is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphQLExecutionBenchmark {
+
+    private static final Map<String, String> QUERIES = Map.of(
+            "taskList", "query TaskList { tasks { id title completed status dueDate } }",
+            "taskBoard", """
+                    query TaskBoard {
+                      tasks {
+                        id title description completed status dueDate estimationHours createdAt
+                        assignedUsers { id username }
+                        summary { attachmentCount commentCount activityCount }
+                      }
+                    }""",
+            "taskDetail", """
+                    query TaskDetail($id: ID!) {
+                      task(id: $id) {
+                        id title description status dueDate
+                        assignedUsers { id username email }
+                        summary { attachmentCount imageCount commentCount activityCount lastActivityAt }
+                      }
+                    }""");
+
+    @Param({"taskList", "taskBoard", "taskDetail"})
+    public String query;
+
+    @Param({"50"})
+    public int tasks;
+
+    private GenericApplicationContext context;
+    private DefaultExecutionGraphQlService graphQlService;
+
+    @Setup
+    public void setUp() {
+        TaskRepository taskRepository = BenchmarkFixtures.taskRepository(tasks);
+        TaskProperties taskProperties = new TaskProperties();
+        TaskService taskService = new TaskService(taskRepository, taskProperties, new TextNormalizer(),
+                BenchmarkFixtures.notificationService(), BenchmarkFixtures.unused(TaskActivityService.class),
+                BenchmarkFixtures.unused(StorageQuotaService.class));
+
+        context = new GenericApplicationContext();
+        DefaultBatchLoaderRegistry batchLoaderRegistry = new DefaultBatchLoaderRegistry();
+        context.registerBean(BatchLoaderRegistry.class, () -> batchLoaderRegistry);
+        context.registerBean(TaskController.class, () -> new TaskController(taskService,
+                BenchmarkFixtures.unused(UserService.class), BenchmarkFixtures.unused(GraphQLUserContext.class),
+                BenchmarkFixtures.unused(MetricsService.class), BenchmarkFixtures.unused(TaskActivityService.class)));
+        context.registerBean(TaskSummaryController.class,
+                () -> new TaskSummaryController(new TaskSummaryService(taskRepository, taskProperties)));
+        context.refresh();
+
+        AnnotatedControllerConfigurer controllers = new AnnotatedControllerConfigurer();
+        controllers.setApplicationContext(context);
+        controllers.afterPropertiesSet();
+
+        GraphQlSource graphQlSource = GraphQlSource.schemaResourceBuilder()
+                .schemaResources(new ClassPathResource("graphql/schema.graphqls"))
+                .configureRuntimeWiring(controllers)
+                .build();
+        graphQlService = new DefaultExecutionGraphQlService(graphQlSource);
+        graphQlService.addDataLoaderRegistrar(batchLoaderRegistry);
+
+        ExecutionGraphQlResponse response = execute();
+        if (!response.isValid() || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("Query " + query + " failed: " + response.getErrors());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExecutionGraphQlResponse execute() {
+        DefaultExecutionGraphQlRequest request = new DefaultExecutionGraphQlRequest(
+                QUERIES.get(query), null, Map.of("id", "7"), null, "benchmark", null);
+        return graphQlService.execute(request).block();
+    }
+}
@@ -0,0 +1,79 @@
+package com.projects.taskmanager.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.websocket.BinaryFrameEncodingInterceptor;
+import com.projects.taskmanager.websocket.StompContentNegotiation;
+
+/**
+ * A task event encoded as JSON, and the JSON re-encoded as CBOR by
+ * {@link BinaryFrameEncodingInterceptor} for a session that negotiated it.
+ * Each transcode gets a fresh payload array, as each broadcast does, so the
+ * interceptor's per-payload cache doesn't hide the work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskEventEncodingBenchmark {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final MessageChannel channel = (message, timeout) -> true;
+    private BinaryFrameEncodingInterceptor interceptor;
+    private Map<String, Object> event;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        StompContentNegotiation negotiation = new StompContentNegotiation();
+        negotiation.negotiate("cbor-session", "application/cbor");
+        interceptor = new BinaryFrameEncodingInterceptor(negotiation, jsonMapper);
+
+        Task task = BenchmarkFixtures.task(42, 3);
+        event = new LinkedHashMap<>();
+        event.put("type", "TASK_UPDATED");
+        event.put("task", Map.of("id", task.getId(), "title", task.getTitle(), "description", task.getDescription(),
+                "status", task.getStatus().toString(), "dueDate", task.getDueDate().toString(),
+                "estimationHours", task.getEstimationHours(), "assignedUserIds", List.of(1, 2, 3)));
+        event.put("timestamp", System.currentTimeMillis());
+        json = jsonMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return jsonMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public Message<?> jsonToCbor() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("cbor-session");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return interceptor.preSend(MessageBuilder.createMessage(json.clone(), accessor.getMessageHeaders()), channel);
+    }
+}
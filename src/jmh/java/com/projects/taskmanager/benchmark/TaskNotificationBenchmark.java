@@ -0,0 +1,48 @@
+package com.projects.taskmanager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.service.WebSocketNotificationService;
+
+/**
+ * A task event as sent to /topic/tasks: the task converted to a map and
+ * serialized to JSON by the message converter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskNotificationBenchmark {
+
+    @Param({"0", "10"})
+    public int assignees;
+
+    private WebSocketNotificationService notificationService;
+    private Task task;
+
+    @Setup
+    public void setUp() {
+        notificationService = BenchmarkFixtures.notificationService();
+        task = BenchmarkFixtures.task(42, assignees);
+    }
+
+    @Benchmark
+    public void notifyTaskUpdated() {
+        notificationService.notifyTaskUpdated(task);
+    }
+}
@@ -0,0 +1,50 @@
+package com.projects.taskmanager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.projects.taskmanager.util.TextNormalizer;
+
+/**
+ * Title normalization, run on every task create and update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextNormalizerBenchmark {
+
+    @Param({"clean", "padded", "spaced"})
+    public String shape;
+
+    private final TextNormalizer textNormalizer = new TextNormalizer();
+    private String title;
+
+    @Setup
+    public void setUp() {
+        title = switch (shape) {
+            // Most titles need no changes
+            case "clean" -> "Prepare quarterly report for the finance team";
+            case "padded" -> "   Prepare quarterly report for the finance team   ";
+            default -> "Prepare  quarterly\treport   for the\n finance   team";
+        };
+    }
+
+    @Benchmark
+    public String normalizeTitle() {
+        return textNormalizer.normalizeTitle(title);
+    }
+}
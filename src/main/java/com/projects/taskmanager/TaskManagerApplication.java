@@ -4,12 +4,15 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.projects.taskmanager.config.StorageProperties;
 import com.projects.taskmanager.config.TaskProperties;
 
 @SpringBootApplication
 @EnableJpaAuditing
-@EnableConfigurationProperties(TaskProperties.class)
+@EnableScheduling
+@EnableConfigurationProperties({TaskProperties.class, StorageProperties.class})
 public class TaskManagerApplication {
 
 	public static void main(String[] args) {
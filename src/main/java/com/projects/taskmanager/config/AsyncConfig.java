@@ -0,0 +1,32 @@
+package com.projects.taskmanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for background work
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Bounded pool for image decoding and resizing. Work that doesn't fit in
+     * the queue is rejected rather than piling up decoded images in memory.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageProcessingExecutor(
+            @Value("${images.processing.threads:2}") int threads,
+            @Value("${images.processing.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        return executor;
+    }
+}
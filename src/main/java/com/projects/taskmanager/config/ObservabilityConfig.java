@@ -1,34 +1,57 @@
 package com.projects.taskmanager.config;
 
-import com.projects.taskmanager.observability.GraphQLRequestLoggingInterceptor;
+import com.projects.taskmanager.observability.SqlStatementCounter;
+import com.projects.taskmanager.observability.SqlTimingListener;
+import com.projects.taskmanager.observability.jfr.ServiceCallEventInterceptor;
+import com.projects.taskmanager.service.TaskService;
+import com.projects.taskmanager.service.UserService;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.context.annotation.Role;
 
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Configuration for observability features including request logging
+ * Configuration for observability features. GraphQL request logging is a
+ * WebGraphQlInterceptor bean, picked up by the GraphQL auto-configuration.
  */
 @Configuration
-public class ObservabilityConfig implements WebMvcConfigurer {
+public class ObservabilityConfig {
 
-    private final GraphQLRequestLoggingInterceptor requestLoggingInterceptor;
-
-    public ObservabilityConfig(GraphQLRequestLoggingInterceptor requestLoggingInterceptor) {
-        this.requestLoggingInterceptor = requestLoggingInterceptor;
+    /**
+     * Hibernate hooks that count the SQL of each request and operation
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementAccounting() {
+        SqlStatementCounter counter = new SqlStatementCounter();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+            properties.put(AvailableSettings.INTERCEPTOR, counter);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingListener.class.getName());
+        };
     }
 
     /**
-     * Register HTTP request interceptor for GraphQL logging
+     * JFR events around every TaskService and UserService call. Registered as
+     * infrastructure so the auto-proxy creator behind @Transactional applies it.
      */
-    @Override
-    public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(requestLoggingInterceptor);
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceCallEventAdvisor() {
+        ClassFilter services = type -> type == TaskService.class || type == UserService.class;
+        return new DefaultPointcutAdvisor(new ComposablePointcut(services, MethodMatcher.TRUE),
+                new ServiceCallEventInterceptor());
     }
 
     /**
@@ -43,7 +43,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(req ->
-                        req.requestMatchers(
+                        // Hold request variables and heap details, unlike the rest of actuator
+                        req.requestMatchers("/actuator/slowrequests/**", "/actuator/jfr/**").hasRole("ADMIN")
+                                .requestMatchers(
                                         "/auth/**",
                                         "/h2-console/**",
                                         "/actuator/**",
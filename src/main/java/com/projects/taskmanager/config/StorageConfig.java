@@ -0,0 +1,59 @@
+package com.projects.taskmanager.config;
+
+import com.projects.taskmanager.storage.BlobStore;
+import com.projects.taskmanager.storage.LocalBlobStore;
+import com.projects.taskmanager.storage.S3BlobStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Selects the blob store backend for attachment content
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public BlobStore blobStore(StorageProperties storageProperties, ObjectProvider<S3Client> s3Client) {
+        if (storageProperties.getBackend() == StorageProperties.Backend.S3) {
+            StorageProperties.S3 s3 = storageProperties.getS3();
+            if (s3.getBucket() == null || s3.getBucket().isBlank()) {
+                throw new IllegalStateException("storage.s3.bucket must be set when storage.backend=s3");
+            }
+            return new S3BlobStore(s3Client.getObject(), s3.getBucket(), s3.getPrefix(), s3.getPartSize().toBytes());
+        }
+        return new LocalBlobStore(Paths.get(storageProperties.getLocal().getRoot()));
+    }
+
+    /**
+     * A bean so the context closes the client and its connection pool on shutdown.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "storage", name = "backend", havingValue = "s3")
+    public S3Client s3Client(StorageProperties storageProperties) {
+        StorageProperties.S3 s3 = storageProperties.getS3();
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(s3.getRegion()))
+                .forcePathStyle(s3.isPathStyleAccess());
+        if (s3.getEndpoint() != null && !s3.getEndpoint().isBlank()) {
+            builder.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        if (s3.getAccessKey() != null && !s3.getAccessKey().isBlank()) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey())));
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.builder().build());
+        }
+        return builder.build();
+    }
+}
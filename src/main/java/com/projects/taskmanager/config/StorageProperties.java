@@ -0,0 +1,322 @@
+package com.projects.taskmanager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+
+    public enum Backend {
+        LOCAL,
+        S3
+    }
+
+    private Backend backend = Backend.LOCAL;
+    // Uploads in progress; must be on the same filesystem as the local root for rename-based commits
+    private String tempDir = "uploads/blobs/tmp";
+    private final Local local = new Local();
+    private final S3 s3 = new S3();
+    private final Migration migration = new Migration();
+    private final Reconcile reconcile = new Reconcile();
+    private final Compression compression = new Compression();
+    private final Quota quota = new Quota();
+
+    public static class Local {
+        private String root = "uploads/blobs";
+
+        public String getRoot() {
+            return root;
+        }
+
+        public void setRoot(String root) {
+            this.root = root;
+        }
+    }
+
+    public static class S3 {
+        private String bucket;
+        private String prefix = "blobs/";
+        private String region = "us-east-1";
+        // Set for S3-compatible services such as MinIO
+        private String endpoint;
+        private boolean pathStyleAccess = false;
+        private String accessKey;
+        private String secretKey;
+        private DataSize partSize = DataSize.ofMegabytes(8);
+
+        public String getBucket() {
+            return bucket;
+        }
+
+        public void setBucket(String bucket) {
+            this.bucket = bucket;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public boolean isPathStyleAccess() {
+            return pathStyleAccess;
+        }
+
+        public void setPathStyleAccess(boolean pathStyleAccess) {
+            this.pathStyleAccess = pathStyleAccess;
+        }
+
+        public String getAccessKey() {
+            return accessKey;
+        }
+
+        public void setAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+        }
+
+        public String getSecretKey() {
+            return secretKey;
+        }
+
+        public void setSecretKey(String secretKey) {
+            this.secretKey = secretKey;
+        }
+
+        public DataSize getPartSize() {
+            return partSize;
+        }
+
+        public void setPartSize(DataSize partSize) {
+            this.partSize = partSize;
+        }
+    }
+
+    public static class Migration {
+        private boolean enabled = false;
+        // Local blob tree to copy into the configured backend (optional)
+        private String sourceRoot;
+        private boolean deleteSource = false;
+        private int batchSize = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getSourceRoot() {
+            return sourceRoot;
+        }
+
+        public void setSourceRoot(String sourceRoot) {
+            this.sourceRoot = sourceRoot;
+        }
+
+        public boolean isDeleteSource() {
+            return deleteSource;
+        }
+
+        public void setDeleteSource(boolean deleteSource) {
+            this.deleteSource = deleteSource;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Reconcile {
+        private boolean enabled = true;
+        // Files younger than this are never collected, which covers uploads still being committed
+        private Duration gracePeriod = Duration.ofHours(24);
+        private int batchSize = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getGracePeriod() {
+            return gracePeriod;
+        }
+
+        public void setGracePeriod(Duration gracePeriod) {
+            this.gracePeriod = gracePeriod;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Quota {
+        private boolean enabled = true;
+        // Total size of the attachments one user has uploaded
+        private DataSize perUser = DataSize.ofGigabytes(1);
+        // Total size of the attachments on one task, whoever uploaded them
+        private DataSize perTask = DataSize.ofMegabytes(250);
+        private int batchSize = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getPerUser() {
+            return perUser;
+        }
+
+        public void setPerUser(DataSize perUser) {
+            this.perUser = perUser;
+        }
+
+        public DataSize getPerTask() {
+            return perTask;
+        }
+
+        public void setPerTask(DataSize perTask) {
+            this.perTask = perTask;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Compression {
+        private boolean enabled = true;
+        // Exact types or wildcards such as text/*
+        private List<String> contentTypes = new ArrayList<>(List.of(
+            "text/*",
+            "application/json",
+            "application/xml",
+            "application/msword",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document"));
+        private DataSize minSize = DataSize.ofKilobytes(1);
+        // Content is stored uncompressed unless gzip saves at least this fraction
+        private double minSavings = 0.1;
+        private int level = 6;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getContentTypes() {
+            return contentTypes;
+        }
+
+        public void setContentTypes(List<String> contentTypes) {
+            this.contentTypes = contentTypes;
+        }
+
+        public DataSize getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(DataSize minSize) {
+            this.minSize = minSize;
+        }
+
+        public double getMinSavings() {
+            return minSavings;
+        }
+
+        public void setMinSavings(double minSavings) {
+            this.minSavings = minSavings;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(Backend backend) {
+        this.backend = backend;
+    }
+
+    public String getTempDir() {
+        return tempDir;
+    }
+
+    public void setTempDir(String tempDir) {
+        this.tempDir = tempDir;
+    }
+
+    public Local getLocal() {
+        return local;
+    }
+
+    public S3 getS3() {
+        return s3;
+    }
+
+    public Migration getMigration() {
+        return migration;
+    }
+
+    public Reconcile getReconcile() {
+        return reconcile;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public Quota getQuota() {
+        return quota;
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class TaskProperties {
     private int titleMaxLength = 120;
     private int descriptionMaxLength = 1000;
+    // Serve task summaries from counter columns on the task instead of counting child rows
+    private boolean summaryCounters = false;
 
     public int getTitleMaxLength() {
         return titleMaxLength;
@@ -22,6 +24,12 @@ public class TaskProperties {
     public void setDescriptionMaxLength(int descriptionMaxLength) {
         this.descriptionMaxLength = descriptionMaxLength;
     }
-}
 
+    public boolean isSummaryCounters() {
+        return summaryCounters;
+    }
 
+    public void setSummaryCounters(boolean summaryCounters) {
+        this.summaryCounters = summaryCounters;
+    }
+}
@@ -0,0 +1,77 @@
+package com.projects.taskmanager.config;
+
+import com.projects.taskmanager.observability.ErrorTraceSpanProcessor;
+import com.projects.taskmanager.observability.MetricsService;
+import com.projects.taskmanager.observability.RepositoryObservationInterceptor;
+import com.projects.taskmanager.observability.SlowRequestRecorder;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.repository.Repository;
+import org.springframework.scheduling.support.ScheduledTaskObservationContext;
+
+/**
+ * Tracing setup on top of Spring Boot's OpenTelemetry auto-configuration.
+ *
+ * HTTP requests, GraphQL operations and data fetchers, JDBC statements and
+ * scheduled tasks are traced by their own auto-configuration; this adds
+ * repository calls and the sampling rule for errors. Executors that take
+ * work off request threads use a ContextPropagatingTaskDecorator so their
+ * spans join the request's trace.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Head sampling at management.tracing.sampling.probability, with dropped
+     * spans still recorded so {@link ErrorTraceSpanProcessor} can export the
+     * traces that fail.
+     */
+    @Bean
+    public Sampler otelSampler(@Value("${management.tracing.sampling.probability:0.1}") double probability) {
+        return ErrorTraceSpanProcessor.recordUnsampled(Sampler.parentBased(Sampler.traceIdRatioBased(probability)));
+    }
+
+    @Bean
+    public SpanProcessor errorTraceSpanProcessor(ObjectProvider<SpanExporter> spanExporters,
+                                                 @Value("${tracing.error-traces.max-pending:1000}") int maxPendingTraces) {
+        return new ErrorTraceSpanProcessor(SpanExporter.composite(spanExporters.orderedStream().toList()), maxPendingTraces);
+    }
+
+    /**
+     * The slow request stack sampler runs several times a second, and a trace
+     * per run would drown out everything else.
+     */
+    @Bean
+    public ObservationPredicate ignoreStackSampling() {
+        return (name, context) -> !(context instanceof ScheduledTaskObservationContext scheduled
+                && scheduled.getTargetClass() == SlowRequestRecorder.class);
+    }
+
+    /**
+     * A span and a database.query.duration sample per Spring Data repository
+     * call. Registered as infrastructure so the auto-proxy creator behind
+     * @Transactional applies it.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor repositoryObservationAdvisor(ObjectProvider<ObservationRegistry> observationRegistry,
+                                                       ObjectProvider<MetricsService> metricsService) {
+        ClassFilter repositories = Repository.class::isAssignableFrom;
+        return new DefaultPointcutAdvisor(new ComposablePointcut(repositories, MethodMatcher.TRUE),
+                new RepositoryObservationInterceptor(observationRegistry, metricsService));
+    }
+}
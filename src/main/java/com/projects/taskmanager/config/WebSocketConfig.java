@@ -1,15 +1,40 @@
 package com.projects.taskmanager.config;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.projects.taskmanager.websocket.BinaryFrameEncodingInterceptor;
+import com.projects.taskmanager.websocket.BinaryFrameHandlerDecoratorFactory;
+import com.projects.taskmanager.websocket.ContentNegotiationInterceptor;
+import com.projects.taskmanager.websocket.StompContentNegotiation;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ContentNegotiationInterceptor contentNegotiationInterceptor;
+    private final BinaryFrameEncodingInterceptor binaryFrameEncodingInterceptor;
+    private final BinaryFrameHandlerDecoratorFactory binaryFrameHandlerDecoratorFactory;
+
+    public WebSocketConfig(ContentNegotiationInterceptor contentNegotiationInterceptor,
+                           BinaryFrameEncodingInterceptor binaryFrameEncodingInterceptor,
+                           BinaryFrameHandlerDecoratorFactory binaryFrameHandlerDecoratorFactory) {
+        this.contentNegotiationInterceptor = contentNegotiationInterceptor;
+        this.binaryFrameEncodingInterceptor = binaryFrameEncodingInterceptor;
+        this.binaryFrameHandlerDecoratorFactory = binaryFrameHandlerDecoratorFactory;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable in-memory message broker with destination prefixes
@@ -24,14 +49,54 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        String[] allowedOrigins = {
+            "http://localhost:*",
+            "http://127.0.0.1:*",
+            "http://95.217.177.76:*",
+            "https://95.217.177.76:*"
+        };
+
         // Register STOMP endpoint for WebSocket connections
         registry.addEndpoint("/ws")
-                .setAllowedOriginPatterns(
-                    "http://localhost:*",
-                    "http://127.0.0.1:*",
-                    "http://95.217.177.76:*",
-                    "https://95.217.177.76:*"
-                )
+                .setAllowedOriginPatterns(allowedOrigins)
                 .withSockJS(); // Enable SockJS fallback
+
+        // Plain WebSocket endpoint; the only one that can carry binary (CBOR) frames
+        registry.addEndpoint("/ws/stomp")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(binaryFrameHandlerDecoratorFactory);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Read CBOR payloads that say so; anything without a content type stays JSON
+        MappingJackson2MessageConverter cborConverter =
+                new MappingJackson2MessageConverter(StompContentNegotiation.APPLICATION_CBOR);
+        cborConverter.setObjectMapper(CBORMapper.builder().findAndAddModules().build());
+        cborConverter.setStrictContentTypeMatch(true);
+        messageConverters.add(cborConverter);
+        return true;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Record the content type each session asks for on CONNECT
+        registration.interceptors(contentNegotiationInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // JSON stays the default; binary sessions get frames re-encoded as CBOR
+        registration.interceptors(binaryFrameEncodingInterceptor);
+
+        // Same sizing as the default executor, but frames are written within the sender's trace
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("clientOutboundChannel-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        registration.taskExecutor(executor).corePoolSize(Runtime.getRuntime().availableProcessors() * 2);
     }
-}
\ No newline at end of file
+}
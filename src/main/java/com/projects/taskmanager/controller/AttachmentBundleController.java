@@ -0,0 +1,100 @@
+package com.projects.taskmanager.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import com.projects.taskmanager.model.TaskStatus;
+import com.projects.taskmanager.service.AttachmentBundleService;
+import com.projects.taskmanager.service.AttachmentBundleService.BundleFilter;
+import com.projects.taskmanager.service.TaskService;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ZIP downloads of several attachments at once.
+ *
+ * <pre>
+ * GET /api/attachments/bundle/task/{taskId}     every attachment of one task
+ * GET /api/attachments/bundle?completed=&amp;titleContains=&amp;status=&amp;dueDateFrom=&amp;dueDateTo=
+ *                                               attachments of every matching task, a folder per task
+ * </pre>
+ *
+ * The archive is written to the response as it is built, on the request
+ * thread, so a long export isn't cut off by the async request timeout.
+ */
+@RestController
+@RequestMapping("/api/attachments/bundle")
+public class AttachmentBundleController {
+
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final AttachmentBundleService attachmentBundleService;
+    private final TaskService taskService;
+
+    public AttachmentBundleController(AttachmentBundleService attachmentBundleService, TaskService taskService) {
+        this.attachmentBundleService = attachmentBundleService;
+        this.taskService = taskService;
+    }
+
+    @GetMapping("/task/{taskId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> downloadTaskBundle(@PathVariable Long taskId,
+                                                                  HttpServletResponse response) throws IOException {
+        if (taskService.getTaskById(taskId).isEmpty()) {
+            return error(HttpStatus.NOT_FOUND, "Task not found with id: " + taskId);
+        }
+        return streamBundle(BundleFilter.forTask(taskId), "task-" + taskId + "-attachments.zip", response);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> downloadBundle(
+            @RequestParam(value = "completed", required = false) Boolean completed,
+            @RequestParam(value = "titleContains", required = false) String titleContains,
+            @RequestParam(value = "status", required = false) TaskStatus status,
+            @RequestParam(value = "dueDateFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateFrom,
+            @RequestParam(value = "dueDateTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateTo,
+            HttpServletResponse response) throws IOException {
+        String title = titleContains == null || titleContains.isBlank() ? null : titleContains.trim();
+        BundleFilter filter = new BundleFilter(null, completed, title, status, dueDateFrom, dueDateTo);
+        return streamBundle(filter, "attachments.zip", response);
+    }
+
+    private ResponseEntity<Map<String, Object>> streamBundle(BundleFilter filter, String filename,
+                                                             HttpServletResponse response) throws IOException {
+        if (!attachmentBundleService.tryAcquireSlot()) {
+            ResponseEntity<Map<String, Object>> busy = error(HttpStatus.SERVICE_UNAVAILABLE,
+                "Too many bundle downloads in progress, try again shortly");
+            return ResponseEntity.status(busy.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(busy.getBody());
+        }
+        try {
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+            attachmentBundleService.writeBundle(filter, response.getOutputStream());
+        } finally {
+            attachmentBundleService.releaseSlot();
+        }
+        // The archive has already been written to the response
+        return null;
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
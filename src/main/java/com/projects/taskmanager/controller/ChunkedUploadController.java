@@ -0,0 +1,171 @@
+package com.projects.taskmanager.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import com.projects.taskmanager.dto.TaskAttachmentResponse;
+import com.projects.taskmanager.model.TaskAttachment;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.service.ChunkedUploadService;
+import com.projects.taskmanager.service.UserService;
+import com.projects.taskmanager.service.exception.StorageQuotaExceededException;
+import com.projects.taskmanager.storage.UploadSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable chunked uploads.
+ *
+ * <pre>
+ * POST   /api/uploads                          start, returns uploadId and chunkSize
+ * PUT    /api/uploads/{id}?offset=N            application/octet-stream chunk, X-Chunk-CRC32C header
+ * GET    /api/uploads/{id}                     progress and missing chunk offsets
+ * POST   /api/uploads/{id}/complete            verify and create the attachment or avatar
+ * DELETE /api/uploads/{id}                     abandon the upload
+ * </pre>
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class ChunkedUploadController {
+
+    public static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-CRC32C";
+
+    private final ChunkedUploadService chunkedUploadService;
+    private final UserService userService;
+
+    public ChunkedUploadController(ChunkedUploadService chunkedUploadService, UserService userService) {
+        this.chunkedUploadService = chunkedUploadService;
+        this.userService = userService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> initUpload(
+            @RequestParam(value = "purpose", defaultValue = "ATTACHMENT") UploadSession.Purpose purpose,
+            @RequestParam(value = "taskId", required = false) Long taskId,
+            @RequestParam("filename") String filename,
+            @RequestParam("contentType") String contentType,
+            @RequestParam("size") long size,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "sha256", required = false) String sha256) {
+        try {
+            UploadSession session = chunkedUploadService.initUpload(purpose, getCurrentUser(), taskId, filename,
+                    contentType, size, description, sha256);
+            return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(session));
+        } catch (IOException e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to start upload: " + e.getMessage());
+        } catch (StorageQuotaExceededException e) {
+            return error(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PutMapping(value = "/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam("offset") long offset,
+            @RequestHeader(value = CHUNK_CHECKSUM_HEADER, required = false) String checksum,
+            HttpServletRequest request) {
+        try (InputStream body = request.getInputStream()) {
+            UploadSession session = chunkedUploadService.writeChunk(uploadId, getCurrentUser(), offset, body, checksum);
+            return ResponseEntity.ok(toResponse(session));
+        } catch (IOException e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write chunk: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> getUpload(@PathVariable String uploadId) {
+        try {
+            UploadSession session = chunkedUploadService.getUpload(uploadId, getCurrentUser());
+            Map<String, Object> response = toResponse(session);
+            response.put("missingOffsets", session.getMissingOffsets());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> completeUpload(@PathVariable String uploadId) {
+        try {
+            User currentUser = getCurrentUser();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            if (chunkedUploadService.getUpload(uploadId, currentUser).getPurpose() == UploadSession.Purpose.AVATAR) {
+                response.put("avatarUrl", chunkedUploadService.completeAvatar(uploadId, currentUser));
+                response.put("message", "Avatar uploaded successfully");
+            } else {
+                TaskAttachment attachment = chunkedUploadService.completeAttachment(uploadId, currentUser);
+                // Convert to DTO to avoid lazy loading issues
+                response.put("attachment", TaskAttachmentResponse.from(attachment));
+                response.put("message", "File uploaded successfully");
+            }
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to complete upload: " + e.getMessage());
+        } catch (StorageQuotaExceededException e) {
+            return error(HttpStatus.INSUFFICIENT_STORAGE, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (Exception e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> cancelUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.cancelUpload(uploadId, getCurrentUser());
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return userService.getUserByUsername(authentication.getName());
+    }
+
+    private Map<String, Object> toResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("uploadId", session.getId());
+        response.put("purpose", session.getPurpose());
+        response.put("size", session.getTotalSize());
+        response.put("chunkSize", session.getChunkSize());
+        response.put("chunkCount", session.getChunkCount());
+        response.put("receivedBytes", session.getReceivedBytes());
+        response.put("complete", session.isComplete());
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
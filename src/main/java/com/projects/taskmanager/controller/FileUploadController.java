@@ -1,24 +1,35 @@
 package com.projects.taskmanager.controller;
 
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import com.projects.taskmanager.model.StoredBlob;
 import com.projects.taskmanager.model.TaskAttachment;
 import com.projects.taskmanager.model.User;
 import com.projects.taskmanager.service.TaskAttachmentService;
 import com.projects.taskmanager.service.UserService;
-import com.projects.taskmanager.observability.MetricsService;
+import com.projects.taskmanager.service.exception.StorageQuotaExceededException;
 import com.projects.taskmanager.dto.TaskAttachmentResponse;
-import io.micrometer.core.instrument.Timer;
+import com.projects.taskmanager.storage.BlobStore;
+import com.projects.taskmanager.storage.ContentAddressedStorage;
+import com.projects.taskmanager.storage.FileDownloadSupport;
+import com.projects.taskmanager.storage.HotFileCache;
+import com.projects.taskmanager.storage.ImageVariantService;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
@@ -31,14 +42,23 @@ public class FileUploadController {
     
     private final TaskAttachmentService taskAttachmentService;
     private final UserService userService;
-    private final MetricsService metricsService;
+    private final FileDownloadSupport fileDownloadSupport;
+    private final ImageVariantService imageVariantService;
+    private final HotFileCache hotFileCache;
+    private final ContentAddressedStorage contentAddressedStorage;
     
     public FileUploadController(TaskAttachmentService taskAttachmentService,
                               UserService userService,
-                              MetricsService metricsService) {
+                              FileDownloadSupport fileDownloadSupport,
+                              ImageVariantService imageVariantService,
+                              HotFileCache hotFileCache,
+                              ContentAddressedStorage contentAddressedStorage) {
         this.taskAttachmentService = taskAttachmentService;
         this.userService = userService;
-        this.metricsService = metricsService;
+        this.fileDownloadSupport = fileDownloadSupport;
+        this.imageVariantService = imageVariantService;
+        this.hotFileCache = hotFileCache;
+        this.contentAddressedStorage = contentAddressedStorage;
     }
     
     @PostMapping("/upload")
@@ -48,7 +68,6 @@ public class FileUploadController {
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "description", required = false) String description) {
         
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
         try {
             // Get current user from security context
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -58,22 +77,7 @@ public class FileUploadController {
             TaskAttachment attachment = taskAttachmentService.uploadAttachment(taskId, file, description, currentUser);
             
             // Convert to DTO to avoid lazy loading issues
-            TaskAttachmentResponse attachmentResponse = new TaskAttachmentResponse(
-                attachment.getId(),
-                attachment.getFilename(),
-                attachment.getOriginalFilename(),
-                attachment.getContentType(),
-                attachment.getFileSize(),
-                attachment.getFilePath(),
-                attachment.getDescription(),
-                attachment.getCreatedAt(),
-                attachment.getUpdatedAt(),
-                attachment.isImage(),
-                attachment.getFileSizeFormatted(),
-                attachment.getUploader().getUsername(),
-                attachment.getUploader().getFirstName(),
-                attachment.getUploader().getLastName()
-            );
+            TaskAttachmentResponse attachmentResponse = TaskAttachmentResponse.from(attachment);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -86,19 +90,22 @@ public class FileUploadController {
             response.put("success", false);
             response.put("error", "Failed to upload file: " + e.getMessage());
             return ResponseEntity.badRequest().body(response);
+        } catch (StorageQuotaExceededException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(response);
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
         }
     }
     
     @GetMapping("/download/{attachmentId}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<byte[]> downloadAttachment(@PathVariable Long attachmentId) {
+    public ResponseEntity<Resource> downloadAttachment(@PathVariable Long attachmentId, ServletWebRequest webRequest) {
         try {
             Optional<TaskAttachment> attachment = taskAttachmentService.getAttachmentById(attachmentId);
             if (attachment.isEmpty()) {
@@ -106,24 +113,132 @@ public class FileUploadController {
             }
             
             TaskAttachment att = attachment.get();
-            Path filePath = Paths.get(att.getFilePath());
-            
-            if (!Files.exists(filePath)) {
+            return serveOriginal(
+                att,
+                ContentDisposition.attachment().filename(att.getOriginalFilename(), StandardCharsets.UTF_8).build(),
+                webRequest
+            );
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            return ResponseEntity.status(500).build();
+        }
+    }
+    
+    /**
+     * Serve a resized image attachment (thumbnail or preview) inline.
+     * Falls back to the original image until the variant has been generated.
+     */
+    @GetMapping("/{attachmentId}/{variant}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Resource> getAttachmentVariant(@PathVariable Long attachmentId,
+                                                         @PathVariable String variant,
+                                                         ServletWebRequest webRequest) {
+        try {
+            Optional<ImageVariantService.Variant> requested = ImageVariantService.Variant.fromPath(variant);
+            Optional<TaskAttachment> attachment = taskAttachmentService.getAttachmentById(attachmentId);
+            if (requested.isEmpty() || attachment.isEmpty() || !attachment.get().isImage()) {
                 return ResponseEntity.notFound().build();
             }
             
-            byte[] fileContent = Files.readAllBytes(filePath);
+            TaskAttachment att = attachment.get();
+            String contentHash = taskAttachmentService.resolveContentHash(att);
+            String variantEtag = contentHash + "-" + variant;
+            ContentDisposition inline = ContentDisposition.inline().filename(att.getOriginalFilename(), StandardCharsets.UTF_8).build();
+            
+            HotFileCache.CachedFile cached = hotFileCache.getIfPresent(variantEtag);
+            if (cached != null) {
+                return fileDownloadSupport.serve(cached, inline, CacheControl.noCache().cachePrivate());
+            }
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(att.getContentType()));
-            headers.setContentDispositionFormData("attachment", att.getOriginalFilename());
-            headers.setContentLength(fileContent.length);
+            ImageVariantService.ImageSource source = att.getBlob() != null
+                ? () -> contentAddressedStorage.open(att.getBlob())
+                : () -> Files.newInputStream(Paths.get(att.getFilePath()));
+            Optional<ImageVariantService.StoredVariant> stored = imageVariantService.findVariant(contentHash, source, requested.get());
+            if (stored.isPresent()) {
+                return serveFile(stored.get().path(), MediaType.parseMediaType(stored.get().contentType()),
+                    variantEtag, inline, webRequest);
+            }
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(fileContent);
+            return serveOriginal(att, inline, webRequest);
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
         } catch (IOException e) {
             return ResponseEntity.status(500).build();
         }
     }
+    
+    /**
+     * Serve an attachment's stored content, from the hot file cache when it is small enough.
+     */
+    private ResponseEntity<Resource> serveOriginal(TaskAttachment att, ContentDisposition disposition,
+                                                  ServletWebRequest webRequest) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(att.getContentType());
+        StoredBlob blob = att.getBlob();
+        if (blob == null) {
+            // Attachment from before blob storage, still at its original path
+            return serveFile(Paths.get(att.getFilePath()), contentType, taskAttachmentService.resolveContentHash(att),
+                disposition, webRequest);
+        }
+        
+        long lastModified = blob.getCreatedAt() != null ? blob.getCreatedAt().toEpochMilli() : 0;
+        BlobStore blobStore = contentAddressedStorage.getBlobStore();
+        String contentHash = blob.getContentHash();
+        String encoding = blob.getContentEncoding();
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        
+        // Compressed blobs go out as stored when the client accepts the encoding
+        boolean passThrough = encoding != null && fileDownloadSupport.canPassThrough(encoding, webRequest);
+        HotFileCache.CachedFile cached = passThrough
+            ? hotFileCache.get(contentHash + "-" + encoding, blob.getStoredSize(), lastModified, contentType,
+                () -> blobStore.open(contentHash))
+            : hotFileCache.get(contentHash, blob.getSize(), lastModified, contentType,
+                () -> contentAddressedStorage.open(blob));
+        if (cached != null) {
+            if (!contentType.equals(cached.contentType())) {
+                cached = new HotFileCache.CachedFile(cached.content(), contentType, cached.etag(), cached.lastModified());
+            }
+            return fileDownloadSupport.serve(cached, passThrough ? encoding : null, encoding != null, disposition, cacheControl);
+        }
+        
+        if (encoding != null) {
+            return fileDownloadSupport.serveEncoded(blobStore, contentHash, encoding, blob.getStoredSize(), blob.getSize(),
+                lastModified, contentType, contentHash, disposition, cacheControl, webRequest);
+        }
+        return fileDownloadSupport.serve(blobStore, contentHash, blob.getSize(), lastModified, contentType, contentHash,
+            disposition, cacheControl, webRequest);
+    }
+    
+    /**
+     * Serve a local file from the hot file cache when it is small enough, otherwise from disk.
+     */
+    private ResponseEntity<Resource> serveFile(Path filePath, MediaType contentType, String etag,
+                                              ContentDisposition disposition, ServletWebRequest webRequest) throws IOException {
+        HotFileCache.CachedFile cached = hotFileCache.get(etag, filePath, path -> contentType);
+        if (cached != null) {
+            return serveCached(cached, contentType, disposition);
+        }
+        
+        if (!Files.exists(filePath)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return fileDownloadSupport.serve(
+            filePath,
+            contentType,
+            etag,
+            disposition,
+            CacheControl.noCache().cachePrivate(),
+            webRequest
+        );
+    }
+    
+    private ResponseEntity<Resource> serveCached(HotFileCache.CachedFile cached, MediaType contentType,
+                                                ContentDisposition disposition) {
+        // Identical content may have been uploaded under different declared types
+        if (!contentType.equals(cached.contentType())) {
+            cached = new HotFileCache.CachedFile(cached.content(), contentType, cached.etag(), cached.lastModified());
+        }
+        return fileDownloadSupport.serve(cached, disposition, CacheControl.noCache().cachePrivate());
+    }
 }
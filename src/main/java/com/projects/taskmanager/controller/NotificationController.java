@@ -0,0 +1,43 @@
+package com.projects.taskmanager.controller;
+
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import com.projects.taskmanager.graphql.GraphQLUserContext;
+import com.projects.taskmanager.graphql.NotificationPage;
+import com.projects.taskmanager.service.NotificationInboxService;
+
+@Controller
+public class NotificationController {
+
+    private final NotificationInboxService notificationInboxService;
+    private final GraphQLUserContext userContext;
+
+    public NotificationController(NotificationInboxService notificationInboxService,
+                                  GraphQLUserContext userContext) {
+        this.notificationInboxService = notificationInboxService;
+        this.userContext = userContext;
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('USER')")
+    public NotificationPage notifications(@Argument Integer first, @Argument Long after) {
+        int pageSize = first != null ? first : 20;
+        return notificationInboxService.getNotifications(userContext.getCurrentUserId(), pageSize, after);
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('USER')")
+    public Long unreadNotificationCount() {
+        return notificationInboxService.getUnreadCount(userContext.getCurrentUserId());
+    }
+
+    @MutationMapping
+    @PreAuthorize("hasRole('USER')")
+    public Long markNotificationsRead(@Argument Long upTo) {
+        return notificationInboxService.markRead(userContext.getCurrentUserId(), upTo);
+    }
+}
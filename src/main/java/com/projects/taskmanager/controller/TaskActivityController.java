@@ -6,29 +6,36 @@ import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
+import com.projects.taskmanager.graphql.ActivityPage;
+import com.projects.taskmanager.model.ActivityType;
 import com.projects.taskmanager.model.TaskActivity;
 import com.projects.taskmanager.service.TaskActivityService;
-import com.projects.taskmanager.observability.MetricsService;
-import io.micrometer.core.instrument.Timer;
 
 @Controller
 public class TaskActivityController {
     
     private final TaskActivityService taskActivityService;
-    private final MetricsService metricsService;
     
-    public TaskActivityController(TaskActivityService taskActivityService, MetricsService metricsService) {
+    public TaskActivityController(TaskActivityService taskActivityService) {
         this.taskActivityService = taskActivityService;
-        this.metricsService = metricsService;
     }
     
     @QueryMapping
     public List<TaskActivity> taskActivities(@Argument Long taskId) {
-        Timer.Sample sample = metricsService.startGraphQLQueryTimer();
-        try {
-            return taskActivityService.getActivitiesByTaskId(taskId);
-        } finally {
-            metricsService.stopGraphQLQueryTimer(sample);
-        }
+        return taskActivityService.getActivitiesByTaskId(taskId);
+    }
+    
+    @QueryMapping
+    public ActivityPage activityFeed(@Argument Long taskId, @Argument List<ActivityType> types,
+                                     @Argument Integer first, @Argument String after) {
+        int pageSize = first != null ? first : 20;
+        return taskActivityService.getActivityFeed(taskId, types, pageSize, after);
+    }
+    
+    @QueryMapping
+    public ActivityPage globalActivityFeed(@Argument List<ActivityType> types, @Argument Integer first,
+                                           @Argument String after) {
+        int pageSize = first != null ? first : 20;
+        return taskActivityService.getGlobalActivityFeed(types, pageSize, after);
     }
 }
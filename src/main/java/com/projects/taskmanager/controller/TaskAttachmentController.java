@@ -7,70 +7,65 @@ import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import com.projects.taskmanager.model.StorageUsage;
 import com.projects.taskmanager.model.TaskAttachment;
 import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.service.StorageQuotaService;
 import com.projects.taskmanager.service.TaskAttachmentService;
+import com.projects.taskmanager.graphql.StorageUsageSummary;
 import com.projects.taskmanager.graphql.GraphQLUserContext;
-import com.projects.taskmanager.observability.MetricsService;
-import io.micrometer.core.instrument.Timer;
 
 @Controller
 public class TaskAttachmentController {
     
     private final TaskAttachmentService taskAttachmentService;
     private final GraphQLUserContext userContext;
-    private final MetricsService metricsService;
+    private final StorageQuotaService storageQuotaService;
     
     public TaskAttachmentController(TaskAttachmentService taskAttachmentService,
                                   GraphQLUserContext userContext,
-                                  MetricsService metricsService) {
+                                  StorageQuotaService storageQuotaService) {
         this.taskAttachmentService = taskAttachmentService;
         this.userContext = userContext;
-        this.metricsService = metricsService;
+        this.storageQuotaService = storageQuotaService;
     }
     
     @QueryMapping
     public List<TaskAttachment> taskAttachments(@Argument Long taskId) {
-        Timer.Sample sample = metricsService.startGraphQLQueryTimer();
-        try {
-            return taskAttachmentService.getAttachmentsByTaskId(taskId);
-        } finally {
-            metricsService.stopGraphQLQueryTimer(sample);
-        }
+        return taskAttachmentService.getAttachmentsByTaskId(taskId);
     }
     
     @QueryMapping
     public List<TaskAttachment> taskImages(@Argument Long taskId) {
-        Timer.Sample sample = metricsService.startGraphQLQueryTimer();
-        try {
-            return taskAttachmentService.getImagesByTaskId(taskId);
-        } finally {
-            metricsService.stopGraphQLQueryTimer(sample);
-        }
+        return taskAttachmentService.getImagesByTaskId(taskId);
     }
     
     @QueryMapping
     public TaskAttachment taskAttachment(@Argument Long id) {
-        Timer.Sample sample = metricsService.startGraphQLQueryTimer();
-        try {
-            return taskAttachmentService.getAttachmentById(id).orElse(null);
-        } finally {
-            metricsService.stopGraphQLQueryTimer(sample);
+        return taskAttachmentService.getAttachmentById(id).orElse(null);
+    }
+    
+    @QueryMapping
+    @PreAuthorize("hasRole('USER')")
+    public StorageUsageSummary storageUsage(@Argument Long userId, @Argument Long taskId) {
+        if (taskId != null) {
+            return storageQuotaService.getUsage(StorageUsage.Scope.TASK, taskId);
         }
+        Long currentUserId = userContext.getCurrentUserId();
+        if (userId != null && !userId.equals(currentUserId) && !userContext.isAdmin()) {
+            throw new AccessDeniedException("Only admins can view another user's storage usage");
+        }
+        return storageQuotaService.getUsage(StorageUsage.Scope.USER, userId != null ? userId : currentUserId);
     }
     
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public Boolean deleteTaskAttachment(@Argument Long id) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            User currentUser = userContext.getCurrentUser();
-            return taskAttachmentService.deleteAttachment(id, currentUser);
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
-        }
+        User currentUser = userContext.getCurrentUser();
+        return taskAttachmentService.deleteAttachment(id, currentUser);
     }
     
     @SchemaMapping
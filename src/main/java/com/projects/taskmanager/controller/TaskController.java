@@ -27,7 +27,6 @@ import com.projects.taskmanager.graphql.GraphQLUserContext;
 import com.projects.taskmanager.observability.MetricsService;
 import com.projects.taskmanager.service.TaskActivityService;
 import com.projects.taskmanager.model.ActivityType;
-import io.micrometer.core.instrument.Timer;
 
 @Controller
 @Validated
@@ -48,14 +47,7 @@ public class TaskController {
 
     @QueryMapping
     public List<Task> tasks() {
-        Timer.Sample sample = metricsService.startGraphQLQueryTimer();
-        try {
-            List<Task> result = taskService.getAllTasks();
-            metricsService.recordActiveTasks(result.size());
-            return result;
-        } finally {
-            metricsService.stopGraphQLQueryTimer(sample);
-        }
+        return taskService.getAllTasks();
     }
 
     @QueryMapping
@@ -113,157 +105,127 @@ public class TaskController {
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public Task createTask(@Argument("input") @Valid CreateTaskInput input){
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            Task task = new Task();
-            task.setTitle(input.getTitle());
-            task.setDescription(input.getDescription());
-            task.setCompleted(input.getCompleted() != null && input.getCompleted());
-            if (input.getDueDate() != null) {
-                task.setDueDate(LocalDate.parse(input.getDueDate()));
-            }
-            if (input.getEstimationHours() != null) {
-                task.setEstimationHours(input.getEstimationHours());
-            }
-            Task createdTask = taskService.createTask(task);
-
-            // Log activity
-            User currentUser = userContext.getCurrentUser();
-            taskActivityService.logActivity(createdTask, currentUser, ActivityType.TASK_CREATED, 
-                "Created task: " + createdTask.getTitle());
+        Task task = new Task();
+        task.setTitle(input.getTitle());
+        task.setDescription(input.getDescription());
+        task.setCompleted(input.getCompleted() != null && input.getCompleted());
+        if (input.getDueDate() != null) {
+            task.setDueDate(LocalDate.parse(input.getDueDate()));
+        }
+        if (input.getEstimationHours() != null) {
+            task.setEstimationHours(input.getEstimationHours());
+        }
+        Task createdTask = taskService.createTask(task);
 
-            // Handle user assignments if provided
-            if (input.getAssignedUserIds() != null && !input.getAssignedUserIds().isEmpty()) {
-                Task result = userService.assignUsersToTask(createdTask.getId(), Set.copyOf(input.getAssignedUserIds()));
-                metricsService.incrementTaskCreated();
-                return result;
-            }
+        // Log activity
+        User currentUser = userContext.getCurrentUser();
+        taskActivityService.logActivity(createdTask, currentUser, ActivityType.TASK_CREATED, 
+            "Created task: " + createdTask.getTitle());
 
+        // Handle user assignments if provided
+        if (input.getAssignedUserIds() != null && !input.getAssignedUserIds().isEmpty()) {
+            Task result = userService.assignUsersToTask(createdTask.getId(), Set.copyOf(input.getAssignedUserIds()));
             metricsService.incrementTaskCreated();
-            return createdTask;
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
+            return result;
         }
+
+        metricsService.incrementTaskCreated();
+        return createdTask;
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public Boolean deleteTask(@Argument Long id) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            // Get the task before deletion for activity logging
-            Task taskToDelete = taskService.getTaskById(id).orElse(null);
-            
-            boolean result = taskService.deleteTask(id);
-            if (result) {
-                // Log activity
-                User currentUser = userContext.getCurrentUser();
-                if (taskToDelete != null) {
-                    taskActivityService.logActivity(taskToDelete, currentUser, ActivityType.TASK_DELETED, 
-                        "Deleted task: " + taskToDelete.getTitle());
-                }
-                metricsService.incrementTaskDeleted();
+        // Get the task before deletion for activity logging
+        Task taskToDelete = taskService.getTaskById(id).orElse(null);
+        
+        boolean result = taskService.deleteTask(id);
+        if (result) {
+            // Log activity
+            User currentUser = userContext.getCurrentUser();
+            if (taskToDelete != null) {
+                taskActivityService.logActivity(taskToDelete, currentUser, ActivityType.TASK_DELETED, 
+                    "Deleted task: " + taskToDelete.getTitle());
             }
-            return result;
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
+            metricsService.incrementTaskDeleted();
         }
+        return result;
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public Task updateTask(@Argument Long id, @Argument("input") @Valid UpdateTaskInput input) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            // Get the task before update for activity logging
-            Task originalTask = taskService.getTaskById(id).orElse(null);
-            
-            Task updatedTask = taskService.updateTask(
-                id,
-                input.getTitle(),
-                input.getDescription(),
-                input.getCompleted(),
-                input.getStatus(),
-                input.getDueDate(),
-                input.getEstimationHours()
-            );
-
-            // Log activity for changes
-            User currentUser = userContext.getCurrentUser();
-            if (originalTask != null) {
-                if (input.getTitle() != null && !input.getTitle().equals(originalTask.getTitle())) {
-                    taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_UPDATED, 
-                        "Updated title", originalTask.getTitle(), input.getTitle());
-                }
-                if (input.getStatus() != null && !input.getStatus().equals(originalTask.getStatus())) {
-                    taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_STATUS_CHANGED, 
-                        "Changed status", originalTask.getStatus().name(), input.getStatus().name());
-                }
-                if (input.getDueDate() != null && !input.getDueDate().equals(originalTask.getDueDate() != null ? originalTask.getDueDate().toString() : null)) {
-                    taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_DUE_DATE_CHANGED, 
-                        "Updated due date", originalTask.getDueDate() != null ? originalTask.getDueDate().toString() : "null", input.getDueDate());
-                }
-                if (input.getEstimationHours() != null && !input.getEstimationHours().equals(originalTask.getEstimationHours())) {
-                    taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_ESTIMATION_CHANGED, 
-                        "Updated estimation hours", originalTask.getEstimationHours() != null ? originalTask.getEstimationHours().toString() : "null", input.getEstimationHours().toString());
-                }
+        // Get the task before update for activity logging
+        Task originalTask = taskService.getTaskById(id).orElse(null);
+        
+        Task updatedTask = taskService.updateTask(
+            id,
+            input.getTitle(),
+            input.getDescription(),
+            input.getCompleted(),
+            input.getStatus(),
+            input.getDueDate(),
+            input.getEstimationHours()
+        );
+
+        // Log activity for changes
+        User currentUser = userContext.getCurrentUser();
+        if (originalTask != null) {
+            if (input.getTitle() != null && !input.getTitle().equals(originalTask.getTitle())) {
+                taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_UPDATED, 
+                    "Updated title", originalTask.getTitle(), input.getTitle());
             }
-
-            // Handle user assignments if provided
-            if (input.getAssignedUserIds() != null) {
-                Task result = userService.assignUsersToTask(updatedTask.getId(), Set.copyOf(input.getAssignedUserIds()));
-                metricsService.incrementTaskUpdated();
-                return result;
+            if (input.getStatus() != null && !input.getStatus().equals(originalTask.getStatus())) {
+                taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_STATUS_CHANGED, 
+                    "Changed status", originalTask.getStatus().name(), input.getStatus().name());
+            }
+            if (input.getDueDate() != null && !input.getDueDate().equals(originalTask.getDueDate() != null ? originalTask.getDueDate().toString() : null)) {
+                taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_DUE_DATE_CHANGED, 
+                    "Updated due date", originalTask.getDueDate() != null ? originalTask.getDueDate().toString() : "null", input.getDueDate());
+            }
+            if (input.getEstimationHours() != null && !input.getEstimationHours().equals(originalTask.getEstimationHours())) {
+                taskActivityService.logActivity(updatedTask, currentUser, ActivityType.TASK_ESTIMATION_CHANGED, 
+                    "Updated estimation hours", originalTask.getEstimationHours() != null ? originalTask.getEstimationHours().toString() : "null", input.getEstimationHours().toString());
             }
+        }
 
+        // Handle user assignments if provided
+        if (input.getAssignedUserIds() != null) {
+            Task result = userService.assignUsersToTask(updatedTask.getId(), Set.copyOf(input.getAssignedUserIds()));
             metricsService.incrementTaskUpdated();
-            return updatedTask;
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
+            return result;
         }
+
+        metricsService.incrementTaskUpdated();
+        return updatedTask;
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public BulkOperationResult bulkUpdateTasks(@Argument List<Long> taskIds, @Argument("input") @Valid BulkUpdateTaskInput input) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            BulkOperationResult result = taskService.bulkUpdateTasks(taskIds, input);
-            
-            // Handle user assignments if provided
-            if (input.getAssignedUserIds() != null && !input.getAssignedUserIds().isEmpty() && result.isSuccess()) {
-                BulkOperationResult assignResult = userService.bulkAssignUsers(taskIds, input.getAssignedUserIds());
-                if (!assignResult.isSuccess()) {
-                    result.getErrors().addAll(assignResult.getErrors());
-                    result.setSuccess(false);
-                }
+        BulkOperationResult result = taskService.bulkUpdateTasks(taskIds, input);
+        
+        // Handle user assignments if provided
+        if (input.getAssignedUserIds() != null && !input.getAssignedUserIds().isEmpty() && result.isSuccess()) {
+            BulkOperationResult assignResult = userService.bulkAssignUsers(taskIds, input.getAssignedUserIds());
+            if (!assignResult.isSuccess()) {
+                result.getErrors().addAll(assignResult.getErrors());
+                result.setSuccess(false);
             }
-            
-            return result;
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
         }
+        
+        return result;
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public BulkOperationResult bulkDeleteTasks(@Argument List<Long> taskIds) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            return taskService.bulkDeleteTasks(taskIds);
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
-        }
+        return taskService.bulkDeleteTasks(taskIds);
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public BulkOperationResult bulkAssignUsers(@Argument List<Long> taskIds, @Argument List<Long> userIds) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            return userService.bulkAssignUsers(taskIds, userIds);
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
-        }
+        return userService.bulkAssignUsers(taskIds, userIds);
     }
 }
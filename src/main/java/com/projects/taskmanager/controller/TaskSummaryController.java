@@ -0,0 +1,37 @@
+package com.projects.taskmanager.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.stereotype.Controller;
+
+import com.projects.taskmanager.graphql.TaskSummary;
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.service.TaskSummaryService;
+
+@Controller
+public class TaskSummaryController {
+
+    private static final TaskSummary EMPTY = new TaskSummary(0, 0, 0, 0, null);
+
+    private final TaskSummaryService taskSummaryService;
+
+    public TaskSummaryController(TaskSummaryService taskSummaryService) {
+        this.taskSummaryService = taskSummaryService;
+    }
+
+    /**
+     * Summaries of every task in the response, loaded together.
+     */
+    @BatchMapping(typeName = "Task")
+    public Map<Task, TaskSummary> summary(List<Task> tasks) {
+        Map<Long, TaskSummary> summaries = taskSummaryService.getSummaries(tasks.stream().map(Task::getId).toList());
+        Map<Task, TaskSummary> result = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            result.put(task, summaries.getOrDefault(task.getId(), EMPTY));
+        }
+        return result;
+    }
+}
@@ -15,29 +15,20 @@ import com.projects.taskmanager.graphql.input.CreateTaskTemplateInput;
 import com.projects.taskmanager.graphql.input.UpdateTaskTemplateInput;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
-import com.projects.taskmanager.observability.MetricsService;
-import io.micrometer.core.instrument.Timer;
 
 @Controller
 @Validated
 public class TaskTemplateController {
     
     private final TaskTemplateService taskTemplateService;
-    private final MetricsService metricsService;
 
-    public TaskTemplateController(TaskTemplateService taskTemplateService, MetricsService metricsService) {
+    public TaskTemplateController(TaskTemplateService taskTemplateService) {
         this.taskTemplateService = taskTemplateService;
-        this.metricsService = metricsService;
     }
 
     @QueryMapping
     public List<TaskTemplate> taskTemplates() {
-        Timer.Sample sample = metricsService.startGraphQLQueryTimer();
-        try {
-            return taskTemplateService.getAllTaskTemplates();
-        } finally {
-            metricsService.stopGraphQLQueryTimer(sample);
-        }
+        return taskTemplateService.getAllTaskTemplates();
     }
 
     @QueryMapping
@@ -48,56 +39,36 @@ public class TaskTemplateController {
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public TaskTemplate createTaskTemplate(@Argument("input") @Valid CreateTaskTemplateInput input) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            TaskTemplate template = new TaskTemplate();
-            template.setName(input.getName());
-            template.setTitle(input.getTitle());
-            template.setDescription(input.getDescription());
-            template.setEstimationHours(input.getEstimationHours());
-            
-            return taskTemplateService.createTaskTemplate(template);
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
-        }
+        TaskTemplate template = new TaskTemplate();
+        template.setName(input.getName());
+        template.setTitle(input.getTitle());
+        template.setDescription(input.getDescription());
+        template.setEstimationHours(input.getEstimationHours());
+        
+        return taskTemplateService.createTaskTemplate(template);
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public TaskTemplate updateTaskTemplate(@Argument Long id, @Argument("input") @Valid UpdateTaskTemplateInput input) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            return taskTemplateService.updateTaskTemplate(
-                id,
-                input.getName(),
-                input.getTitle(),
-                input.getDescription(),
-                input.getEstimationHours()
-            );
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
-        }
+        return taskTemplateService.updateTaskTemplate(
+            id,
+            input.getName(),
+            input.getTitle(),
+            input.getDescription(),
+            input.getEstimationHours()
+        );
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public Boolean deleteTaskTemplate(@Argument Long id) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            return taskTemplateService.deleteTaskTemplate(id);
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
-        }
+        return taskTemplateService.deleteTaskTemplate(id);
     }
 
     @MutationMapping
     @PreAuthorize("hasRole('USER')")
     public Task createTaskFromTemplate(@Argument Long templateId, @Argument List<Long> assignedUserIds) {
-        Timer.Sample sample = metricsService.startGraphQLMutationTimer();
-        try {
-            return taskTemplateService.createTaskFromTemplate(templateId, assignedUserIds);
-        } finally {
-            metricsService.stopGraphQLMutationTimer(sample);
-        }
+        return taskTemplateService.createTaskFromTemplate(templateId, assignedUserIds);
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.projects.taskmanager.controller;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -11,26 +12,33 @@ import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.projects.taskmanager.model.Task;
 import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.service.AvatarService;
 import com.projects.taskmanager.service.UserService;
 import com.projects.taskmanager.graphql.input.CreateUserInput;
 import com.projects.taskmanager.graphql.input.UpdateUserInput;
+import com.projects.taskmanager.storage.FileDownloadSupport;
+import com.projects.taskmanager.storage.HotFileCache;
+import com.projects.taskmanager.storage.ImageVariantService;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.util.HashMap;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.time.Duration;
 
 /**
  * GraphQL Controller for User operations.
@@ -40,9 +48,19 @@ import java.util.UUID;
 public class UserController {
 
     private final UserService userService;
-
-    public UserController(UserService userService) {
+    private final AvatarService avatarService;
+    private final ImageVariantService imageVariantService;
+    private final FileDownloadSupport fileDownloadSupport;
+    private final HotFileCache hotFileCache;
+
+    public UserController(UserService userService, AvatarService avatarService,
+                          ImageVariantService imageVariantService, FileDownloadSupport fileDownloadSupport,
+                          HotFileCache hotFileCache) {
         this.userService = userService;
+        this.avatarService = avatarService;
+        this.imageVariantService = imageVariantService;
+        this.fileDownloadSupport = fileDownloadSupport;
+        this.hotFileCache = hotFileCache;
     }
 
     @QueryMapping
@@ -188,27 +206,12 @@ public class UserController {
     public ResponseEntity<Map<String, Object>> uploadAvatar(@RequestParam("file") MultipartFile file) {
         try {
             // Validate file
-            if (file.isEmpty()) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", false);
-                response.put("error", "File is empty");
-                return ResponseEntity.badRequest().body(response);
-            }
-
-            // Check file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
+            try {
+                avatarService.validate(file.getContentType(), file.getSize());
+            } catch (IllegalArgumentException e) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
-                response.put("error", "File must be an image");
-                return ResponseEntity.badRequest().body(response);
-            }
-
-            // Check file size (max 5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", false);
-                response.put("error", "File size must be less than 5MB");
+                response.put("error", e.getMessage());
                 return ResponseEntity.badRequest().body(response);
             }
 
@@ -217,34 +220,12 @@ public class UserController {
             String username = authentication.getName();
             User currentUser = userService.getUserByUsername(username);
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                : ".jpg";
-            String uniqueFilename = "avatar_" + currentUser.getId() + "_" + UUID.randomUUID() + extension;
-
-            // Create uploads directory if it doesn't exist
-            Path uploadDir = Paths.get("uploads", "avatars");
-            if (!Files.exists(uploadDir)) {
-                try {
-                    Files.createDirectories(uploadDir);
-                } catch (IOException e) {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", false);
-                    response.put("error", "Failed to create upload directory: " + e.getMessage());
-                    return ResponseEntity.internalServerError().body(response);
-                }
+            // Save file and update user avatar URL
+            String avatarUrl;
+            try (InputStream in = file.getInputStream()) {
+                avatarUrl = avatarService.storeAvatar(currentUser, in, file.getOriginalFilename());
             }
 
-            // Save file
-            Path filePath = uploadDir.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Update user avatar URL
-            String avatarUrl = "/api/user/avatar/" + uniqueFilename;
-            userService.updateUserAvatar(currentUser.getId(), avatarUrl);
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("avatarUrl", avatarUrl);
@@ -266,30 +247,104 @@ public class UserController {
 
     /**
      * Get user avatar.
+     * Avatar filenames are unique per upload and never rewritten, so the name
+     * identifies the content and doubles as a strong ETag.
      */
     @GetMapping("/api/user/avatar/{filename}")
-    public ResponseEntity<byte[]> getAvatar(@PathVariable String filename) {
+    public ResponseEntity<Resource> getAvatar(@PathVariable String filename, ServletWebRequest webRequest) {
         try {
-            Path filePath = Paths.get("uploads", "avatars", filename);
+            Path filePath = avatarService.resolve(filename);
+
+            HotFileCache.CachedFile cached = hotFileCache.get(filename, filePath, this::probeMediaType);
+            if (cached != null) {
+                return fileDownloadSupport.serve(cached, null, CacheControl.maxAge(Duration.ofDays(1)).cachePublic());
+            }
 
             if (!Files.exists(filePath)) {
                 return ResponseEntity.notFound().build();
             }
 
-            byte[] fileContent = Files.readAllBytes(filePath);
-            String contentType = Files.probeContentType(filePath);
+            return fileDownloadSupport.serve(
+                    filePath,
+                    probeMediaType(filePath),
+                    filename,
+                    null,
+                    CacheControl.maxAge(Duration.ofDays(1)).cachePublic(), // Cache for 1 day
+                    webRequest
+            );
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Get a resized avatar (thumbnail or preview).
+     * Falls back to the original, without long-lived caching, until the variant is ready.
+     */
+    @GetMapping("/api/user/avatar/{filename}/{variant}")
+    public ResponseEntity<Resource> getAvatarVariant(@PathVariable String filename,
+                                                     @PathVariable String variant,
+                                                     ServletWebRequest webRequest) {
+        try {
+            String variantEtag = filename + "-" + variant;
+            HotFileCache.CachedFile cached = hotFileCache.getIfPresent(variantEtag);
+            if (cached != null) {
+                return fileDownloadSupport.serve(cached, null, CacheControl.maxAge(Duration.ofDays(1)).cachePublic());
+            }
+
+            Optional<ImageVariantService.Variant> requested = ImageVariantService.Variant.fromPath(variant);
+            Path filePath = avatarService.resolve(filename);
 
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+            if (requested.isEmpty() || !Files.exists(filePath)) {
+                return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok()
-                    .header("Content-Type", contentType)
-                    .header("Cache-Control", "public, max-age=86400") // Cache for 1 day
-                    .body(fileContent);
+            Optional<ImageVariantService.StoredVariant> stored = imageVariantService.findVariant(filename, () -> Files.newInputStream(filePath), requested.get());
+            if (stored.isPresent()) {
+                MediaType variantType = MediaType.parseMediaType(stored.get().contentType());
+                cached = hotFileCache.get(variantEtag, stored.get().path(), path -> variantType);
+                if (cached != null) {
+                    return fileDownloadSupport.serve(cached, null, CacheControl.maxAge(Duration.ofDays(1)).cachePublic());
+                }
+                return fileDownloadSupport.serve(
+                        stored.get().path(),
+                        variantType,
+                        variantEtag,
+                        null,
+                        CacheControl.maxAge(Duration.ofDays(1)).cachePublic(), // Cache for 1 day
+                        webRequest
+                );
+            }
 
+            cached = hotFileCache.get(filename, filePath, this::probeMediaType);
+            if (cached != null) {
+                return fileDownloadSupport.serve(cached, null, CacheControl.noCache());
+            }
+            return fileDownloadSupport.serve(
+                    filePath,
+                    probeMediaType(filePath),
+                    filename,
+                    null,
+                    CacheControl.noCache(),
+                    webRequest
+            );
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
         } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    private MediaType probeMediaType(Path filePath) throws IOException {
+        String contentType = Files.probeContentType(filePath);
+
+        if (contentType == null) {
+            contentType = "application/octet-stream";
+        }
+        return MediaType.parseMediaType(contentType);
+    }
 }
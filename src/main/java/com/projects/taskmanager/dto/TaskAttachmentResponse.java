@@ -1,5 +1,7 @@
 package com.projects.taskmanager.dto;
 
+import com.projects.taskmanager.model.TaskAttachment;
+
 import java.time.Instant;
 
 public class TaskAttachmentResponse {
@@ -14,6 +16,8 @@ public class TaskAttachmentResponse {
     private Instant updatedAt;
     private boolean isImage;
     private String fileSizeFormatted;
+    private String thumbnailUrl;
+    private String previewUrl;
     private String uploaderUsername;
     private String uploaderFirstName;
     private String uploaderLastName;
@@ -41,6 +45,28 @@ public class TaskAttachmentResponse {
         this.uploaderLastName = uploaderLastName;
     }
 
+    public static TaskAttachmentResponse from(TaskAttachment attachment) {
+        TaskAttachmentResponse response = new TaskAttachmentResponse(
+            attachment.getId(),
+            attachment.getFilename(),
+            attachment.getOriginalFilename(),
+            attachment.getContentType(),
+            attachment.getFileSize(),
+            attachment.getFilePath(),
+            attachment.getDescription(),
+            attachment.getCreatedAt(),
+            attachment.getUpdatedAt(),
+            attachment.isImage(),
+            attachment.getFileSizeFormatted(),
+            attachment.getUploader().getUsername(),
+            attachment.getUploader().getFirstName(),
+            attachment.getUploader().getLastName()
+        );
+        response.setThumbnailUrl(attachment.getThumbnailUrl());
+        response.setPreviewUrl(attachment.getPreviewUrl());
+        return response;
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -75,6 +101,12 @@ public class TaskAttachmentResponse {
     public String getFileSizeFormatted() { return fileSizeFormatted; }
     public void setFileSizeFormatted(String fileSizeFormatted) { this.fileSizeFormatted = fileSizeFormatted; }
 
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
+    public String getPreviewUrl() { return previewUrl; }
+    public void setPreviewUrl(String previewUrl) { this.previewUrl = previewUrl; }
+
     public String getUploaderUsername() { return uploaderUsername; }
     public void setUploaderUsername(String uploaderUsername) { this.uploaderUsername = uploaderUsername; }
 
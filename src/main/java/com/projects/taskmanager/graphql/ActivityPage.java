@@ -0,0 +1,32 @@
+package com.projects.taskmanager.graphql;
+
+import java.util.List;
+
+import com.projects.taskmanager.model.TaskActivity;
+
+/**
+ * Keyset page of an activity feed, newest first
+ */
+public class ActivityPage {
+    private final List<TaskActivity> content;
+    private final String endCursor;
+    private final boolean hasNextPage;
+
+    public ActivityPage(List<TaskActivity> content, String endCursor, boolean hasNextPage) {
+        this.content = content;
+        this.endCursor = endCursor;
+        this.hasNextPage = hasNextPage;
+    }
+
+    public List<TaskActivity> getContent() {
+        return content;
+    }
+
+    public String getEndCursor() {
+        return endCursor;
+    }
+
+    public boolean isHasNextPage() {
+        return hasNextPage;
+    }
+}
@@ -0,0 +1,26 @@
+package com.projects.taskmanager.graphql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.projects.taskmanager.model.TaskComment;
+
+/**
+ * A comment with its replies already attached, nested to any depth
+ */
+public class CommentThread {
+    private final TaskComment comment;
+    private final List<CommentThread> replies = new ArrayList<>();
+
+    public CommentThread(TaskComment comment) {
+        this.comment = comment;
+    }
+
+    public TaskComment getComment() {
+        return comment;
+    }
+
+    public List<CommentThread> getReplies() {
+        return replies;
+    }
+}
@@ -0,0 +1,30 @@
+package com.projects.taskmanager.graphql;
+
+import java.util.List;
+
+/**
+ * Keyset page of a task's comment threads, one entry per top-level comment
+ */
+public class CommentThreadPage {
+    private final List<CommentThread> content;
+    private final Long endCursor;
+    private final boolean hasNextPage;
+
+    public CommentThreadPage(List<CommentThread> content, Long endCursor, boolean hasNextPage) {
+        this.content = content;
+        this.endCursor = endCursor;
+        this.hasNextPage = hasNextPage;
+    }
+
+    public List<CommentThread> getContent() {
+        return content;
+    }
+
+    public Long getEndCursor() {
+        return endCursor;
+    }
+
+    public boolean isHasNextPage() {
+        return hasNextPage;
+    }
+}
@@ -0,0 +1,38 @@
+package com.projects.taskmanager.graphql;
+
+import java.util.List;
+
+import com.projects.taskmanager.model.Notification;
+
+/**
+ * Keyset page of a user's notification inbox
+ */
+public class NotificationPage {
+    private final List<Notification> content;
+    private final Long endCursor;
+    private final boolean hasNextPage;
+    private final long unreadCount;
+
+    public NotificationPage(List<Notification> content, Long endCursor, boolean hasNextPage, long unreadCount) {
+        this.content = content;
+        this.endCursor = endCursor;
+        this.hasNextPage = hasNextPage;
+        this.unreadCount = unreadCount;
+    }
+
+    public List<Notification> getContent() {
+        return content;
+    }
+
+    public Long getEndCursor() {
+        return endCursor;
+    }
+
+    public boolean isHasNextPage() {
+        return hasNextPage;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+}
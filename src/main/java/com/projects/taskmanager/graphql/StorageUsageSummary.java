@@ -0,0 +1,45 @@
+package com.projects.taskmanager.graphql;
+
+/**
+ * Attachment storage used by a user or task, and how much of its quota is left
+ */
+public class StorageUsageSummary {
+    private final String scope;
+    private final Long ownerId;
+    private final long usedBytes;
+    private final long fileCount;
+    private final Long quotaBytes;
+
+    public StorageUsageSummary(String scope, Long ownerId, long usedBytes, long fileCount, Long quotaBytes) {
+        this.scope = scope;
+        this.ownerId = ownerId;
+        this.usedBytes = usedBytes;
+        this.fileCount = fileCount;
+        this.quotaBytes = quotaBytes;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    // Null when quotas aren't enforced
+    public Long getQuotaBytes() {
+        return quotaBytes;
+    }
+
+    public Long getRemainingBytes() {
+        return quotaBytes == null ? null : Math.max(0, quotaBytes - usedBytes);
+    }
+}
@@ -0,0 +1,42 @@
+package com.projects.taskmanager.graphql;
+
+import java.time.Instant;
+
+/**
+ * Attachment, comment and activity totals shown on a task card
+ */
+public class TaskSummary {
+    private final int attachmentCount;
+    private final int imageCount;
+    private final int commentCount;
+    private final int activityCount;
+    private final Instant lastActivityAt;
+
+    public TaskSummary(int attachmentCount, int imageCount, int commentCount, int activityCount, Instant lastActivityAt) {
+        this.attachmentCount = attachmentCount;
+        this.imageCount = imageCount;
+        this.commentCount = commentCount;
+        this.activityCount = activityCount;
+        this.lastActivityAt = lastActivityAt;
+    }
+
+    public int getAttachmentCount() {
+        return attachmentCount;
+    }
+
+    public int getImageCount() {
+        return imageCount;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public int getActivityCount() {
+        return activityCount;
+    }
+
+    public Instant getLastActivityAt() {
+        return lastActivityAt;
+    }
+}
@@ -0,0 +1,130 @@
+package com.projects.taskmanager.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * A single entry in a user's notification inbox.
+ * Rows only hold ids and the event type so the inbox stays small;
+ * clients resolve the task when they render it.
+ */
+@Entity
+@Table(name = "notification", indexes = {
+    @Index(name = "idx_notification_recipient_id", columnList = "recipient_id, id"),
+    @Index(name = "idx_notification_created_at", columnList = "created_at")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class Notification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    @Column(name = "is_read", nullable = false)
+    private boolean read;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    // Constructors
+    public Notification() {
+    }
+
+    public Notification(Long recipientId, Long taskId, String type) {
+        this.recipientId = recipientId;
+        this.taskId = taskId;
+        this.type = type;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public void setRecipientId(Long recipientId) {
+        this.recipientId = recipientId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public void setRead(boolean read) {
+        this.read = read;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        Notification other = (Notification) obj;
+        if (this.id != null && other.id != null) {
+            return this.id.equals(other.id);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (id != null) ? id.hashCode() : getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Notification{" +
+                "id=" + id +
+                ", recipientId=" + recipientId +
+                ", taskId=" + taskId +
+                ", type='" + type + '\'' +
+                ", read=" + read +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.projects.taskmanager.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Per-user unread notification count, kept up to date with atomic
+ * increments and decrements instead of counting inbox rows.
+ */
+@Entity
+@Table(name = "notification_counter")
+public class NotificationCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long unreadCount;
+
+    // Constructors
+    public NotificationCounter() {
+    }
+
+    public NotificationCounter(Long userId, long unreadCount) {
+        this.userId = userId;
+        this.unreadCount = unreadCount;
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationCounter{" +
+                "userId=" + userId +
+                ", unreadCount=" + unreadCount +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+package com.projects.taskmanager.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Running total of attachment bytes charged to a user or a task, adjusted
+ * as attachments are added and removed instead of summing their rows.
+ */
+@Entity
+@Table(name = "storage_usage")
+@IdClass(StorageUsage.Key.class)
+public class StorageUsage {
+
+    public enum Scope {
+        USER,
+        TASK
+    }
+
+    public record Key(Scope scope, Long ownerId) implements Serializable {
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Scope scope;
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private long usedBytes;
+
+    @Column(nullable = false)
+    private long fileCount;
+
+    // Constructors
+    public StorageUsage() {
+    }
+
+    public StorageUsage(Scope scope, Long ownerId, long usedBytes, long fileCount) {
+        this.scope = scope;
+        this.ownerId = ownerId;
+        this.usedBytes = usedBytes;
+        this.fileCount = fileCount;
+    }
+
+    // Getters and Setters
+    public Scope getScope() {
+        return scope;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Key getKey() {
+        return new Key(scope, ownerId);
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public void setUsedBytes(long usedBytes) {
+        this.usedBytes = usedBytes;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public void setFileCount(long fileCount) {
+        this.fileCount = fileCount;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageUsage{" +
+                "scope=" + scope +
+                ", ownerId=" + ownerId +
+                ", usedBytes=" + usedBytes +
+                ", fileCount=" + fileCount +
+                '}';
+    }
+}
@@ -0,0 +1,152 @@
+package com.projects.taskmanager.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * A distinct piece of uploaded content, stored once and shared by every
+ * attachment with the same bytes.
+ */
+@Entity
+@Table(name = "stored_blob")
+@EntityListeners(AuditingEntityListener.class)
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the content, hex encoded
+    @Column(nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private long size;
+
+    // Bytes held by the blob store; smaller than size when compressed
+    private Long storedSize;
+
+    // Encoding of the stored bytes, e.g. gzip, or null when stored as uploaded
+    @Column(length = 16)
+    private String contentEncoding;
+
+    // CRC-32 of the original content, needed up front for uncompressed ZIP entries
+    private Long crc32;
+
+    @Column(nullable = false)
+    private String storagePath;
+
+    @Column(nullable = false)
+    private long referenceCount;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    // Constructors
+    public StoredBlob() {
+    }
+
+    public StoredBlob(String contentHash, long size, String storagePath) {
+        this.contentHash = contentHash;
+        this.size = size;
+        this.storagePath = storagePath;
+        this.referenceCount = 1;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getStoredSize() {
+        return storedSize != null ? storedSize : size;
+    }
+
+    public void setStoredSize(long storedSize) {
+        this.storedSize = storedSize;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public void setContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    public Long getCrc32() {
+        return crc32;
+    }
+
+    public void setCrc32(Long crc32) {
+        this.crc32 = crc32;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public long getReferenceCount() {
+        return referenceCount;
+    }
+
+    public void setReferenceCount(long referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        StoredBlob other = (StoredBlob) obj;
+        if (this.id != null && other.id != null) {
+            return this.id.equals(other.id);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (id != null) ? id.hashCode() : getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "StoredBlob{" +
+                "id=" + id +
+                ", contentHash='" + contentHash + '\'' +
+                ", size=" + size +
+                ", referenceCount=" + referenceCount +
+                '}';
+    }
+}
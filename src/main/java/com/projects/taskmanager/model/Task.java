@@ -68,6 +68,23 @@ public class Task {
     @OneToMany(mappedBy = "task", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TaskAttachment> attachments = new ArrayList<>();
 
+    // Summary counters, only ever written by atomic updates in TaskRepository.
+    // Null until the task is first counted.
+    @Column(insertable = false, updatable = false)
+    private Integer attachmentCount;
+
+    @Column(insertable = false, updatable = false)
+    private Integer imageCount;
+
+    @Column(insertable = false, updatable = false)
+    private Integer commentCount;
+
+    @Column(insertable = false, updatable = false)
+    private Integer activityCount;
+
+    @Column(insertable = false, updatable = false)
+    private Instant lastActivityAt;
+
     // Constructors
     public Task() {
     }
@@ -196,6 +213,26 @@ public class Task {
         this.attachments = attachments;
     }
 
+    public Integer getAttachmentCount() {
+        return attachmentCount;
+    }
+
+    public Integer getImageCount() {
+        return imageCount;
+    }
+
+    public Integer getCommentCount() {
+        return commentCount;
+    }
+
+    public Integer getActivityCount() {
+        return activityCount;
+    }
+
+    public Instant getLastActivityAt() {
+        return lastActivityAt;
+    }
+
     // Helper methods for managing user assignments
     public void assignUser(User user) {
         this.assignedUsers.add(user);
@@ -11,12 +11,19 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import jakarta.persistence.EntityListeners;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+    // Activity feeds: seek to the cursor and filter by type without visiting the rows
+    @Index(name = "idx_task_activity_task_feed", columnList = "task_id, created_at, id, activity_type"),
+    @Index(name = "idx_task_activity_feed", columnList = "created_at, id, activity_type")
+})
 public class TaskActivity {
 
     @Id
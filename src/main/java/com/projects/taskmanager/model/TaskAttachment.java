@@ -9,6 +9,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -16,6 +18,11 @@ import jakarta.persistence.EntityListeners;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@Table(indexes = {
+    // Include the size so usage totals can be read from the index alone
+    @Index(name = "idx_task_attachment_uploader_size", columnList = "uploader_id, file_size"),
+    @Index(name = "idx_task_attachment_task_size", columnList = "task_id, file_size")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class TaskAttachment {
 
@@ -48,6 +55,16 @@ public class TaskAttachment {
     @Column(nullable = false)
     private String filePath;
 
+    // SHA-256 of the stored bytes, hex encoded
+    @Column(length = 64)
+    private String contentHash;
+
+    // Shared content; null for attachments stored before deduplication
+    @ManyToOne
+    @JoinColumn(name = "blob_id")
+    @JsonIgnore
+    private StoredBlob blob;
+
     @Column(columnDefinition = "TEXT")
     private String description;
 
@@ -134,6 +151,22 @@ public class TaskAttachment {
         this.filePath = filePath;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public StoredBlob getBlob() {
+        return blob;
+    }
+
+    public void setBlob(StoredBlob blob) {
+        this.blob = blob;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -155,6 +188,14 @@ public class TaskAttachment {
         return contentType != null && contentType.startsWith("image/");
     }
 
+    public String getThumbnailUrl() {
+        return isImage() && id != null ? "/api/attachments/" + id + "/thumbnail" : null;
+    }
+
+    public String getPreviewUrl() {
+        return isImage() && id != null ? "/api/attachments/" + id + "/preview" : null;
+    }
+
     public String getFileSizeFormatted() {
         if (fileSize == null) return "0 B";
         
@@ -9,6 +9,10 @@ import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -16,8 +20,17 @@ import jakarta.persistence.EntityListeners;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = @Index(name = "idx_task_comment_task_path", columnList = "task_id, path, id"))
 public class TaskComment {
 
+    /** Path of a top-level comment */
+    public static final String ROOT_PATH = "/";
+
+    /** Deepest a reply can be nested, which bounds the length of the path */
+    public static final int MAX_DEPTH = 32;
+
+    private static final int PATH_SEGMENT_WIDTH = 19;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,10 +46,20 @@ public class TaskComment {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    // Lets a thread be deleted in one statement on databases that check the key row by row
     @ManyToOne
     @JoinColumn(name = "parent_comment_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private TaskComment parentComment;
 
+    /**
+     * Ids of the comment's ancestors from the top of the thread down, each
+     * zero-padded so paths sort in thread order, e.g. {@code /0000000000000000012/}.
+     * Null only for comments written before paths were kept, until backfilled.
+     */
+    @Column(length = 1 + MAX_DEPTH * (PATH_SEGMENT_WIDTH + 1))
+    private String path;
+
     @CreatedDate
     @Column(updatable = false)
     private Instant createdAt;
@@ -98,6 +121,32 @@ public class TaskComment {
         this.parentComment = parentComment;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Path shared by this comment's replies, and the prefix of every path in its subtree.
+     */
+    public String getChildPath() {
+        return childPath(path, id);
+    }
+
+    public static String childPath(String parentPath, Long parentId) {
+        return parentPath + String.format("%0" + PATH_SEGMENT_WIDTH + "d", parentId) + "/";
+    }
+
+    /**
+     * Number of ancestors, zero for a top-level comment.
+     */
+    public int getDepth() {
+        return (path.length() - 1) / (PATH_SEGMENT_WIDTH + 1);
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -188,6 +188,15 @@ public class User implements UserDetails {
         this.avatarUrl = avatarUrl;
     }
 
+    // Resized variants exist only for uploaded avatars; other URLs are used as is
+    public String getThumbnailUrl() {
+        return avatarUrl != null && avatarUrl.startsWith("/api/user/avatar/") ? avatarUrl + "/thumbnail" : avatarUrl;
+    }
+
+    public String getPreviewUrl() {
+        return avatarUrl != null && avatarUrl.startsWith("/api/user/avatar/") ? avatarUrl + "/preview" : avatarUrl;
+    }
+
     // Helper methods
     public void assignTask(Task task) {
         this.assignedTasks.add(task);
@@ -0,0 +1,51 @@
+package com.projects.taskmanager.observability;
+
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Correlation IDs for tying together the log lines of one request.
+ *
+ * Generated IDs are 32 hex characters: the current time in milliseconds
+ * followed by a random long from {@link ThreadLocalRandom}, so they sort
+ * roughly by time and cost no more than a clock read, unlike
+ * {@code UUID.randomUUID()} which goes through SecureRandom. They have the
+ * shape of a W3C trace ID, so an incoming {@code traceparent} is reused as is.
+ */
+public final class CorrelationId {
+
+    public static final String MDC_KEY = "correlationId";
+    public static final String HEADER = "X-Correlation-Id";
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private static final HexFormat HEX = HexFormat.of();
+    // Anything a client sends ends up in logs, so keep it short and plain
+    private static final Pattern ACCEPTED = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final Pattern TRACEPARENT = Pattern.compile("[0-9a-f]{2}-([0-9a-f]{32})-[0-9a-f]{16}-[0-9a-f]{2}");
+    private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+
+    private CorrelationId() {
+    }
+
+    public static String generate() {
+        return HEX.toHexDigits(System.currentTimeMillis()) + HEX.toHexDigits(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * The trace ID of a W3C {@code traceparent} header if there is a valid one,
+     * else the client's correlation ID if acceptable, else a new ID.
+     */
+    public static String resolve(String traceparent, String correlationId) {
+        if (traceparent != null) {
+            var matcher = TRACEPARENT.matcher(traceparent);
+            if (matcher.matches() && !INVALID_TRACE_ID.equals(matcher.group(1))) {
+                return matcher.group(1);
+            }
+        }
+        if (correlationId != null && ACCEPTED.matcher(correlationId).matches()) {
+            return correlationId;
+        }
+        return generate();
+    }
+}
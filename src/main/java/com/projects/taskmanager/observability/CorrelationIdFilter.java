@@ -0,0 +1,65 @@
+package com.projects.taskmanager.observability;
+
+import java.io.IOException;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Gives every HTTP request a correlation ID: the request's trace ID while
+ * tracing is on, otherwise taken from the caller's {@code traceparent} or
+ * {@code X-Correlation-Id} header when present. The ID is put in the MDC for
+ * the request's log lines and echoed in the response.
+ *
+ * Runs just inside the HTTP observation filter, so the request's span is current.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    private static final String ATTRIBUTE = CorrelationIdFilter.class.getName() + ".correlationId";
+
+    private final Tracer tracer;
+
+    public CorrelationIdFilter(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // GraphQL responses complete in an async dispatch, which must keep the same ID
+        String correlationId = (String) request.getAttribute(ATTRIBUTE);
+        if (correlationId == null) {
+            Span span = tracer.currentSpan();
+            String traceId = span != null ? span.context().traceId() : null;
+            correlationId = traceId != null && !traceId.isEmpty() ? traceId
+                    : CorrelationId.resolve(request.getHeader(CorrelationId.TRACEPARENT_HEADER),
+                            request.getHeader(CorrelationId.HEADER));
+            request.setAttribute(ATTRIBUTE, correlationId);
+            response.setHeader(CorrelationId.HEADER, correlationId);
+        }
+        MDC.put(CorrelationId.MDC_KEY, correlationId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(CorrelationId.MDC_KEY);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+}
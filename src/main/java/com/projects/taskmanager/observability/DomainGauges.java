@@ -0,0 +1,185 @@
+package com.projects.taskmanager.observability;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskAttachment;
+import com.projects.taskmanager.model.TaskStatus;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.repository.TaskAttachmentRepository;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.repository.UserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Gauges of what the application holds: tasks per status, overdue tasks,
+ * users and attachment bytes.
+ *
+ * Each gauge reads an AtomicLong, so scraping never touches the database. The
+ * values are seeded by aggregate queries at startup and kept current by
+ * Hibernate post-commit insert, update and delete events, so every write path
+ * is counted and rolled back writes are not. Changes the events can't see
+ * (bulk queries, database cascades, tasks becoming overdue as days pass) are
+ * corrected by a periodic reconciliation against the database.
+ */
+@Component
+public class DomainGauges implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final TaskAttachmentRepository taskAttachmentRepository;
+
+    private final Map<TaskStatus, AtomicLong> tasksByStatus = new EnumMap<>(TaskStatus.class);
+    private final AtomicLong overdueTasks = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong attachmentBytes = new AtomicLong();
+
+    public DomainGauges(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory,
+                        TaskRepository taskRepository, UserRepository userRepository,
+                        TaskAttachmentRepository taskAttachmentRepository) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.taskAttachmentRepository = taskAttachmentRepository;
+
+        for (TaskStatus status : TaskStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            tasksByStatus.put(status, count);
+            Gauge.builder("tasks.count", count, AtomicLong::get)
+                    .description("Tasks by status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("tasks.overdue", overdueTasks, AtomicLong::get)
+                .description("Open tasks past their due date")
+                .register(meterRegistry);
+        Gauge.builder("users.count", users, AtomicLong::get)
+                .description("Registered users")
+                .register(meterRegistry);
+        Gauge.builder("attachments.bytes", attachmentBytes, AtomicLong::get)
+                .description("Total size of task attachments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * Reset every gauge from the database. Deltas committed while this runs
+     * may be lost or counted twice until the next run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${metrics.domain-gauges.reconcile-interval:PT5M}",
+            initialDelayString = "${metrics.domain-gauges.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        long overdue = 0;
+        for (TaskRepository.StatusCount row : taskRepository.countByStatus(LocalDate.now(), TaskStatus.DONE)) {
+            counts.put(row.getStatus(), row.getTasks());
+            overdue += row.getOverdue();
+        }
+        tasksByStatus.forEach((status, count) -> count.set(counts.getOrDefault(status, 0L)));
+        overdueTasks.set(overdue);
+        users.set(userRepository.count());
+        attachmentBytes.set(taskAttachmentRepository.sumFileSize());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Task task) {
+            countTask(task.getStatus(), isOverdue(task.getDueDate(), task.isCompleted(), task.getStatus()), 1);
+        } else if (entity instanceof User) {
+            users.incrementAndGet();
+        } else if (entity instanceof TaskAttachment attachment) {
+            attachmentBytes.addAndGet(attachment.getFileSize());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        // Without the loaded state there is nothing to diff against; reconciliation catches up
+        if (!(event.getEntity() instanceof Task task) || event.getOldState() == null) {
+            return;
+        }
+        TaskStatus oldStatus = (TaskStatus) oldValue(event, "status");
+        boolean oldCompleted = (Boolean) oldValue(event, "completed");
+        LocalDate oldDueDate = (LocalDate) oldValue(event, "dueDate");
+
+        countTask(oldStatus, isOverdue(oldDueDate, oldCompleted, oldStatus), -1);
+        countTask(task.getStatus(), isOverdue(task.getDueDate(), task.isCompleted(), task.getStatus()), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Task task) {
+            countTask(task.getStatus(), isOverdue(task.getDueDate(), task.isCompleted(), task.getStatus()), -1);
+        } else if (entity instanceof User) {
+            users.decrementAndGet();
+        } else if (entity instanceof TaskAttachment attachment) {
+            attachmentBytes.addAndGet(-attachment.getFileSize());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Task.class || type == User.class || type == TaskAttachment.class;
+    }
+
+    // Nothing is counted until a commit succeeds
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void countTask(TaskStatus status, boolean overdue, int delta) {
+        if (status != null) {
+            tasksByStatus.get(status).addAndGet(delta);
+        }
+        if (overdue) {
+            overdueTasks.addAndGet(delta);
+        }
+    }
+
+    private static Object oldValue(PostUpdateEvent event, String property) {
+        return event.getOldState()[event.getPersister().findAttributeMapping(property).getStateArrayPosition()];
+    }
+
+    private static boolean isOverdue(LocalDate dueDate, boolean completed, TaskStatus status) {
+        return dueDate != null && dueDate.isBefore(LocalDate.now()) && !completed && status != TaskStatus.DONE;
+    }
+}
@@ -0,0 +1,115 @@
+package com.projects.taskmanager.observability;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+/**
+ * Exports traces that failed even when head sampling left them out.
+ *
+ * Used with {@link #recordUnsampled(Sampler)}, spans the head sampler drops
+ * are still recorded, just not marked sampled, so the regular batch processor
+ * ignores them. This processor holds on to them until the trace's local root
+ * span ends, and exports the whole trace if any span in it ended in error.
+ * Recording unsampled spans costs their allocation but no export.
+ */
+public class ErrorTraceSpanProcessor implements SpanProcessor {
+
+    private final SpanExporter exporter;
+    private final int maxPendingTraces;
+    private final Map<String, Queue<ReadableSpan>> pending = new ConcurrentHashMap<>();
+
+    public ErrorTraceSpanProcessor(SpanExporter exporter, int maxPendingTraces) {
+        this.exporter = exporter;
+        this.maxPendingTraces = maxPendingTraces;
+    }
+
+    /**
+     * Wrap a head sampler so that spans it drops are recorded rather than discarded.
+     */
+    public static Sampler recordUnsampled(Sampler headSampler) {
+        return new Sampler() {
+            @Override
+            public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                               Attributes attributes, List<LinkData> parentLinks) {
+                SamplingResult result = headSampler.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+                return result.getDecision() == SamplingDecision.DROP ? SamplingResult.recordOnly() : result;
+            }
+
+            @Override
+            public String getDescription() {
+                return "RecordUnsampled{" + headSampler.getDescription() + "}";
+            }
+        };
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext context = span.getSpanContext();
+        if (context.isSampled()) {
+            return;
+        }
+        String traceId = context.getTraceId();
+        SpanContext parent = span.getParentSpanContext();
+        if (parent.isValid() && !parent.isRemote()) {
+            // Past the limit, traces already being held still collect their spans
+            Queue<ReadableSpan> spans = pending.size() < maxPendingTraces
+                    ? pending.computeIfAbsent(traceId, id -> new ConcurrentLinkedQueue<>())
+                    : pending.get(traceId);
+            if (spans != null) {
+                spans.add(span);
+            }
+            return;
+        }
+        Collection<ReadableSpan> children = pending.remove(traceId);
+        List<SpanData> trace = new ArrayList<>();
+        if (children != null) {
+            children.forEach(child -> trace.add(child.toSpanData()));
+        }
+        trace.add(span.toSpanData());
+        if (trace.stream().anyMatch(data -> data.getStatus().getStatusCode() == StatusCode.ERROR)) {
+            exporter.export(trace);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        // The exporter is shared with the batch processor, which shuts it down
+        pending.clear();
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,169 @@
+package com.projects.taskmanager.observability;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.projects.taskmanager.observability.jfr.GraphQLOperationEvent;
+
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.FieldFetchingInstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.validation.ValidationError;
+import jdk.jfr.EventType;
+
+/**
+ * Times every GraphQL request: parsing, validation, the operation as a whole
+ * and each field resolved by a non-trivial data fetcher, so resolvers are
+ * measured without timing themselves.
+ *
+ * Operation names are chosen by clients, so only names on the
+ * {@code graphql.metrics.operations} allowlist are used as tags; anything
+ * else is recorded as "other". Fields are tagged by their schema coordinate
+ * (e.g. {@code Query.tasks}), which the schema bounds.
+ *
+ * The SQL issued by each operation is counted and passed to
+ * {@link SqlStatementReporter}, and slow operations are kept by
+ * {@link SlowRequestRecorder}. Heap allocated and CPU time, including data
+ * fetchers run on other threads, go to {@link ResourceUsageReporter}. While a
+ * flight recording is running each operation is also written to it as a
+ * {@link GraphQLOperationEvent}.
+ */
+@Component
+public class GraphQLMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final String OTHER = "other";
+    private static final String ANONYMOUS = "anonymous";
+    private static final EventType OPERATION_EVENT = EventType.getEventType(GraphQLOperationEvent.class);
+
+    private final MetricsService metricsService;
+    private final SqlStatementReporter sqlStatementReporter;
+    private final SlowRequestRecorder slowRequestRecorder;
+    private final ResourceUsageReporter resourceUsageReporter;
+    private final Set<String> operationAllowlist;
+
+    public GraphQLMetricsInstrumentation(MetricsService metricsService,
+                                         SqlStatementReporter sqlStatementReporter,
+                                         SlowRequestRecorder slowRequestRecorder,
+                                         ResourceUsageReporter resourceUsageReporter,
+                                         @Value("${graphql.metrics.operations:}") List<String> operationAllowlist) {
+        this.metricsService = metricsService;
+        this.sqlStatementReporter = sqlStatementReporter;
+        this.slowRequestRecorder = slowRequestRecorder;
+        this.resourceUsageReporter = resourceUsageReporter;
+        this.operationAllowlist = Set.copyOf(operationAllowlist);
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters,
+                                                       InstrumentationState state) {
+        long startedAt = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((document, error) ->
+                metricsService.recordGraphQLParse(error == null ? "success" : "error", System.nanoTime() - startedAt));
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters,
+                                                                         InstrumentationState state) {
+        long startedAt = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((errors, error) -> {
+            String outcome = error != null ? "error" : errors != null && !errors.isEmpty() ? "invalid" : "success";
+            metricsService.recordGraphQLValidation(outcome, System.nanoTime() - startedAt);
+        });
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext context = parameters.getExecutionContext();
+        String operation = operationName(context);
+        String type = operationType(context);
+        // The recorder is only read by admins, so it keeps the name the client sent
+        String sentName = context.getOperationDefinition().getName();
+        SlowRequestRecorder.InFlight request = slowRequestRecorder.start(type + " " + (sentName != null ? sentName : ANONYMOUS),
+                context.getCoercedVariables().toMap());
+        SqlStatementScope sql = SqlStatementScope.open();
+        ResourceUsageScope resources = ResourceUsageScope.open();
+        // Data fetchers restore the scope from the GraphQLContext, replacing the HTTP request's
+        context.getGraphQLContext().put(ResourceUsageScope.CONTEXT_KEY, resources);
+        // The event outlives this method, so only create it when something is recording
+        GraphQLOperationEvent event = OPERATION_EVENT.isEnabled() ? new GraphQLOperationEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long startedAt = System.nanoTime();
+        return new InstrumentationContext<>() {
+            @Override
+            public void onDispatched() {
+                // This thread is done; fetchers still running elsewhere measure themselves.
+                // Detach the SQL scope here too, as completion may run on another thread
+                // and close() only takes a scope off the thread that opened it
+                sql.close();
+                resources.leave();
+            }
+
+            @Override
+            public void onCompleted(ExecutionResult result, Throwable error) {
+                String outcome = error == null && result != null && result.getErrors().isEmpty() ? "success" : "error";
+                metricsService.recordGraphQLOperation(operation, type, outcome, System.nanoTime() - startedAt);
+                // Only needed if the operation failed before it was dispatched
+                sql.close();
+                sqlStatementReporter.report("graphql", type + " " + operation, sql);
+                resourceUsageReporter.report("graphql", type + " " + operation, resources);
+                slowRequestRecorder.finish(request, sql.getStatementCount());
+                if (event != null) {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.setOperation(type + " " + (sentName != null ? sentName : ANONYMOUS));
+                        event.setOutcome(outcome);
+                        event.setStatements(sql.getStatementCount());
+                        event.commit();
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public FieldFetchingInstrumentationContext beginFieldFetching(InstrumentationFieldFetchParameters parameters,
+                                                                  InstrumentationState state) {
+        // Plain property reads and introspection aren't worth a timer each
+        String fieldName = parameters.getField().getName();
+        if (parameters.isTrivialDataFetcher() || fieldName.startsWith("__")) {
+            return FieldFetchingInstrumentationContext.NOOP;
+        }
+        ExecutionContext context = parameters.getExecutionContext();
+        String operation = operationName(context);
+        String type = operationType(context);
+        String field = parameters.getExecutionStepInfo().getObjectType().getName() + "." + fieldName;
+        long startedAt = System.nanoTime();
+        return FieldFetchingInstrumentationContext.adapter(SimpleInstrumentationContext.whenCompleted((value, error) ->
+                metricsService.recordGraphQLField(operation, type, field, error == null ? "success" : "error",
+                        System.nanoTime() - startedAt)));
+    }
+
+    private String operationName(ExecutionContext context) {
+        String name = context.getOperationDefinition().getName();
+        if (name == null) {
+            return ANONYMOUS;
+        }
+        return operationAllowlist.contains(name) ? name : OTHER;
+    }
+
+    private String operationType(ExecutionContext context) {
+        OperationDefinition.Operation operation = context.getOperationDefinition().getOperation();
+        return operation.name().toLowerCase();
+    }
+}
@@ -1,72 +1,104 @@
 package com.projects.taskmanager.observability;
 
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
 
-import java.util.UUID;
+import reactor.core.publisher.Mono;
 
 /**
- * HTTP request interceptor for GraphQL logging and tracing
- * This provides observability for all GraphQL requests via HTTP
+ * Logs one structured line per GraphQL request when it completes.
+ *
+ * Failed and slow requests are always logged. Successful ones are sampled at
+ * {@code observability.request-logging.success-sample-rate}, so busy
+ * instances don't spend their time and log storage on routine traffic.
+ * Lines carry the request's correlation ID, set by {@link CorrelationIdFilter},
+ * even when the response completes on another thread.
  */
 @Component
-public class GraphQLRequestLoggingInterceptor implements HandlerInterceptor {
+public class GraphQLRequestLoggingInterceptor implements WebGraphQlInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(GraphQLRequestLoggingInterceptor.class);
+    private static final Pattern NAMED_OPERATION = Pattern.compile("^\\s*(?:query|mutation|subscription)\\s+(\\w+)");
+
+    private final double successSampleRate;
+    private final long slowThresholdNanos;
+
+    public GraphQLRequestLoggingInterceptor(@Value("${observability.request-logging.success-sample-rate:1.0}") double successSampleRate,
+                                            @Value("${observability.slow-requests.threshold:PT0.5S}") Duration slowThreshold) {
+        this.successSampleRate = successSampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
 
     @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        // Only log GraphQL requests
-        if (request.getRequestURI().contains("/graphql")) {
-            String correlationId = UUID.randomUUID().toString();
-            String method = request.getMethod();
-            String uri = request.getRequestURI();
-            
-            // Add correlation ID to MDC for structured logging
-            MDC.put("correlationId", correlationId);
-            MDC.put("method", method);
-            MDC.put("uri", uri);
-            
-            // Store start time and correlation ID in request attributes
-            request.setAttribute("startTime", System.currentTimeMillis());
-            request.setAttribute("correlationId", correlationId);
-            
-            logger.info("GraphQL request started - Method: [{}], URI: [{}], CorrelationId: [{}]", 
-                       method, uri, correlationId);
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String correlationId = MDC.get(CorrelationId.MDC_KEY);
+        long startedAt = System.nanoTime();
+        return chain.next(request)
+                .doOnSuccess(response -> {
+                    long durationNanos = System.nanoTime() - startedAt;
+                    int errors = response != null ? response.getErrors().size() : 0;
+                    if (errors > 0) {
+                        log(Level.WARN, "failed", request, correlationId, durationNanos, errors);
+                    } else if (durationNanos >= slowThresholdNanos) {
+                        log(Level.WARN, "slow", request, correlationId, durationNanos, errors);
+                    } else if (successSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < successSampleRate) {
+                        log(Level.INFO, "completed", request, correlationId, durationNanos, errors);
+                    }
+                })
+                .doOnError(ex -> withCorrelationId(correlationId, () -> {
+                    String operation = operationName(request);
+                    logger.atError()
+                            .setCause(ex)
+                            .addKeyValue("operation", operation)
+                            .addKeyValue("durationMs", (System.nanoTime() - startedAt) / 1_000_000)
+                            .log("GraphQL request {} failed", operation);
+                }));
+    }
+
+    private void log(Level level, String outcome, WebGraphQlRequest request, String correlationId,
+                     long durationNanos, int errors) {
+        String operation = operationName(request);
+        long durationMs = durationNanos / 1_000_000;
+        withCorrelationId(correlationId, () -> logger.atLevel(level)
+                .addKeyValue("operation", operation)
+                .addKeyValue("outcome", outcome)
+                .addKeyValue("durationMs", durationMs)
+                .addKeyValue("errors", errors)
+                .log("GraphQL request {} {} in {}ms with {} errors", operation, outcome, durationMs, errors));
+    }
+
+    // The response may complete on a thread other than the request's
+    private static void withCorrelationId(String correlationId, Runnable log) {
+        if (correlationId == null || correlationId.equals(MDC.get(CorrelationId.MDC_KEY))) {
+            log.run();
+            return;
+        }
+        MDC.put(CorrelationId.MDC_KEY, correlationId);
+        try {
+            log.run();
+        } finally {
+            MDC.remove(CorrelationId.MDC_KEY);
         }
-        
-        return true;
     }
 
-    @Override
-    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        // Only log GraphQL requests
-        if (request.getRequestURI().contains("/graphql")) {
-            Long startTime = (Long) request.getAttribute("startTime");
-            String correlationId = (String) request.getAttribute("correlationId");
-            
-            if (startTime != null) {
-                long duration = System.currentTimeMillis() - startTime;
-                int status = response.getStatus();
-                
-                if (ex != null || status >= 400) {
-                    logger.error("GraphQL request failed - CorrelationId: [{}], Duration: [{}ms], Status: [{}], Error: [{}]", 
-                               correlationId, duration, status, ex != null ? ex.getMessage() : "HTTP Error");
-                } else {
-                    logger.info("GraphQL request completed - CorrelationId: [{}], Duration: [{}ms], Status: [{}]", 
-                               correlationId, duration, status);
-                }
-            }
-            
-            // Clean up MDC
-            MDC.remove("correlationId");
-            MDC.remove("method");
-            MDC.remove("uri");
+    private static String operationName(WebGraphQlRequest request) {
+        if (request.getOperationName() != null) {
+            return request.getOperationName();
         }
+        // Clients rarely send operationName, but usually name the operation in the document
+        Matcher matcher = NAMED_OPERATION.matcher(request.getDocument());
+        return matcher.find() ? matcher.group(1) : "anonymous";
     }
 }
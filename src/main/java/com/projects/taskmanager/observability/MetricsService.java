@@ -1,6 +1,8 @@
 package com.projects.taskmanager.observability;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
@@ -31,12 +33,22 @@ public class MetricsService {
     private final Counter attachmentUploadedCounter;
     private final Counter attachmentDeletedCounter;
     
-    // Timers for tracking latency
-    private final Timer graphqlQueryTimer;
-    private final Timer graphqlMutationTimer;
-    private final Timer databaseQueryTimer;
+    // Timers for tracking latency; percentiles and SLO buckets come from management.metrics.distribution.*
     private final Timer authenticationTimer;
 
+    // Tagged timers recorded on hot paths; built once so each call only looks up its tags
+    private final Meter.MeterProvider<Timer> databaseQueryTimer;
+    private final Meter.MeterProvider<Timer> graphQLOperationTimer;
+    private final Meter.MeterProvider<Timer> graphQLFieldTimer;
+    private final Meter.MeterProvider<Timer> graphQLParseTimer;
+    private final Meter.MeterProvider<Timer> graphQLValidationTimer;
+    private final Meter.MeterProvider<DistributionSummary> requestStatementsSummary;
+    private final Meter.MeterProvider<Timer> requestSqlTimer;
+    private final Meter.MeterProvider<DistributionSummary> requestRowsSummary;
+    private final Meter.MeterProvider<DistributionSummary> allocatedSummary;
+    private final Meter.MeterProvider<DistributionSummary> cpuSummary;
+    private final Meter.MeterProvider<Counter> resourceUsageUnmeasuredCounter;
+
     public MetricsService(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
         
@@ -94,21 +106,59 @@ public class MetricsService {
                 .register(meterRegistry);
         
         // Initialize timers
-        this.graphqlQueryTimer = Timer.builder("graphql.query.duration")
-                .description("GraphQL query execution time")
-                .register(meterRegistry);
-                
-        this.graphqlMutationTimer = Timer.builder("graphql.mutation.duration")
-                .description("GraphQL mutation execution time")
-                .register(meterRegistry);
-                
-        this.databaseQueryTimer = Timer.builder("database.query.duration")
-                .description("Database query execution time")
-                .register(meterRegistry);
-                
         this.authenticationTimer = Timer.builder("authentication.duration")
                 .description("Authentication process duration")
                 .register(meterRegistry);
+
+        this.databaseQueryTimer = Timer.builder("database.query.duration")
+                .description("Database query execution time")
+                .withRegistry(meterRegistry);
+
+        this.graphQLOperationTimer = Timer.builder("graphql.operation.duration")
+                .description("GraphQL operation execution time")
+                .withRegistry(meterRegistry);
+
+        this.graphQLFieldTimer = Timer.builder("graphql.field.duration")
+                .description("GraphQL data fetcher execution time")
+                .withRegistry(meterRegistry);
+
+        this.graphQLParseTimer = Timer.builder("graphql.parse.duration")
+                .description("GraphQL document parsing time")
+                .withRegistry(meterRegistry);
+
+        this.graphQLValidationTimer = Timer.builder("graphql.validation.duration")
+                .description("GraphQL document validation time")
+                .withRegistry(meterRegistry);
+
+        this.requestStatementsSummary = DistributionSummary.builder("db.request.statements")
+                .description("SQL statements issued per request or GraphQL operation")
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .withRegistry(meterRegistry);
+
+        this.requestSqlTimer = Timer.builder("db.request.time")
+                .description("Time spent executing SQL per request or GraphQL operation")
+                .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25),
+                        Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofSeconds(1))
+                .withRegistry(meterRegistry);
+
+        this.requestRowsSummary = DistributionSummary.builder("db.request.rows")
+                .description("Entities loaded per request or GraphQL operation")
+                .serviceLevelObjectives(10, 100, 1000, 10000)
+                .withRegistry(meterRegistry);
+
+        this.allocatedSummary = DistributionSummary.builder("operation.allocated")
+                .description("Heap allocated per request or GraphQL operation, across the threads it ran on")
+                .baseUnit("bytes")
+                .withRegistry(meterRegistry);
+
+        this.cpuSummary = DistributionSummary.builder("operation.cpu")
+                .description("CPU time used per request or GraphQL operation, across the threads it ran on")
+                .baseUnit("seconds")
+                .withRegistry(meterRegistry);
+
+        this.resourceUsageUnmeasuredCounter = Counter.builder("operation.resources.unmeasured")
+                .description("Requests or GraphQL operations that ran partly where allocation and CPU can't be measured, e.g. virtual threads")
+                .withRegistry(meterRegistry);
     }
 
     // Counter methods
@@ -145,62 +195,59 @@ public class MetricsService {
     }
 
     // Timer methods
-    public Timer.Sample startGraphQLQueryTimer() {
-        return Timer.start(meterRegistry);
-    }
-
-    public void stopGraphQLQueryTimer(Timer.Sample sample) {
-        sample.stop(graphqlQueryTimer);
-    }
-
-    public Timer.Sample startGraphQLMutationTimer() {
+    public Timer.Sample startAuthenticationTimer() {
         return Timer.start(meterRegistry);
     }
 
-    public void stopGraphQLMutationTimer(Timer.Sample sample) {
-        sample.stop(graphqlMutationTimer);
-    }
-
-    public Timer.Sample startDatabaseQueryTimer() {
-        return Timer.start(meterRegistry);
+    public void stopAuthenticationTimer(Timer.Sample sample) {
+        sample.stop(authenticationTimer);
     }
 
-    public void stopDatabaseQueryTimer(Timer.Sample sample) {
-        sample.stop(databaseQueryTimer);
+    // Convenience methods for recording durations
+    public void recordAuthenticationDuration(Duration duration) {
+        authenticationTimer.record(duration);
     }
 
-    public Timer.Sample startAuthenticationTimer() {
-        return Timer.start(meterRegistry);
+    // Repository call latency, recorded by RepositoryObservationInterceptor
+    public void recordDatabaseQuery(String repository, String method, String outcome, long nanos) {
+        databaseQueryTimer.withTags("repository", repository, "method", method, "outcome", outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
     }
 
-    public void stopAuthenticationTimer(Timer.Sample sample) {
-        sample.stop(authenticationTimer);
+    // GraphQL metrics, recorded by GraphQLMetricsInstrumentation
+    public void recordGraphQLOperation(String operation, String type, String outcome, long nanos) {
+        graphQLOperationTimer.withTags("operation", operation, "type", type, "outcome", outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
     }
 
-    // Convenience methods for recording durations
-    public void recordGraphQLQueryDuration(Duration duration) {
-        graphqlQueryTimer.record(duration);
+    public void recordGraphQLField(String operation, String type, String field, String outcome, long nanos) {
+        graphQLFieldTimer.withTags("operation", operation, "type", type, "field", field, "outcome", outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
     }
 
-    public void recordGraphQLMutationDuration(Duration duration) {
-        graphqlMutationTimer.record(duration);
+    public void recordGraphQLParse(String outcome, long nanos) {
+        graphQLParseTimer.withTags("outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
     }
 
-    public void recordDatabaseQueryDuration(Duration duration) {
-        databaseQueryTimer.record(duration);
+    public void recordGraphQLValidation(String outcome, long nanos) {
+        graphQLValidationTimer.withTags("outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
     }
 
-    public void recordAuthenticationDuration(Duration duration) {
-        authenticationTimer.record(duration);
+    // Per-request SQL, recorded by SqlStatementReporter
+    public void recordSqlStatements(String kind, String operation, int statements, long nanos, long rows) {
+        requestStatementsSummary.withTags("kind", kind, "operation", operation).record(statements);
+        requestSqlTimer.withTags("kind", kind, "operation", operation).record(nanos, TimeUnit.NANOSECONDS);
+        requestRowsSummary.withTags("kind", kind, "operation", operation).record(rows);
     }
 
-    // Gauge for active metrics
-    public void recordActiveUsers(int count) {
-        meterRegistry.gauge("users.active", count);
+    // Per-request heap allocation and CPU, recorded by ResourceUsageReporter
+    public void recordResourceUsage(String kind, String operation, long allocatedBytes, long cpuNanos) {
+        allocatedSummary.withTags("kind", kind, "operation", operation).record(allocatedBytes);
+        cpuSummary.withTags("kind", kind, "operation", operation).record(cpuNanos / 1e9);
     }
 
-    public void recordActiveTasks(int count) {
-        meterRegistry.gauge("tasks.active", count);
+    public void incrementResourceUsageUnmeasured(String kind, String operation) {
+        resourceUsageUnmeasuredCounter.withTags("kind", kind, "operation", operation).increment();
     }
 
     // Comment metrics
@@ -224,4 +271,47 @@ public class MetricsService {
     public void incrementAttachmentDeleted() {
         attachmentDeletedCounter.increment();
     }
+
+    // Storage metrics
+    public void recordStorageReclaimed(String kind, long files, long bytes) {
+        Counter.builder("storage.reclaimed.files")
+                .description("Orphaned files deleted by storage reconciliation")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .increment(files);
+        Counter.builder("storage.reclaimed.bytes")
+                .description("Bytes freed by storage reconciliation")
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
+    public void incrementStorageQuotaRejected(String scope) {
+        Counter.builder("storage.quota.rejected")
+                .description("Uploads refused because they would exceed a storage quota")
+                .tag("scope", scope.toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordCompression(String contentType, long originalBytes, long storedBytes) {
+        DistributionSummary.builder("storage.compression.ratio")
+                .description("Stored size as a fraction of the original size for compressed uploads")
+                .tag("content_type", contentType)
+                .register(meterRegistry)
+                .record(originalBytes > 0 ? (double) storedBytes / originalBytes : 1.0);
+        Counter.builder("storage.compression.original.bytes")
+                .description("Original bytes of uploads considered for compression")
+                .baseUnit("bytes")
+                .tag("content_type", contentType)
+                .register(meterRegistry)
+                .increment(originalBytes);
+        Counter.builder("storage.compression.stored.bytes")
+                .description("Bytes written to the blob store for uploads considered for compression")
+                .baseUnit("bytes")
+                .tag("content_type", contentType)
+                .register(meterRegistry)
+                .increment(storedBytes);
+    }
 }
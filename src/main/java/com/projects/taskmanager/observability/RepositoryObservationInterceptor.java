@@ -0,0 +1,73 @@
+package com.projects.taskmanager.observability;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.repository.Repository;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Observes every Spring Data repository call, giving each a span (and a
+ * {@code repository.call} timer) named after the repository interface and
+ * method, e.g. {@code TaskRepository.findById}, and recording it in
+ * {@code database.query.duration} whether or not observations are enabled.
+ */
+public class RepositoryObservationInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+    private final ObjectProvider<MetricsService> metricsService;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    /**
+     * @param observationRegistry looked up on first use, as advisors are created before most beans
+     * @param metricsService looked up on first use for the same reason
+     */
+    public RepositoryObservationInterceptor(ObjectProvider<ObservationRegistry> observationRegistry,
+                                            ObjectProvider<MetricsService> metricsService) {
+        this.observationRegistry = observationRegistry;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+        MetricsService metrics = metricsService.getIfAvailable();
+        if (registry.isNoop() && metrics == null) {
+            return invocation.proceed();
+        }
+        String repository = repositoryNames.computeIfAbsent(invocation.getThis().getClass(),
+                type -> repositoryName(invocation.getThis()));
+        String method = invocation.getMethod().getName();
+        long startedAt = System.nanoTime();
+        String outcome = "error";
+        try {
+            Object result = Observation.createNotStarted("repository.call", registry)
+                    .contextualName(repository + "." + method)
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", method)
+                    .observeChecked(invocation::proceed);
+            outcome = "success";
+            return result;
+        } finally {
+            if (metrics != null) {
+                metrics.recordDatabaseQuery(repository, method, outcome, System.nanoTime() - startedAt);
+            }
+        }
+    }
+
+    private static String repositoryName(Object repository) {
+        // Repositories are proxies; name them after the interface the application declared
+        return Arrays.stream(AopProxyUtils.proxiedUserInterfaces(repository))
+                .filter(Repository.class::isAssignableFrom)
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElse(repository.getClass().getSimpleName());
+    }
+}
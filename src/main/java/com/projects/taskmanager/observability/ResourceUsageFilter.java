@@ -0,0 +1,49 @@
+package com.projects.taskmanager.observability;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Measures the heap allocated and CPU time used by each HTTP request,
+ * including its security filters and any work it hands to context-propagating
+ * executors. Requests that run a GraphQL operation are reported per operation
+ * by {@link GraphQLMetricsInstrumentation} instead.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class ResourceUsageFilter extends OncePerRequestFilter {
+
+    private final ResourceUsageReporter resourceUsageReporter;
+
+    public ResourceUsageFilter(ResourceUsageReporter resourceUsageReporter) {
+        this.resourceUsageReporter = resourceUsageReporter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ResourceUsageScope scope = ResourceUsageScope.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.leave();
+            if (scope.hasNestedScopes()) {
+                scope.finish(usage -> { });
+            } else {
+                // The route template rather than the path, to keep the tag bounded
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                resourceUsageReporter.report("http", request.getMethod() + " " + (pattern != null ? pattern : "unmatched"), scope);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.projects.taskmanager.observability;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the heap allocated and CPU time used by a finished request or
+ * GraphQL operation, once work it handed to other threads has also finished.
+ */
+@Component
+public class ResourceUsageReporter {
+
+    private final MetricsService metricsService;
+
+    public ResourceUsageReporter(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * @param kind "graphql" or "http"
+     * @param operation bounded name of what ran, e.g. an allowlisted operation name or a route
+     */
+    public void report(String kind, String operation, ResourceUsageScope scope) {
+        scope.finish(usage -> {
+            // Partial figures would understate exactly the operations worth finding
+            if (usage.isMeasured()) {
+                metricsService.recordResourceUsage(kind, operation, usage.getAllocatedBytes(), usage.getCpuNanos());
+            } else {
+                metricsService.incrementResourceUsageUnmeasured(kind, operation);
+            }
+        });
+    }
+}
@@ -0,0 +1,219 @@
+package com.projects.taskmanager.observability;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * Heap allocated and CPU time used by one unit of work, an HTTP request or a
+ * GraphQL operation, on every thread it ran on.
+ *
+ * Each thread's share is a segment, measured with the thread's own
+ * allocation and CPU counters when it starts and ends. The thread that opens
+ * the scope runs the first segment. Work handed to other threads joins the
+ * scope through context propagation: this class registers a
+ * {@link ThreadLocalAccessor}, so executors using a
+ * {@code ContextPropagatingTaskDecorator}, and data fetchers that Spring
+ * GraphQL runs on an executor, measure a segment around each task. Results
+ * are handed to the {@link #finish} callback once the work is finished and
+ * every segment has ended.
+ *
+ * The JVM can't measure virtual threads (the counters follow the carrier
+ * thread), so segments on them are counted as unmeasured rather than
+ * guessed at, and {@link #isMeasured()} is then false.
+ */
+public final class ResourceUsageScope {
+
+    /**
+     * Context propagation key, also used for the scope in a GraphQLContext.
+     */
+    public static final String CONTEXT_KEY = ResourceUsageScope.class.getName();
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final boolean SUPPORTED = enableCounters();
+    private static final ThreadLocal<Segment> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(new Accessor());
+    }
+
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+    private final AtomicInteger unmeasuredSegments = new AtomicInteger();
+    // Open segments, plus one until finish() is called
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private volatile Consumer<ResourceUsageScope> onFinished;
+    private volatile boolean nested;
+
+    private ResourceUsageScope() {
+    }
+
+    /**
+     * Starts a scope and its first segment on the current thread.
+     */
+    public static ResourceUsageScope open() {
+        Segment current = CURRENT.get();
+        if (current != null && current.scope != null) {
+            current.scope.nested = true;
+        }
+        ResourceUsageScope scope = new ResourceUsageScope();
+        enter(scope);
+        return scope;
+    }
+
+    /**
+     * Ends the segment {@link #open()} started, once the current thread has
+     * done its part. Any work it handed off is still measured where it runs.
+     */
+    public void leave() {
+        Segment opened = CURRENT.get();
+        while (opened != null && !(opened.scope == this && opened.counted)) {
+            opened = opened.previous;
+        }
+        if (opened == null) {
+            return;
+        }
+        // Also ends segments left open inside this one, e.g. by an operation that failed before dispatch
+        Segment current;
+        do {
+            current = CURRENT.get();
+            exit();
+        } while (current != opened);
+    }
+
+    /**
+     * Marks the work as done. The callback runs once every segment has ended,
+     * on whichever thread ends the last one.
+     */
+    public void finish(Consumer<ResourceUsageScope> callback) {
+        onFinished = callback;
+        release();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.get();
+    }
+
+    /**
+     * Whether every segment could be measured. When false the figures only
+     * cover part of the work.
+     */
+    public boolean isMeasured() {
+        return SUPPORTED && unmeasuredSegments.get() == 0;
+    }
+
+    /**
+     * Whether another scope was opened inside this one, e.g. for a GraphQL
+     * operation inside an HTTP request.
+     */
+    public boolean hasNestedScopes() {
+        return nested;
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() == 0 && onFinished != null) {
+            onFinished.accept(this);
+        }
+    }
+
+    private static void enter(ResourceUsageScope scope) {
+        Segment previous = CURRENT.get();
+        // Spring GraphQL restores the scope around every data fetcher, usually on a thread already measuring it
+        if (scope == null || (previous != null && previous.scope == scope)) {
+            CURRENT.set(new Segment(scope, previous, false, 0, 0));
+            return;
+        }
+        scope.pending.incrementAndGet();
+        long allocated = SUPPORTED ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+        long cpu = SUPPORTED ? THREADS.getCurrentThreadCpuTime() : -1;
+        CURRENT.set(new Segment(scope, previous, true, allocated, cpu));
+    }
+
+    private static void exit() {
+        Segment segment = CURRENT.get();
+        if (segment == null) {
+            return;
+        }
+        if (segment.previous != null) {
+            CURRENT.set(segment.previous);
+        } else {
+            CURRENT.remove();
+        }
+        if (!segment.counted) {
+            return;
+        }
+        ResourceUsageScope scope = segment.scope;
+        // -1 when the JVM can't measure this thread, as for virtual threads
+        if (segment.allocatedAtStart < 0 || segment.cpuAtStart < 0) {
+            scope.unmeasuredSegments.incrementAndGet();
+        } else {
+            scope.allocatedBytes.addAndGet(THREADS.getCurrentThreadAllocatedBytes() - segment.allocatedAtStart);
+            scope.cpuNanos.addAndGet(THREADS.getCurrentThreadCpuTime() - segment.cpuAtStart);
+        }
+        scope.release();
+    }
+
+    private static boolean enableCounters() {
+        try {
+            if (!THREADS.isThreadAllocatedMemorySupported() || !THREADS.isCurrentThreadCpuTimeSupported()) {
+                return false;
+            }
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+            THREADS.setThreadCpuTimeEnabled(true);
+            return true;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private record Segment(ResourceUsageScope scope, Segment previous, boolean counted,
+                           long allocatedAtStart, long cpuAtStart) {
+    }
+
+    /**
+     * Starts a segment wherever a context snapshot sets the scope, and ends it
+     * when the snapshot's values are restored.
+     */
+    private static final class Accessor implements ThreadLocalAccessor<ResourceUsageScope> {
+
+        @Override
+        public Object key() {
+            return CONTEXT_KEY;
+        }
+
+        @Override
+        public ResourceUsageScope getValue() {
+            Segment current = CURRENT.get();
+            return current != null ? current.scope : null;
+        }
+
+        @Override
+        public void setValue(ResourceUsageScope scope) {
+            enter(scope);
+        }
+
+        @Override
+        public void setValue() {
+            enter(null);
+        }
+
+        @Override
+        public void restore(ResourceUsageScope previousValue) {
+            exit();
+        }
+
+        @Override
+        public void restore() {
+            exit();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.projects.taskmanager.observability;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/slowrequests}: the slowest recent GraphQL operations per
+ * time window, as kept by {@link SlowRequestRecorder}. DELETE clears them.
+ */
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestEndpoint {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    public SlowRequestEndpoint(SlowRequestRecorder slowRequestRecorder) {
+        this.slowRequestRecorder = slowRequestRecorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowRequests() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("threshold", slowRequestRecorder.getThreshold().toString());
+        response.put("window", slowRequestRecorder.getWindow().toString());
+        response.put("windows", slowRequestRecorder.snapshot());
+        return response;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowRequestRecorder.clear();
+    }
+}
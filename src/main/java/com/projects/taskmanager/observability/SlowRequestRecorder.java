@@ -0,0 +1,274 @@
+package com.projects.taskmanager.observability;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Flight recorder for slow GraphQL operations, served by
+ * {@link SlowRequestEndpoint}.
+ *
+ * Time is split into fixed windows, and for each of the last few windows the
+ * slowest requests over the threshold are kept. Windows live in a ring and
+ * each keeps its requests in a small array updated by compare-and-set, so
+ * recording never takes a lock. A request that finishes under the threshold
+ * costs a map insert and removal plus two clock and allocation-counter reads.
+ *
+ * While requests run, a sampler captures the stack of any that has crossed
+ * the threshold, showing what a slow request was waiting on. It runs on its
+ * own daemon thread so the frequent samples never hold up, or wait behind,
+ * the application's scheduled jobs.
+ */
+@Component
+public class SlowRequestRecorder {
+
+    private static final Pattern SENSITIVE_KEY = Pattern.compile("(?i).*(password|secret|token|authorization|key).*");
+    private static final int MAX_VALUE_LENGTH = 100;
+    private static final int MAX_STACK_DEPTH = 40;
+
+    private final long thresholdNanos;
+    private final long windowMillis;
+    private final long sampleIntervalMillis;
+    private final int keepPerWindow;
+    private final AtomicReferenceArray<Window> windows;
+    private final Map<InFlight, Boolean> inFlight = new ConcurrentHashMap<>();
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private Clock clock = Clock.systemUTC();
+    private ScheduledExecutorService sampler;
+
+    public SlowRequestRecorder(@Value("${observability.slow-requests.threshold:PT0.5S}") Duration threshold,
+                               @Value("${observability.slow-requests.window:PT1M}") Duration window,
+                               @Value("${observability.slow-requests.windows:15}") int windowCount,
+                               @Value("${observability.slow-requests.keep:10}") int keepPerWindow,
+                               @Value("${observability.slow-requests.sample-interval:PT0.2S}") Duration sampleInterval) {
+        this.thresholdNanos = threshold.toNanos();
+        this.windowMillis = window.toMillis();
+        this.sampleIntervalMillis = sampleInterval.toMillis();
+        this.keepPerWindow = keepPerWindow;
+        this.windows = new AtomicReferenceArray<>(windowCount);
+        this.threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    @PostConstruct
+    public void startSampler() {
+        sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "slow-request-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(this::sampleStacks, sampleIntervalMillis, sampleIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopSampler() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * Start timing a request on the current thread.
+     * @param variables the request's variables, only copied if it turns out slow
+     */
+    public InFlight start(String operation, Map<String, Object> variables) {
+        InFlight request = new InFlight(operation, variables, Thread.currentThread(),
+                threadMXBean.getCurrentThreadAllocatedBytes());
+        inFlight.put(request, Boolean.TRUE);
+        return request;
+    }
+
+    /**
+     * Stop timing a request and record it if it was slow.
+     * @param statements SQL statements the request issued
+     */
+    public void finish(InFlight request, int statements) {
+        long durationNanos = System.nanoTime() - request.startedAt;
+        inFlight.remove(request);
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        // Allocation is per thread, so only meaningful if the request finished where it started
+        long allocatedBytes = Thread.currentThread() == request.thread
+                ? threadMXBean.getCurrentThreadAllocatedBytes() - request.allocatedBytesAtStart
+                : -1;
+        record(new SlowRequest(request.operation, redact(request.variables), clock.instant().minusNanos(durationNanos),
+                durationNanos / 1_000_000, statements, request.thread.getName(), allocatedBytes, request.stack));
+    }
+
+    /**
+     * Capture the stack of every running request that has crossed the
+     * threshold and has no stack yet.
+     */
+    public void sampleStacks() {
+        long now = System.nanoTime();
+        for (InFlight request : inFlight.keySet()) {
+            if (request.stack == null && now - request.startedAt >= thresholdNanos) {
+                request.stack = Arrays.stream(request.thread.getStackTrace())
+                        .limit(MAX_STACK_DEPTH)
+                        .map(StackTraceElement::toString)
+                        .toList();
+            }
+        }
+    }
+
+    /**
+     * Recorded requests of the windows still in the ring, newest window first
+     * and slowest request first within each.
+     */
+    public List<WindowSnapshot> snapshot() {
+        long currentIndex = clock.millis() / windowMillis;
+        List<WindowSnapshot> result = new ArrayList<>();
+        for (int i = 0; i < windows.length(); i++) {
+            Window window = windows.get(i);
+            if (window == null || window.index <= currentIndex - windows.length()) {
+                continue;
+            }
+            List<SlowRequest> requests = new ArrayList<>();
+            for (int slot = 0; slot < window.slowest.length(); slot++) {
+                SlowRequest request = window.slowest.get(slot);
+                if (request != null) {
+                    requests.add(request);
+                }
+            }
+            requests.sort(Comparator.comparingLong(SlowRequest::durationMs).reversed());
+            result.add(new WindowSnapshot(Instant.ofEpochMilli(window.index * windowMillis), requests));
+        }
+        result.sort(Comparator.comparing(WindowSnapshot::start).reversed());
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < windows.length(); i++) {
+            windows.set(i, null);
+        }
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    public Duration getWindow() {
+        return Duration.ofMillis(windowMillis);
+    }
+
+    private void record(SlowRequest request) {
+        long index = clock.millis() / windowMillis;
+        int ringSlot = (int) (index % windows.length());
+        Window window = windows.get(ringSlot);
+        while (window == null || window.index < index) {
+            // The slot still holds a window that has dropped out of the ring; replace it
+            Window fresh = new Window(index, keepPerWindow);
+            if (windows.compareAndSet(ringSlot, window, fresh)) {
+                window = fresh;
+            } else {
+                window = windows.get(ringSlot);
+            }
+        }
+        window.offer(request);
+    }
+
+    private static Object redact(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> redacted = new LinkedHashMap<>();
+            map.forEach((key, entry) -> redacted.put(String.valueOf(key),
+                    SENSITIVE_KEY.matcher(String.valueOf(key)).matches() ? "[redacted]" : redact(entry)));
+            return redacted;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(SlowRequestRecorder::redact).toList();
+        }
+        if (value instanceof String string && string.length() > MAX_VALUE_LENGTH) {
+            return string.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return value;
+    }
+
+    /**
+     * A request being timed. Compared by identity.
+     */
+    public static final class InFlight {
+        private final String operation;
+        private final Map<String, Object> variables;
+        private final Thread thread;
+        private final long allocatedBytesAtStart;
+        private final long startedAt = System.nanoTime();
+        private volatile List<String> stack;
+
+        private InFlight(String operation, Map<String, Object> variables, Thread thread, long allocatedBytesAtStart) {
+            this.operation = operation;
+            this.variables = variables;
+            this.thread = thread;
+            this.allocatedBytesAtStart = allocatedBytesAtStart;
+        }
+    }
+
+    /**
+     * @param allocatedBytes bytes allocated by the request's thread, or -1 if it changed threads
+     * @param stack the request's stack when it crossed the threshold, or null if it finished before the next sample
+     */
+    public record SlowRequest(String operation, Object variables, Instant startedAt, long durationMs, int statements,
+                              String thread, long allocatedBytes, List<String> stack) {
+    }
+
+    public record WindowSnapshot(Instant start, List<SlowRequest> requests) {
+    }
+
+    /**
+     * The slowest requests of one window. Slots are replaced by compare-and-set
+     * with a slower request, evicting the fastest one held.
+     */
+    private static final class Window {
+        private final long index;
+        private final AtomicReferenceArray<SlowRequest> slowest;
+
+        Window(long index, int capacity) {
+            this.index = index;
+            this.slowest = new AtomicReferenceArray<>(capacity);
+        }
+
+        void offer(SlowRequest request) {
+            while (slowest.length() > 0) {
+                int fastestSlot = -1;
+                SlowRequest fastest = null;
+                for (int slot = 0; slot < slowest.length(); slot++) {
+                    SlowRequest held = slowest.get(slot);
+                    if (held == null) {
+                        fastestSlot = slot;
+                        fastest = null;
+                        break;
+                    }
+                    if (fastest == null || held.durationMs() < fastest.durationMs()) {
+                        fastestSlot = slot;
+                        fastest = held;
+                    }
+                }
+                if (fastest != null && fastest.durationMs() >= request.durationMs()) {
+                    return;
+                }
+                if (slowest.compareAndSet(fastestSlot, fastest, request)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.projects.taskmanager.observability;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL issued while handling each HTTP request, including any
+ * issued by the security filters. Requests that run a GraphQL operation are
+ * reported per operation by {@link GraphQLMetricsInstrumentation} instead.
+ * Runs inside {@link CorrelationIdFilter} so its warnings carry the request's ID.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class SqlStatementAccountingFilter extends OncePerRequestFilter {
+
+    private final SqlStatementReporter sqlStatementReporter;
+
+    public SqlStatementAccountingFilter(SqlStatementReporter sqlStatementReporter) {
+        this.sqlStatementReporter = sqlStatementReporter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            filterChain.doFilter(request, response);
+            if (!scope.hasNestedScopes()) {
+                // The route template rather than the path, to keep the tag bounded
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String operation = request.getMethod() + " " + (pattern != null ? pattern : "unmatched");
+                sqlStatementReporter.report("http", operation, scope);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.projects.taskmanager.observability;
+
+import java.util.regex.Pattern;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Records each SQL statement Hibernate prepares, and each entity it loads,
+ * against the thread's {@link SqlStatementScope}. Statements are reduced to
+ * their shape, with literals and parameter lists collapsed, so repeats of
+ * the same query with different values are counted together.
+ */
+public class SqlStatementCounter implements StatementInspector, Interceptor {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\?(?:\\s*,\\s*\\?)+\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Override
+    public String inspect(String sql) {
+        if (SqlStatementScope.current() != null) {
+            SqlStatementScope.statementPrepared(shapeOf(sql));
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        SqlStatementScope.rowFetched();
+        return false;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
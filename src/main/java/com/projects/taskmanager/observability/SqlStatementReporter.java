@@ -0,0 +1,54 @@
+package com.projects.taskmanager.observability;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the SQL of a finished request or GraphQL operation and warns when
+ * it looks like an N+1: too many statements overall, or the same statement
+ * shape repeated many times.
+ */
+@Component
+public class SqlStatementReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementReporter.class);
+
+    private final MetricsService metricsService;
+    private final int statementThreshold;
+    private final int repeatThreshold;
+
+    public SqlStatementReporter(MetricsService metricsService,
+                                @Value("${observability.sql.statement-threshold:50}") int statementThreshold,
+                                @Value("${observability.sql.repeat-threshold:10}") int repeatThreshold) {
+        this.metricsService = metricsService;
+        this.statementThreshold = statementThreshold;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * @param kind "graphql" or "http"
+     * @param operation bounded name of what ran, e.g. an allowlisted operation name or a route
+     */
+    public void report(String kind, String operation, SqlStatementScope scope) {
+        if (scope.getStatementCount() == 0) {
+            return;
+        }
+        metricsService.recordSqlStatements(kind, operation, scope.getStatementCount(),
+                scope.getExecutionNanos(), scope.getRowsFetched());
+
+        List<Map.Entry<String, Integer>> repeated = scope.repeatedShapes(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            StringBuilder shapes = new StringBuilder();
+            repeated.forEach(entry -> shapes.append("\n  ").append(entry.getValue()).append(" x ").append(entry.getKey()));
+            logger.warn("Possible N+1 in {} {}: {} statements, {} ms, {} rows; repeated statements:{}", kind, operation,
+                    scope.getStatementCount(), scope.getExecutionNanos() / 1_000_000, scope.getRowsFetched(), shapes);
+        } else if (scope.getStatementCount() >= statementThreshold) {
+            logger.warn("{} {} issued {}", kind, operation, scope.describe());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.projects.taskmanager.observability;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL issued by the current thread during one unit of work: an HTTP request,
+ * a GraphQL operation, or whatever a test wraps in one. Filled in by the
+ * Hibernate hooks in {@link SqlStatementCounter} and {@link SqlTimingListener}.
+ *
+ * Scopes nest, and statements count towards every open scope on the thread,
+ * so a test can open one around a request and check the total against a
+ * budget:
+ * <pre>
+ * try (SqlStatementScope sql = SqlStatementScope.open()) {
+ *     graphQlTester.document(query).execute();
+ *     assertTrue(sql.getStatementCount() &lt;= 3, sql.describe());
+ * }
+ * </pre>
+ */
+public final class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementScope parent;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int statementCount;
+    private long executionNanos;
+    private long rowsFetched;
+    private boolean nested;
+
+    private SqlStatementScope(SqlStatementScope parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatementScope open() {
+        SqlStatementScope parent = CURRENT.get();
+        if (parent != null) {
+            parent.nested = true;
+        }
+        SqlStatementScope scope = new SqlStatementScope(parent);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * The innermost scope open on this thread, or null.
+     */
+    public static SqlStatementScope current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared(String shape) {
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statementCount++;
+            scope.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static void statementExecuted(long nanos) {
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.executionNanos += nanos;
+        }
+    }
+
+    static void rowFetched() {
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.rowsFetched++;
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched;
+    }
+
+    /**
+     * Whether another scope was opened inside this one, e.g. for a GraphQL
+     * operation inside an HTTP request.
+     */
+    public boolean hasNestedScopes() {
+        return nested;
+    }
+
+    /**
+     * Statement shapes issued at least {@code threshold} times, most repeated first.
+     */
+    public List<Map.Entry<String, Integer>> repeatedShapes(int threshold) {
+        return shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Counts and every statement shape, for log lines and assertion messages.
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder()
+                .append(statementCount).append(" statements, ")
+                .append(executionNanos / 1_000_000).append(" ms, ")
+                .append(rowsFetched).append(" rows");
+        shapes.forEach((shape, count) -> description.append("\n  ").append(count).append(" x ").append(shape));
+        return description.toString();
+    }
+
+    /**
+     * Closing is safe from any thread; only the thread that opened the scope
+     * stops recording into it.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
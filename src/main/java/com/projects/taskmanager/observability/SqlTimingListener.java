@@ -0,0 +1,32 @@
+package com.projects.taskmanager.observability;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements to the thread's
+ * {@link SqlStatementScope}. Hibernate creates one per session.
+ */
+public class SqlTimingListener implements SessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementScope.statementExecuted(System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementScope.statementExecuted(System.nanoTime() - startedAt);
+    }
+}
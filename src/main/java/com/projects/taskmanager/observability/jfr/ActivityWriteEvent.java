@@ -0,0 +1,30 @@
+package com.projects.taskmanager.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("taskmanager.ActivityWrite")
+@Label("Activity Write")
+@Description("Insert of a task activity row and its summary update")
+@Category({"Task Manager", "Persistence"})
+@StackTrace(false)
+public class ActivityWriteEvent extends Event {
+
+    @Label("Task Id")
+    private long taskId;
+
+    @Label("Activity Type")
+    private String activityType;
+
+    public void setTaskId(long taskId) {
+        this.taskId = taskId;
+    }
+
+    public void setActivityType(String activityType) {
+        this.activityType = activityType;
+    }
+}
@@ -0,0 +1,37 @@
+package com.projects.taskmanager.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("taskmanager.GraphQLOperation")
+@Label("GraphQL Operation")
+@Description("Execution of one GraphQL query, mutation or subscription")
+@Category({"Task Manager", "GraphQL"})
+@StackTrace(false)
+public class GraphQLOperationEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("SQL Statements")
+    private int statements;
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setStatements(int statements) {
+        this.statements = statements;
+    }
+}
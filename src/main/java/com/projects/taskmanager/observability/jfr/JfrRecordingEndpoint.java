@@ -0,0 +1,148 @@
+package com.projects.taskmanager.observability.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * {@code /actuator/jfr}: flight recordings started on demand.
+ *
+ * POST starts a recording with the JDK's "default" or "profile" settings plus
+ * the task manager's own events, optionally stopping itself after a duration.
+ * POST to {@code /jfr/{id}} stops it, GET {@code /jfr/{id}} downloads what it
+ * has recorded so far and DELETE discards it.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final List<String> SETTINGS = List.of("default", "profile");
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+            GraphQLOperationEvent.class, ServiceCallEvent.class, ActivityWriteEvent.class, NotificationSendEvent.class);
+
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+    private final Map<Long, Path> dumps = new ConcurrentHashMap<>();
+
+    @ReadOperation
+    public List<Map<String, Object>> recordings() {
+        return recordings.values().stream().map(JfrRecordingEndpoint::describe).toList();
+    }
+
+    /**
+     * @param settings "default" (about 1% overhead) or "profile" (more detail, around 2%)
+     * @param duration stop by itself after this long, otherwise runs until stopped
+     */
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String settings, @Nullable Duration duration) {
+        String name = settings != null ? settings : "default";
+        if (!SETTINGS.contains(name)) {
+            throw new InvalidEndpointRequestException("Unknown settings: " + name, "settings must be one of " + SETTINGS);
+        }
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(name));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not load JFR settings " + name, e);
+        }
+        recording.setName("taskmanager-" + name);
+        EVENTS.forEach(recording::enable);
+        if (duration != null) {
+            recording.setDuration(duration);
+        }
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        return describe(recording);
+    }
+
+    @WriteOperation
+    public Map<String, Object> stop(@Selector long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return null;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        return describe(recording);
+    }
+
+    /**
+     * The recording so far as a .jfr file, for JDK Mission Control or {@code jfr print}.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource download(@Selector long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return null;
+        }
+        try {
+            // One dump file per recording, replaced on each download
+            Path dump = Files.createTempFile("taskmanager-" + id + "-", ".jfr");
+            recording.dump(dump);
+            deleteDump(dumps.put(id, dump));
+            return new FileSystemResource(dump);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DeleteOperation
+    public void discard(@Selector long id) {
+        Recording recording = recordings.remove(id);
+        if (recording != null) {
+            recording.close();
+        }
+        deleteDump(dumps.remove(id));
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        recordings.keySet().forEach(this::discard);
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", recording.getId());
+        description.put("name", recording.getName());
+        description.put("state", recording.getState().name());
+        description.put("startTime", recording.getStartTime() != null ? recording.getStartTime().toString() : null);
+        description.put("duration", recording.getDuration() != null ? recording.getDuration().toString() : null);
+        description.put("size", recording.getSize());
+        return description;
+    }
+
+    private static void deleteDump(Path dump) {
+        if (dump == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(dump);
+        } catch (IOException e) {
+            dump.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.projects.taskmanager.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("taskmanager.NotificationSend")
+@Label("Notification Send")
+@Description("WebSocket message handed to the broker for a topic or a single user")
+@Category({"Task Manager", "WebSocket"})
+@StackTrace(false)
+public class NotificationSendEvent extends Event {
+
+    @Label("Destination")
+    private String destination;
+
+    @Label("Type")
+    private String type;
+
+    @Label("User")
+    private String user;
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+}
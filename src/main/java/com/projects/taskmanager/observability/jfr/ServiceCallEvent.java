@@ -0,0 +1,37 @@
+package com.projects.taskmanager.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("taskmanager.ServiceCall")
+@Label("Service Call")
+@Description("Call to a TaskService or UserService method, including its transaction")
+@Category({"Task Manager", "Service"})
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+
+    @Label("Service")
+    private String service;
+
+    @Label("Method")
+    private String method;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+}
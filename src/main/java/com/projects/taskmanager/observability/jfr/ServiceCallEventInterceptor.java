@@ -0,0 +1,33 @@
+package com.projects.taskmanager.observability.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+
+/**
+ * Wraps service methods in a {@link ServiceCallEvent}. The event never leaves
+ * this method, so with JFR off the JIT can drop it entirely.
+ */
+public class ServiceCallEventInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        boolean failed = false;
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setService(AopUtils.getTargetClass(invocation.getThis()).getSimpleName());
+                event.setMethod(invocation.getMethod().getName());
+                event.setFailed(failed);
+                event.commit();
+            }
+        }
+    }
+}
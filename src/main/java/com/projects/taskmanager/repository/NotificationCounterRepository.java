@@ -0,0 +1,26 @@
+package com.projects.taskmanager.repository;
+
+import com.projects.taskmanager.model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    // Atomic in-place adjustment, clamped at zero
+    @Modifying
+    @Query("""
+        UPDATE NotificationCounter c
+        SET c.unreadCount = CASE WHEN c.unreadCount + :delta < 0 THEN 0 ELSE c.unreadCount + :delta END
+        WHERE c.userId = :userId
+        """)
+    int adjustUnreadCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // A plain insert, so a row created concurrently fails the constraint instead of being overwritten
+    @Modifying
+    @Query(value = "INSERT INTO notification_counter (user_id, unread_count) VALUES (:userId, 0)", nativeQuery = true)
+    int createCounter(@Param("userId") Long userId);
+}
@@ -0,0 +1,36 @@
+package com.projects.taskmanager.repository;
+
+import com.projects.taskmanager.model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Keyset pages over the (recipient_id, id) index, newest first
+    List<Notification> findByRecipientIdOrderByIdDesc(Long recipientId, Pageable pageable);
+
+    List<Notification> findByRecipientIdAndIdLessThanOrderByIdDesc(Long recipientId, Long id, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.recipientId = :recipientId AND n.id <= :upTo AND n.read = false")
+    int markReadUpTo(@Param("recipientId") Long recipientId, @Param("upTo") Long upTo);
+
+    @Query("SELECT DISTINCT n.recipientId FROM Notification n WHERE n.read = false AND n.createdAt < :cutoff")
+    List<Long> findRecipientIdsWithUnreadCreatedBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.recipientId = :recipientId AND n.read = false AND n.createdAt < :cutoff")
+    int deleteUnreadCreatedBefore(@Param("recipientId") Long recipientId, @Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.read = true AND n.createdAt < :cutoff")
+    int deleteReadCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,56 @@
+package com.projects.taskmanager.repository;
+
+import com.projects.taskmanager.model.StorageUsage;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, StorageUsage.Key> {
+
+    // Atomic charge that only applies while the total stays within the limit
+    @Modifying
+    @Query("""
+        UPDATE StorageUsage u
+        SET u.usedBytes = u.usedBytes + :bytes, u.fileCount = u.fileCount + 1
+        WHERE u.scope = :scope AND u.ownerId = :ownerId AND u.usedBytes + :bytes <= :limit
+        """)
+    int charge(@Param("scope") StorageUsage.Scope scope, @Param("ownerId") Long ownerId,
+               @Param("bytes") long bytes, @Param("limit") long limit);
+
+    // Atomic refund, clamped at zero
+    @Modifying
+    @Query("""
+        UPDATE StorageUsage u
+        SET u.usedBytes = CASE WHEN u.usedBytes < :bytes THEN 0 ELSE u.usedBytes - :bytes END,
+            u.fileCount = CASE WHEN u.fileCount < :files THEN 0 ELSE u.fileCount - :files END
+        WHERE u.scope = :scope AND u.ownerId = :ownerId
+        """)
+    int refund(@Param("scope") StorageUsage.Scope scope, @Param("ownerId") Long ownerId,
+               @Param("bytes") long bytes, @Param("files") long files);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO storage_usage (scope, owner_id, used_bytes, file_count)
+        VALUES (:scope, :ownerId, :usedBytes, :fileCount)
+        """, nativeQuery = true)
+    int create(@Param("scope") String scope, @Param("ownerId") Long ownerId,
+               @Param("usedBytes") long usedBytes, @Param("fileCount") long fileCount);
+
+    // Holds back charges and refunds to the row while it is being reconciled
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM StorageUsage u WHERE u.scope = :scope AND u.ownerId = :ownerId")
+    Optional<StorageUsage> findForUpdate(@Param("scope") StorageUsage.Scope scope, @Param("ownerId") Long ownerId);
+
+    // Keyset paging for reconciliation
+    List<StorageUsage> findByScopeAndOwnerIdGreaterThanOrderByOwnerIdAsc(StorageUsage.Scope scope, Long afterOwnerId,
+                                                                         Pageable pageable);
+}
@@ -0,0 +1,61 @@
+package com.projects.taskmanager.repository;
+
+import com.projects.taskmanager.model.StoredBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    Optional<StoredBlob> findByContentHash(String contentHash);
+
+    List<StoredBlob> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.crc32 = :crc32 WHERE b.id = :id")
+    int updateCrc32(@Param("id") Long id, @Param("crc32") long crc32);
+
+    @Query("SELECT b.contentHash FROM StoredBlob b WHERE b.contentHash > :afterHash ORDER BY b.contentHash")
+    List<String> findContentHashesAfter(@Param("afterHash") String afterHash, Pageable pageable);
+
+    @Query("SELECT b.contentHash FROM StoredBlob b WHERE b.contentHash IN :contentHashes")
+    List<String> findContentHashesIn(@Param("contentHashes") Collection<String> contentHashes);
+
+    // Blobs left behind when attachment rows were removed without releasing them, e.g. by task cascades
+    @Query("""
+        SELECT b FROM StoredBlob b
+        WHERE b.id > :afterId AND b.createdAt < :createdBefore
+        AND NOT EXISTS (SELECT a.id FROM TaskAttachment a WHERE a.blob = b)
+        ORDER BY b.id
+        """)
+    List<StoredBlob> findUnattachedCreatedBefore(@Param("afterId") Long afterId,
+                                                 @Param("createdBefore") Instant createdBefore,
+                                                 Pageable pageable);
+
+    // The count is compared so that a reference taken since the blob was read keeps it
+    @Modifying
+    @Query("""
+        DELETE FROM StoredBlob b WHERE b.id = :id AND b.referenceCount = :referenceCount
+        AND NOT EXISTS (SELECT a.id FROM TaskAttachment a WHERE a.blob = b)
+        """)
+    int deleteIfUnattached(@Param("id") Long id, @Param("referenceCount") long referenceCount);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.id = :id")
+    int incrementReferenceCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.referenceCount = b.referenceCount - 1 WHERE b.id = :id AND b.referenceCount > 0")
+    int decrementReferenceCount(@Param("id") Long id);
+}
@@ -3,11 +3,14 @@ package com.projects.taskmanager.repository;
 import com.projects.taskmanager.model.TaskActivity;
 import com.projects.taskmanager.model.Task;
 import com.projects.taskmanager.model.ActivityType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,8 +24,28 @@ public interface TaskActivityRepository extends JpaRepository<TaskActivity, Long
     
     List<TaskActivity> findByTaskIdAndActivityTypeOrderByCreatedAtDesc(Long taskId, ActivityType activityType);
     
-    @Query("SELECT a FROM TaskActivity a WHERE a.task.id = :taskId ORDER BY a.createdAt DESC")
-    List<TaskActivity> findRecentActivitiesByTaskId(@Param("taskId") Long taskId);
+    // Feed pages, newest first, keyed on (createdAt, id)
+
+    @Query("SELECT a FROM TaskActivity a JOIN FETCH a.user WHERE a.task.id = :taskId AND a.activityType IN :types " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<TaskActivity> findFeedByTaskId(@Param("taskId") Long taskId, @Param("types") Collection<ActivityType> types,
+                                        Pageable pageable);
+
+    @Query("SELECT a FROM TaskActivity a JOIN FETCH a.user WHERE a.task.id = :taskId AND a.activityType IN :types " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<TaskActivity> findFeedByTaskIdBefore(@Param("taskId") Long taskId, @Param("types") Collection<ActivityType> types,
+                                              @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT a FROM TaskActivity a JOIN FETCH a.user JOIN FETCH a.task WHERE a.activityType IN :types " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<TaskActivity> findFeed(@Param("types") Collection<ActivityType> types, Pageable pageable);
+
+    @Query("SELECT a FROM TaskActivity a JOIN FETCH a.user JOIN FETCH a.task WHERE a.activityType IN :types " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<TaskActivity> findFeedBefore(@Param("types") Collection<ActivityType> types,
+                                      @Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
     
     long countByTask(Task task);
     
@@ -2,15 +2,27 @@ package com.projects.taskmanager.repository;
 
 import com.projects.taskmanager.model.TaskAttachment;
 import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment, Long> {
+
+    interface UsageTotals {
+        long getBytes();
+        long getFiles();
+    }
+
+    interface UploaderTotals extends UsageTotals {
+        Long getUploaderId();
+    }
     
     List<TaskAttachment> findByTaskOrderByCreatedAtDesc(Task task);
     
@@ -27,4 +39,49 @@ public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment,
     long countByTaskId(Long taskId);
     
     long countByTaskIdAndContentTypeStartingWith(Long taskId, String contentTypePrefix);
+    
+    // Attachments of tasks matching the filter, in (task, attachment) order for keyset paging
+    @Query("""
+        SELECT a FROM TaskAttachment a
+        JOIN FETCH a.task t
+        LEFT JOIN FETCH a.blob
+        WHERE (t.id > :afterTaskId OR (t.id = :afterTaskId AND a.id > :afterId))
+        AND (:taskId IS NULL OR t.id = :taskId)
+        AND (:completed IS NULL OR t.completed = :completed)
+        AND (:titleContains IS NULL OR LOWER(t.title) LIKE LOWER(CONCAT('%', :titleContains, '%')))
+        AND (:status IS NULL OR t.status = :status)
+        AND (:dueDateFrom IS NULL OR t.dueDate >= :dueDateFrom)
+        AND (:dueDateTo IS NULL OR t.dueDate <= :dueDateTo)
+        ORDER BY t.id, a.id
+        """)
+    List<TaskAttachment> findForBundle(
+        @Param("afterTaskId") Long afterTaskId,
+        @Param("afterId") Long afterId,
+        @Param("taskId") Long taskId,
+        @Param("completed") Boolean completed,
+        @Param("titleContains") String titleContains,
+        @Param("status") TaskStatus status,
+        @Param("dueDateFrom") LocalDate dueDateFrom,
+        @Param("dueDateTo") LocalDate dueDateTo,
+        Pageable pageable
+    );
+    
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) AS bytes, COUNT(a) AS files FROM TaskAttachment a WHERE a.uploader.id = :userId")
+    UsageTotals sumUsageByUploaderId(@Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) AS bytes, COUNT(a) AS files FROM TaskAttachment a WHERE a.task.id = :taskId")
+    UsageTotals sumUsageByTaskId(@Param("taskId") Long taskId);
+
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) FROM TaskAttachment a")
+    long sumFileSize();
+
+    // What each uploader has stored on a task, to refund when the task is deleted
+    @Query("""
+        SELECT a.uploader.id AS uploaderId, COALESCE(SUM(a.fileSize), 0) AS bytes, COUNT(a) AS files
+        FROM TaskAttachment a WHERE a.task.id = :taskId GROUP BY a.uploader.id
+        """)
+    List<UploaderTotals> sumUsageByUploaderForTask(@Param("taskId") Long taskId);
+
+    // Attachments written before blob storage, paged by id for the migration runner
+    List<TaskAttachment> findByBlobIsNullAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
@@ -2,7 +2,9 @@ package com.projects.taskmanager.repository;
 
 import com.projects.taskmanager.model.TaskComment;
 import com.projects.taskmanager.model.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,6 +25,46 @@ public interface TaskCommentRepository extends JpaRepository<TaskComment, Long>
     @Query("SELECT c FROM TaskComment c WHERE c.task.id = :taskId AND c.parentComment IS NULL ORDER BY c.createdAt ASC")
     List<TaskComment> findTopLevelCommentsByTaskId(@Param("taskId") Long taskId);
     
+    /**
+     * Keyset page of a task's top-level comments, oldest first.
+     */
+    @Query("SELECT c FROM TaskComment c JOIN FETCH c.author WHERE c.task.id = :taskId AND c.path = '/' AND c.id > :afterId ORDER BY c.id ASC")
+    List<TaskComment> findThreadRoots(@Param("taskId") Long taskId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Every reply with a path in [from, to), i.e. all replies under a run of
+     * consecutive top-level comments, in one range scan.
+     */
+    @Query("SELECT c FROM TaskComment c JOIN FETCH c.author WHERE c.task.id = :taskId AND c.path >= :from AND c.path < :to ORDER BY c.id ASC")
+    List<TaskComment> findRepliesInPathRange(@Param("taskId") Long taskId, @Param("from") String from, @Param("to") String to);
+
+    /**
+     * Delete a comment together with every reply beneath it.
+     * @return the number of comments deleted
+     */
+    @Modifying
+    @Query("DELETE FROM TaskComment c WHERE c.task.id = :taskId AND (c.id = :id OR c.path LIKE CONCAT(:childPath, '%'))")
+    int deleteSubtree(@Param("taskId") Long taskId, @Param("id") Long id, @Param("childPath") String childPath);
+
+    @Modifying
+    @Query("UPDATE TaskComment c SET c.path = '/' WHERE c.path IS NULL AND c.parentComment IS NULL")
+    int backfillRootPaths();
+
+    /**
+     * Fill in the paths of replies whose parent already has one. Repeated
+     * until nothing changes, this works down each thread a level at a time.
+     * Pads ids to the same width as {@link TaskComment#childPath}.
+     */
+    @Modifying
+    @Query("""
+        UPDATE TaskComment c SET c.path = (
+            SELECT CONCAT(p.path, PAD(CAST(p.id AS String) WITH 19 LEADING '0'), '/')
+            FROM TaskComment p WHERE p.id = c.parentComment.id)
+        WHERE c.path IS NULL
+          AND c.parentComment.id IN (SELECT p.id FROM TaskComment p WHERE p.path IS NOT NULL)
+        """)
+    int backfillReplyPaths();
+
     long countByTask(Task task);
     
     long countByTaskId(Long taskId);
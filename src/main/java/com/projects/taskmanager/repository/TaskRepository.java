@@ -3,19 +3,39 @@ package com.projects.taskmanager.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.projects.taskmanager.model.Task;
 import com.projects.taskmanager.model.TaskStatus;
+import jakarta.persistence.LockModeType;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
+    interface SummaryRow {
+        Long getTaskId();
+        Integer getAttachmentCount();
+        Integer getImageCount();
+        Integer getCommentCount();
+        Integer getActivityCount();
+        Instant getLastActivityAt();
+    }
+
+    interface StatusCount {
+        TaskStatus getStatus();
+        long getTasks();
+        long getOverdue();
+    }
+
     List<Task> findByStatus(TaskStatus status);
 
     // Basic pagination with optional filtering
@@ -55,4 +75,75 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     // Count tasks for statistics
     @Query("SELECT COUNT(t) FROM Task t WHERE (:completed IS NULL OR t.completed = :completed)")
     long countByCompleted(@Param("completed") Boolean completed);
+
+    // Attachment, comment and activity totals for a page of tasks in one statement
+    @Query("""
+        SELECT t.id AS taskId,
+            CAST((SELECT COUNT(a) FROM TaskAttachment a WHERE a.task = t) AS Integer) AS attachmentCount,
+            CAST((SELECT COUNT(a) FROM TaskAttachment a WHERE a.task = t AND a.contentType LIKE 'image/%') AS Integer) AS imageCount,
+            CAST((SELECT COUNT(c) FROM TaskComment c WHERE c.task = t) AS Integer) AS commentCount,
+            CAST((SELECT COUNT(ac) FROM TaskActivity ac WHERE ac.task = t) AS Integer) AS activityCount,
+            (SELECT MAX(ac.createdAt) FROM TaskActivity ac WHERE ac.task = t) AS lastActivityAt
+        FROM Task t WHERE t.id IN :taskIds
+        """)
+    List<SummaryRow> summarize(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query("""
+        SELECT t.id AS taskId, t.attachmentCount AS attachmentCount, t.imageCount AS imageCount,
+            t.commentCount AS commentCount, t.activityCount AS activityCount, t.lastActivityAt AS lastActivityAt
+        FROM Task t WHERE t.id IN :taskIds
+        """)
+    List<SummaryRow> findSummaryCounters(@Param("taskIds") Collection<Long> taskIds);
+
+    // Lock tasks that haven't been counted yet, so the count sees every committed change
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :taskIds AND t.attachmentCount IS NULL ORDER BY t.id")
+    List<Long> lockUncounted(@Param("taskIds") Collection<Long> taskIds);
+
+    // Count tasks that haven't been counted yet
+    @Modifying
+    @Query("""
+        UPDATE Task t SET
+            t.attachmentCount = (SELECT COUNT(a) FROM TaskAttachment a WHERE a.task.id = t.id),
+            t.imageCount = (SELECT COUNT(a) FROM TaskAttachment a WHERE a.task.id = t.id AND a.contentType LIKE 'image/%'),
+            t.commentCount = (SELECT COUNT(c) FROM TaskComment c WHERE c.task.id = t.id),
+            t.activityCount = (SELECT COUNT(ac) FROM TaskActivity ac WHERE ac.task.id = t.id),
+            t.lastActivityAt = (SELECT MAX(ac.createdAt) FROM TaskActivity ac WHERE ac.task.id = t.id)
+        WHERE t.id IN :taskIds AND t.attachmentCount IS NULL
+        """)
+    int countSummaries(@Param("taskIds") Collection<Long> taskIds);
+
+    // Forget all counters, so they are recounted before being trusted again
+    @Modifying
+    @Query("""
+        UPDATE Task t SET t.attachmentCount = NULL, t.imageCount = NULL, t.commentCount = NULL,
+            t.activityCount = NULL, t.lastActivityAt = NULL
+        WHERE t.attachmentCount IS NOT NULL
+        """)
+    int clearSummaryCounters();
+
+    // Counter adjustments. Uncounted tasks stay null, but the row is still locked,
+    // which keeps a concurrent first count from missing the change.
+    @Modifying
+    @Query("UPDATE Task t SET t.attachmentCount = t.attachmentCount + :delta, t.imageCount = t.imageCount + :imageDelta WHERE t.id = :taskId")
+    int adjustAttachmentCount(@Param("taskId") Long taskId, @Param("delta") int delta, @Param("imageDelta") int imageDelta);
+
+    @Modifying
+    @Query("UPDATE Task t SET t.commentCount = t.commentCount + :delta WHERE t.id = :taskId")
+    int adjustCommentCount(@Param("taskId") Long taskId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Task t SET t.activityCount = t.activityCount + 1, t.lastActivityAt = :at WHERE t.id = :taskId")
+    int recordActivity(@Param("taskId") Long taskId, @Param("at") Instant at);
+
+    /**
+     * Tasks per status, and how many of each are open and past their due date.
+     */
+    @Query("""
+        SELECT t.status AS status, COUNT(t) AS tasks,
+               COALESCE(SUM(CASE WHEN t.dueDate < :today AND t.completed = false AND t.status <> :done THEN 1 ELSE 0 END), 0) AS overdue
+        FROM Task t
+        GROUP BY t.status
+        """)
+    List<StatusCount> countByStatus(@Param("today") LocalDate today, @Param("done") TaskStatus done);
 }
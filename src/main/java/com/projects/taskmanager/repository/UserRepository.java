@@ -1,5 +1,6 @@
 package com.projects.taskmanager.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -18,6 +19,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Find user by email
     User findByEmail(String email);
 
+    // Which of the given avatar URLs are still in use
+    @Query("SELECT u.avatarUrl FROM User u WHERE u.avatarUrl IN :avatarUrls")
+    List<String> findAvatarUrlsIn(@Param("avatarUrls") Collection<String> avatarUrls);
+
     // Find users by assigned task IDs (for DataLoader batch loading)
     @Query("""
         SELECT DISTINCT u FROM User u
@@ -0,0 +1,235 @@
+package com.projects.taskmanager.service;
+
+import com.projects.taskmanager.model.StoredBlob;
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskAttachment;
+import com.projects.taskmanager.model.TaskStatus;
+import com.projects.taskmanager.repository.TaskAttachmentRepository;
+import com.projects.taskmanager.storage.ContentAddressedStorage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the attachments of one task, or of every task matching a filter,
+ * as a ZIP archive built while it is being sent.
+ *
+ * Attachments are read from the database a page at a time and each file is
+ * copied straight into the archive, so nothing is held in memory and the
+ * first entries reach the client while later ones are still being read.
+ * Media and other already compressed formats are stored rather than deflated
+ * again. Only a fixed number of bundles are built at once, so large exports
+ * can't saturate the disks.
+ */
+@Service
+public class AttachmentBundleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentBundleService.class);
+
+    private static final int PAGE_SIZE = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FOLDER_NAME_LENGTH = 60;
+
+    /**
+     * Which tasks to bundle. A null field doesn't restrict the selection.
+     */
+    public record BundleFilter(Long taskId, Boolean completed, String titleContains, TaskStatus status,
+                               LocalDate dueDateFrom, LocalDate dueDateTo) {
+
+        public static BundleFilter forTask(Long taskId) {
+            return new BundleFilter(taskId, null, null, null, null, null);
+        }
+    }
+
+    private final TaskAttachmentRepository taskAttachmentRepository;
+    private final ContentAddressedStorage contentAddressedStorage;
+    private final Semaphore bundleSlots;
+
+    public AttachmentBundleService(TaskAttachmentRepository taskAttachmentRepository,
+                                   ContentAddressedStorage contentAddressedStorage,
+                                   @Value("${attachments.bundle.max-concurrent:4}") int maxConcurrentBundles) {
+        this.taskAttachmentRepository = taskAttachmentRepository;
+        this.contentAddressedStorage = contentAddressedStorage;
+        this.bundleSlots = new Semaphore(maxConcurrentBundles);
+    }
+
+    /**
+     * Reserve one of the concurrent bundle slots.
+     * @return false if every slot is in use
+     */
+    public boolean tryAcquireSlot() {
+        return bundleSlots.tryAcquire();
+    }
+
+    public void releaseSlot() {
+        bundleSlots.release();
+    }
+
+    /**
+     * Write the bundle to the stream. Attachments of a single-task bundle sit
+     * at the root of the archive; otherwise each task gets its own folder.
+     */
+    public void writeBundle(BundleFilter filter, OutputStream out) throws IOException {
+        boolean folderPerTask = filter.taskId() == null;
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+
+        int entries = 0;
+        long afterTaskId = 0;
+        long afterId = 0;
+        Long currentTaskId = null;
+        String folder = "";
+        Set<String> namesInFolder = new HashSet<>();
+
+        List<TaskAttachment> page;
+        do {
+            page = taskAttachmentRepository.findForBundle(afterTaskId, afterId, filter.taskId(), filter.completed(),
+                filter.titleContains(), filter.status(), filter.dueDateFrom(), filter.dueDateTo(),
+                PageRequest.of(0, PAGE_SIZE));
+            for (TaskAttachment attachment : page) {
+                Task task = attachment.getTask();
+                afterTaskId = task.getId();
+                afterId = attachment.getId();
+
+                if (!task.getId().equals(currentTaskId)) {
+                    currentTaskId = task.getId();
+                    folder = folderPerTask ? folderName(task) : "";
+                    namesInFolder.clear();
+                }
+
+                String name = folder + uniqueName(sanitize(attachment.getOriginalFilename()), namesInFolder);
+                if (writeEntry(zip, attachment, name)) {
+                    entries++;
+                }
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        zip.finish();
+        zip.flush();
+        logger.debug("Streamed attachment bundle with {} entries", entries);
+    }
+
+    /**
+     * @return false if the attachment's content is missing and it was left out
+     */
+    private boolean writeEntry(ZipOutputStream zip, TaskAttachment attachment, String name) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (attachment.getCreatedAt() != null) {
+            entry.setLastModifiedTime(FileTime.from(attachment.getCreatedAt()));
+        }
+
+        try {
+            if (isAlreadyCompressed(attachment.getContentType())) {
+                // Stored entries need their size and CRC before the data
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(sizeOf(attachment));
+                entry.setCompressedSize(entry.getSize());
+                entry.setCrc(crc32(attachment));
+            }
+
+            // Open before starting the entry so a missing file can still be skipped cleanly
+            try (InputStream in = open(attachment)) {
+                zip.putNextEntry(entry);
+                in.transferTo(zip);
+            }
+        } catch (NoSuchFileException e) {
+            logger.warn("Attachment {} has no stored content, leaving it out of the bundle", attachment.getId());
+            return false;
+        }
+        zip.closeEntry();
+        return true;
+    }
+
+    private InputStream open(TaskAttachment attachment) throws IOException {
+        StoredBlob blob = attachment.getBlob();
+        if (blob != null) {
+            return contentAddressedStorage.open(blob);
+        }
+        return Files.newInputStream(Paths.get(attachment.getFilePath()));
+    }
+
+    private long sizeOf(TaskAttachment attachment) throws IOException {
+        StoredBlob blob = attachment.getBlob();
+        return blob != null ? blob.getSize() : Files.size(Paths.get(attachment.getFilePath()));
+    }
+
+    private long crc32(TaskAttachment attachment) throws IOException {
+        StoredBlob blob = attachment.getBlob();
+        if (blob != null) {
+            return contentAddressedStorage.crc32(blob);
+        }
+        CRC32 crc = new CRC32();
+        Path path = Paths.get(attachment.getFilePath());
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(path), crc)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return crc.getValue();
+    }
+
+    // Deflating these again costs CPU and saves next to nothing
+    private boolean isAlreadyCompressed(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return (type.startsWith("image/") && !type.startsWith("image/svg") && !type.startsWith("image/bmp"))
+            || type.startsWith("video/")
+            || type.startsWith("audio/")
+            || type.startsWith("application/pdf")
+            || type.startsWith("application/zip")
+            || type.startsWith("application/gzip")
+            || type.startsWith("application/vnd.openxmlformats-officedocument.");
+    }
+
+    private String folderName(Task task) {
+        String title = sanitize(task.getTitle());
+        if (title.length() > MAX_FOLDER_NAME_LENGTH) {
+            title = title.substring(0, MAX_FOLDER_NAME_LENGTH).trim();
+        }
+        return task.getId() + "-" + title + "/";
+    }
+
+    private String sanitize(String name) {
+        if (name == null || name.isBlank()) {
+            return "attachment";
+        }
+        String cleaned = name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+        return cleaned.isEmpty() || cleaned.equals(".") || cleaned.equals("..") ? "attachment" : cleaned;
+    }
+
+    private String uniqueName(String name, Set<String> taken) {
+        if (taken.add(name)) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = 2; ; i++) {
+            String candidate = base + " (" + i + ")" + extension;
+            if (taken.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.projects.taskmanager.service;
+
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.storage.ImageVariantService;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Service for storing and resolving user avatar images.
+ */
+@Service
+public class AvatarService {
+
+    private static final Path AVATAR_DIR = Paths.get("uploads", "avatars");
+    private static final String AVATAR_URL_PREFIX = "/api/user/avatar/";
+    private static final long MAX_AVATAR_SIZE = 5 * 1024 * 1024; // 5MB
+
+    private final UserService userService;
+    private final ImageVariantService imageVariantService;
+
+    public AvatarService(UserService userService, ImageVariantService imageVariantService) {
+        this.userService = userService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    /**
+     * Check an avatar upload before any bytes are stored.
+     * @throws IllegalArgumentException if the upload is not an acceptable image
+     */
+    public void validate(String contentType, long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new IllegalArgumentException("File must be an image");
+        }
+        if (size > MAX_AVATAR_SIZE) {
+            throw new IllegalArgumentException("File size must be less than 5MB");
+        }
+    }
+
+    /**
+     * Write an uploaded avatar and point the user at it.
+     * @return the new avatar URL
+     */
+    public String storeAvatar(User user, InputStream content, String originalFilename) throws IOException {
+        Path filePath = newAvatarPath(user, originalFilename);
+        Files.copy(content, filePath, StandardCopyOption.REPLACE_EXISTING);
+        return updateAvatar(user, filePath);
+    }
+
+    /**
+     * Move an already written file into place as the user's avatar.
+     * @return the new avatar URL
+     */
+    public String adoptAvatar(User user, Path source, String originalFilename) throws IOException {
+        Path filePath = newAvatarPath(user, originalFilename);
+        Files.move(source, filePath, StandardCopyOption.REPLACE_EXISTING);
+        return updateAvatar(user, filePath);
+    }
+
+    /**
+     * Resolve an avatar filename to its location on disk.
+     */
+    public Path resolve(String filename) {
+        Path filePath = AVATAR_DIR.resolve(filename).normalize();
+        if (!filePath.startsWith(AVATAR_DIR)) {
+            throw new IllegalArgumentException("Invalid avatar filename");
+        }
+        return filePath;
+    }
+
+    public Path getAvatarDir() {
+        return AVATAR_DIR;
+    }
+
+    /**
+     * The URL a stored avatar file is served from.
+     */
+    public String avatarUrlFor(String filename) {
+        return AVATAR_URL_PREFIX + filename;
+    }
+
+    private Path newAvatarPath(User user, String originalFilename) throws IOException {
+        // Generate unique filename
+        String extension = originalFilename != null && originalFilename.contains(".")
+            ? originalFilename.substring(originalFilename.lastIndexOf("."))
+            : ".jpg";
+        String uniqueFilename = "avatar_" + user.getId() + "_" + UUID.randomUUID() + extension;
+
+        // Create uploads directory if it doesn't exist
+        Files.createDirectories(AVATAR_DIR);
+        return AVATAR_DIR.resolve(uniqueFilename);
+    }
+
+    private String updateAvatar(User user, Path filePath) {
+        String avatarUrl = avatarUrlFor(filePath.getFileName().toString());
+        userService.updateUserAvatar(user.getId(), avatarUrl);
+        imageVariantService.requestVariants(filePath.getFileName().toString(), () -> Files.newInputStream(filePath));
+        return avatarUrl;
+    }
+}
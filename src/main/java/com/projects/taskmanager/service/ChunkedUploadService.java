@@ -0,0 +1,308 @@
+package com.projects.taskmanager.service;
+
+import com.projects.taskmanager.model.TaskAttachment;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.storage.ContentAddressedStorage;
+import com.projects.taskmanager.storage.UploadSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Resumable chunked uploads for attachments and avatars.
+ *
+ * An upload is initialised with its final size and validated against the same
+ * limits as a multipart upload before any bytes are accepted. Chunks are then
+ * streamed from the request straight into the upload file with positional
+ * writes, each checked against its CRC32C. On completion the whole file is
+ * hashed, each chunk is checked against its CRC32C again, and the file is
+ * moved into place, so the content is written to disk only once.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final TaskAttachmentService taskAttachmentService;
+    private final AvatarService avatarService;
+    private final ContentAddressedStorage contentAddressedStorage;
+    private final StorageQuotaService storageQuotaService;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${uploads.chunk-size:1MB}")
+    private DataSize chunkSize;
+
+    @Value("${uploads.session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    public ChunkedUploadService(TaskAttachmentService taskAttachmentService,
+                                AvatarService avatarService,
+                                ContentAddressedStorage contentAddressedStorage,
+                                StorageQuotaService storageQuotaService) {
+        this.taskAttachmentService = taskAttachmentService;
+        this.avatarService = avatarService;
+        this.contentAddressedStorage = contentAddressedStorage;
+        this.storageQuotaService = storageQuotaService;
+    }
+
+    /**
+     * Start an upload. The file is validated and sized up front.
+     * @param sha256 expected hex SHA-256 of the whole file (optional)
+     */
+    public UploadSession initUpload(UploadSession.Purpose purpose, User user, Long taskId, String filename,
+                                    String contentType, long size, String description, String sha256) throws IOException {
+        if (purpose == UploadSession.Purpose.ATTACHMENT) {
+            if (taskId == null) {
+                throw new IllegalArgumentException("taskId is required for attachment uploads");
+            }
+            taskAttachmentService.validateUpload(contentType, size);
+            storageQuotaService.checkQuota(user.getId(), taskId, size);
+        } else {
+            avatarService.validate(contentType, size);
+        }
+
+        Path file = contentAddressedStorage.newTempFile();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+        }
+
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), purpose, user.getId(), taskId,
+                filename, contentType, description, size, (int) chunkSize.toBytes(), sha256, file);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * Write one chunk at its offset.
+     * @param crc32c expected hex CRC32C of the chunk
+     */
+    public UploadSession writeChunk(String uploadId, User user, long offset, InputStream content, String crc32c) throws IOException {
+        UploadSession session = getSession(uploadId, user);
+        if (crc32c == null || crc32c.isBlank()) {
+            throw new IllegalArgumentException("Chunk checksum is required");
+        }
+        long expectedCrc = Long.parseLong(crc32c.trim(), 16);
+        int expectedLength = session.expectedChunkLength(offset);
+        if (expectedLength < 0) {
+            throw new IllegalArgumentException("Offset " + offset + " is not a chunk boundary");
+        }
+        if (!session.beginChunk(offset)) {
+            throw new IllegalStateException("Upload is already being completed");
+        }
+
+        CRC32C checksum = new CRC32C();
+        boolean verified = false;
+        try {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(session.getFile(), StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = content.read(buffer, 0, (int) Math.min(buffer.length, expectedLength - written + 1))) != -1) {
+                    if (written + read > expectedLength) {
+                        throw new IllegalArgumentException("Chunk at offset " + offset + " is longer than " + expectedLength + " bytes");
+                    }
+                    checksum.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        written += channel.write(chunk, offset + written);
+                    }
+                }
+            }
+
+            if (written != expectedLength) {
+                throw new IllegalArgumentException("Chunk at offset " + offset + " is " + written + " bytes, expected " + expectedLength);
+            }
+            if (checksum.getValue() != expectedCrc) {
+                throw new IllegalArgumentException("Checksum mismatch for chunk at offset " + offset);
+            }
+            verified = true;
+        } finally {
+            // A chunk that failed stays missing, even if an earlier copy had arrived intact
+            if (verified) {
+                session.markReceived(offset, checksum.getValue());
+            } else {
+                session.markFailed(offset);
+            }
+        }
+        return session;
+    }
+
+    public UploadSession getUpload(String uploadId, User user) {
+        return getSession(uploadId, user);
+    }
+
+    /**
+     * Finish an attachment upload and create the attachment.
+     */
+    public TaskAttachment completeAttachment(String uploadId, User user) throws IOException {
+        UploadSession session = beginCompletion(uploadId, user, UploadSession.Purpose.ATTACHMENT);
+        try {
+            String contentHash = verify(session);
+            TaskAttachment attachment = taskAttachmentService.attachStoredFile(session.getTaskId(), session.getFile(),
+                    contentHash, session.getTotalSize(), session.getOriginalFilename(), session.getContentType(),
+                    session.getDescription(), user);
+            sessions.remove(uploadId);
+            return attachment;
+        } catch (IOException | RuntimeException e) {
+            session.abortCompletion();
+            throw e;
+        }
+    }
+
+    /**
+     * Finish an avatar upload and make it the user's avatar.
+     * @return the new avatar URL
+     */
+    public String completeAvatar(String uploadId, User user) throws IOException {
+        UploadSession session = beginCompletion(uploadId, user, UploadSession.Purpose.AVATAR);
+        try {
+            verify(session);
+            String avatarUrl = avatarService.adoptAvatar(user, session.getFile(), session.getOriginalFilename());
+            sessions.remove(uploadId);
+            return avatarUrl;
+        } catch (IOException | RuntimeException e) {
+            session.abortCompletion();
+            throw e;
+        }
+    }
+
+    public void cancelUpload(String uploadId, User user) {
+        UploadSession session = getSession(uploadId, user);
+        if (sessions.remove(uploadId, session)) {
+            deleteQuietly(session.getFile());
+        }
+    }
+
+    /**
+     * Discard uploads that have been idle longer than the session TTL.
+     */
+    @Scheduled(fixedDelayString = "${uploads.cleanup-interval:PT15M}", initialDelayString = "${uploads.cleanup-interval:PT15M}")
+    public void expireStaleUploads() {
+        Instant cutoff = Instant.now().minus(sessionTtl);
+        sessions.values().removeIf(session -> {
+            if (session.isCompleting() || session.getLastActivityAt().isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(session.getFile());
+            logger.info("Expired idle upload {} ({} of {} bytes received)",
+                    session.getId(), session.getReceivedBytes(), session.getTotalSize());
+            return true;
+        });
+    }
+
+    private UploadSession getSession(String uploadId, User user) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null || !session.getUserId().equals(user.getId())) {
+            throw new RuntimeException("Upload not found with id: " + uploadId);
+        }
+        return session;
+    }
+
+    private UploadSession beginCompletion(String uploadId, User user, UploadSession.Purpose purpose) {
+        UploadSession session = getSession(uploadId, user);
+        if (session.getPurpose() != purpose) {
+            throw new IllegalArgumentException("Upload " + uploadId + " is not an " + purpose.name().toLowerCase() + " upload");
+        }
+        session.beginCompletion();
+        return session;
+    }
+
+    /**
+     * Hash the assembled file and check it against the size and hash declared
+     * at init, and each chunk against the CRC32C it arrived with. Chunks that
+     * changed since are reopened for upload; a file that fails the other
+     * checks is discarded along with its session.
+     */
+    private String verify(UploadSession session) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        List<Long> rejected = new ArrayList<>();
+        boolean truncated = false;
+        try (FileChannel channel = FileChannel.open(session.getFile(), StandardOpenOption.READ)) {
+            long position = 0;
+            for (long offset = 0; offset < session.getTotalSize() && !truncated; offset += session.getChunkSize()) {
+                CRC32C checksum = new CRC32C();
+                long end = offset + session.expectedChunkLength(offset);
+                while (position < end) {
+                    buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                    if (channel.read(buffer) == -1) {
+                        truncated = true;
+                        break;
+                    }
+                    buffer.flip();
+                    position += buffer.remaining();
+                    checksum.update(buffer.duplicate());
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+                if (checksum.getValue() != session.getChunkCrc(offset)) {
+                    rejected.add(offset);
+                }
+            }
+            truncated |= channel.size() != session.getTotalSize();
+        }
+
+        if (truncated) {
+            throw discard(session);
+        }
+        if (!rejected.isEmpty()) {
+            session.rejectChunks(rejected);
+            throw new IllegalArgumentException("Chunks at offsets " + rejected + " failed integrity check, please upload them again");
+        }
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        String expected = session.getExpectedSha256();
+        if (expected != null && !expected.equalsIgnoreCase(contentHash)) {
+            throw discard(session);
+        }
+        return contentHash;
+    }
+
+    private IllegalArgumentException discard(UploadSession session) {
+        sessions.remove(session.getId());
+        deleteQuietly(session.getFile());
+        return new IllegalArgumentException("Upload failed integrity check, please upload the file again");
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete upload file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
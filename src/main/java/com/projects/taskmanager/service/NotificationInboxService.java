@@ -0,0 +1,141 @@
+package com.projects.taskmanager.service;
+
+import com.projects.taskmanager.graphql.NotificationPage;
+import com.projects.taskmanager.model.Notification;
+import com.projects.taskmanager.model.NotificationCounter;
+import com.projects.taskmanager.repository.NotificationCounterRepository;
+import com.projects.taskmanager.repository.NotificationRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Persistent per-user notification inbox.
+ * Unread counts live in {@link NotificationCounter} and are adjusted as rows are
+ * added, read or pruned, so reading the badge never scans the inbox.
+ */
+@Service
+@Transactional
+public class NotificationInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationInboxService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final TransactionTemplate newTransaction;
+
+    @Value("${notifications.ttl:30d}")
+    private Duration ttl;
+
+    public NotificationInboxService(NotificationRepository notificationRepository,
+                                    NotificationCounterRepository notificationCounterRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Store a notification for a user and bump their unread count.
+     */
+    public Notification record(Long recipientId, Long taskId, String type) {
+        Notification notification = notificationRepository.save(new Notification(recipientId, taskId, type));
+        if (notificationCounterRepository.adjustUnreadCount(recipientId, 1) == 0) {
+            createCounter(recipientId);
+            notificationCounterRepository.adjustUnreadCount(recipientId, 1);
+        }
+        return notification;
+    }
+
+    // Committed on its own at zero, so a concurrent first notification finds the row and only increments
+    private void createCounter(Long recipientId) {
+        try {
+            newTransaction.executeWithoutResult(status -> notificationCounterRepository.createCounter(recipientId));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent notification
+        }
+    }
+
+    /**
+     * Get a page of a user's inbox, newest first.
+     * @param after id of the last notification on the previous page (optional)
+     */
+    @Transactional(readOnly = true)
+    public NotificationPage getNotifications(Long recipientId, int first, Long after) {
+        if (first <= 0 || first > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("first must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, first + 1);
+        List<Notification> rows = after == null
+                ? notificationRepository.findByRecipientIdOrderByIdDesc(recipientId, limit)
+                : notificationRepository.findByRecipientIdAndIdLessThanOrderByIdDesc(recipientId, after, limit);
+
+        boolean hasNextPage = rows.size() > first;
+        List<Notification> content = hasNextPage ? rows.subList(0, first) : rows;
+        Long endCursor = content.isEmpty() ? null : content.get(content.size() - 1).getId();
+
+        return new NotificationPage(content, endCursor, hasNextPage, getUnreadCount(recipientId));
+    }
+
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Long recipientId) {
+        return notificationCounterRepository.findById(recipientId)
+                .map(NotificationCounter::getUnreadCount)
+                .orElse(0L);
+    }
+
+    /**
+     * Mark every notification up to and including the given id as read.
+     * @return the remaining unread count
+     */
+    public long markRead(Long recipientId, Long upTo) {
+        int marked = notificationRepository.markReadUpTo(recipientId, upTo);
+        if (marked > 0) {
+            notificationCounterRepository.adjustUnreadCount(recipientId, -marked);
+        }
+        return getUnreadCount(recipientId);
+    }
+
+    /**
+     * Drop inbox rows older than the configured TTL.
+     */
+    @Scheduled(fixedDelayString = "${notifications.prune-interval:PT1H}", initialDelayString = "${notifications.prune-interval:PT1H}")
+    public void pruneExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+
+        // Expired unread rows still count towards the badge. Each user's are deleted on their
+        // own so the decrement is exactly what was removed, even if some were read meanwhile
+        int deleted = 0;
+        for (Long recipientId : notificationRepository.findRecipientIdsWithUnreadCreatedBefore(cutoff)) {
+            int unread = notificationRepository.deleteUnreadCreatedBefore(recipientId, cutoff);
+            if (unread > 0) {
+                notificationCounterRepository.adjustUnreadCount(recipientId, -unread);
+                deleted += unread;
+            }
+        }
+
+        // Unread rows left behind here are released on the next run
+        deleted += notificationRepository.deleteReadCreatedBefore(cutoff);
+        if (deleted > 0) {
+            logger.info("Pruned {} notifications older than {}", deleted, cutoff);
+        }
+    }
+}
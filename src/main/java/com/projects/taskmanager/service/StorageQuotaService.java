@@ -0,0 +1,300 @@
+package com.projects.taskmanager.service;
+
+import com.projects.taskmanager.config.StorageProperties;
+import com.projects.taskmanager.graphql.StorageUsageSummary;
+import com.projects.taskmanager.model.StorageUsage;
+import com.projects.taskmanager.model.StorageUsage.Key;
+import com.projects.taskmanager.model.StorageUsage.Scope;
+import com.projects.taskmanager.observability.MetricsService;
+import com.projects.taskmanager.repository.StorageUsageRepository;
+import com.projects.taskmanager.repository.TaskAttachmentRepository;
+import com.projects.taskmanager.repository.TaskAttachmentRepository.UploaderTotals;
+import com.projects.taskmanager.repository.TaskAttachmentRepository.UsageTotals;
+import com.projects.taskmanager.service.exception.StorageQuotaExceededException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user and per-task limits on attachment storage.
+ *
+ * Usage lives in {@link StorageUsage} rows that are charged and refunded in
+ * the same transaction as the attachment row. A charge is a single
+ * conditional update that refuses to go over the limit, so concurrent uploads
+ * can't overshoot the quota together. Totals are mirrored in memory, so usage
+ * reads and the early check made before an upload is stored never touch the
+ * database. A row is built from the attachment table the first time its
+ * owner is seen, and all rows are periodically reconciled against it to
+ * correct drift from writes that bypass this service.
+ */
+@Service
+public class StorageQuotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageQuotaService.class);
+
+    private final StorageUsageRepository storageUsageRepository;
+    private final TaskAttachmentRepository taskAttachmentRepository;
+    private final MetricsService metricsService;
+    private final StorageProperties.Quota quota;
+    private final TransactionTemplate newTransaction;
+    private final ConcurrentHashMap<Key, Usage> cachedUsage = new ConcurrentHashMap<>();
+
+    public StorageQuotaService(StorageUsageRepository storageUsageRepository,
+                               TaskAttachmentRepository taskAttachmentRepository,
+                               MetricsService metricsService,
+                               StorageProperties storageProperties,
+                               PlatformTransactionManager transactionManager) {
+        this.storageUsageRepository = storageUsageRepository;
+        this.taskAttachmentRepository = taskAttachmentRepository;
+        this.metricsService = metricsService;
+        this.quota = storageProperties.getQuota();
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reject an upload that clearly won't fit, before any of it is stored.
+     * Uses the in-memory totals; {@link #charge} makes the binding decision.
+     */
+    public void checkQuota(Long userId, Long taskId, long bytes) {
+        if (!quota.isEnabled()) {
+            return;
+        }
+        check(new Key(Scope.USER, userId), bytes);
+        check(new Key(Scope.TASK, taskId), bytes);
+    }
+
+    /**
+     * Charge a new attachment to its uploader and task. Must run in the
+     * transaction that inserts the attachment, and before the insert, so a
+     * concurrent reconciliation of either row can't miss it.
+     * @throws StorageQuotaExceededException if either total would go over its quota
+     */
+    @Transactional
+    public void charge(Long userId, Long taskId, long bytes) {
+        Key userKey = new Key(Scope.USER, userId);
+        Key taskKey = new Key(Scope.TASK, taskId);
+        chargeRow(userKey, bytes);
+        chargeRow(taskKey, bytes);
+        afterCommit(() -> {
+            adjustCached(userKey, bytes, 1);
+            adjustCached(taskKey, bytes, 1);
+        });
+    }
+
+    /**
+     * Refund a removed attachment. Must run in the transaction that deletes it.
+     */
+    @Transactional
+    public void refund(Long userId, Long taskId, long bytes) {
+        Key userKey = new Key(Scope.USER, userId);
+        Key taskKey = new Key(Scope.TASK, taskId);
+        storageUsageRepository.refund(Scope.USER, userId, bytes, 1);
+        storageUsageRepository.refund(Scope.TASK, taskId, bytes, 1);
+        afterCommit(() -> {
+            adjustCached(userKey, -bytes, -1);
+            adjustCached(taskKey, -bytes, -1);
+        });
+    }
+
+    /**
+     * Delete a task and refund its attachments, which the delete removes by
+     * cascade rather than one at a time. Both happen in one transaction, so a
+     * delete that fails refunds nothing.
+     */
+    @Transactional
+    public void refundDeletedTask(Long taskId, Runnable deleteTask) {
+        List<UploaderTotals> totals = taskAttachmentRepository.sumUsageByUploaderForTask(taskId);
+        deleteTask.run();
+        for (UploaderTotals uploader : totals) {
+            storageUsageRepository.refund(Scope.USER, uploader.getUploaderId(), uploader.getBytes(), uploader.getFiles());
+        }
+        Key taskKey = new Key(Scope.TASK, taskId);
+        storageUsageRepository.deleteById(taskKey);
+        afterCommit(() -> {
+            for (UploaderTotals uploader : totals) {
+                adjustCached(new Key(Scope.USER, uploader.getUploaderId()), -uploader.getBytes(), -uploader.getFiles());
+            }
+            cachedUsage.remove(taskKey);
+        });
+    }
+
+    public StorageUsageSummary getUsage(Scope scope, Long ownerId) {
+        Key key = new Key(scope, ownerId);
+        Usage usage = usage(key);
+        Long quotaBytes = quota.isEnabled() ? limitFor(scope) : null;
+        return new StorageUsageSummary(scope.name(), ownerId, usage.bytes.sum(), usage.files.sum(), quotaBytes);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.quota.reconcile-interval:PT1H}", initialDelayString = "${storage.quota.reconcile-initial-delay:PT5M}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.error("Storage usage reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Recompute every usage row from the attachment table. Each row is locked
+     * while it is recounted, so charges and refunds made meanwhile are neither
+     * lost nor counted twice. Rows with nothing left are dropped and rebuilt
+     * on demand.
+     * @return the number of rows that had drifted
+     */
+    public int reconcile() {
+        long startedAt = System.nanoTime();
+        int checked = 0;
+        int corrected = 0;
+        for (Scope scope : Scope.values()) {
+            long afterOwnerId = 0;
+            List<StorageUsage> batch;
+            do {
+                batch = storageUsageRepository.findByScopeAndOwnerIdGreaterThanOrderByOwnerIdAsc(scope, afterOwnerId,
+                        PageRequest.of(0, quota.getBatchSize()));
+                for (StorageUsage row : batch) {
+                    afterOwnerId = row.getOwnerId();
+                    checked++;
+                    if (Boolean.TRUE.equals(newTransaction.execute(status -> recount(row.getKey())))) {
+                        corrected++;
+                    }
+                    // Reload from the corrected row on next use
+                    cachedUsage.remove(row.getKey());
+                }
+            } while (batch.size() == quota.getBatchSize());
+        }
+        logger.info("Storage usage reconciliation checked {} counters and corrected {} in {} ms",
+                checked, corrected, (System.nanoTime() - startedAt) / 1_000_000);
+        return corrected;
+    }
+
+    private boolean recount(Key key) {
+        StorageUsage row = storageUsageRepository.findForUpdate(key.scope(), key.ownerId()).orElse(null);
+        if (row == null) {
+            return false;
+        }
+        UsageTotals actual = countUsage(key);
+        if (actual.getFiles() == 0) {
+            storageUsageRepository.delete(row);
+            return row.getUsedBytes() != 0 || row.getFileCount() != 0;
+        }
+        if (row.getUsedBytes() == actual.getBytes() && row.getFileCount() == actual.getFiles()) {
+            return false;
+        }
+        logger.debug("Correcting {} to {} bytes in {} files", row, actual.getBytes(), actual.getFiles());
+        row.setUsedBytes(actual.getBytes());
+        row.setFileCount(actual.getFiles());
+        return true;
+    }
+
+    private void check(Key key, long bytes) {
+        long limit = limitFor(key.scope());
+        if (usage(key).bytes.sum() + bytes > limit) {
+            metricsService.incrementStorageQuotaRejected(key.scope().name());
+            throw new StorageQuotaExceededException(key.scope(), limit);
+        }
+    }
+
+    private void chargeRow(Key key, long bytes) {
+        long limit = quota.isEnabled() ? limitFor(key.scope()) : Long.MAX_VALUE;
+        if (storageUsageRepository.charge(key.scope(), key.ownerId(), bytes, limit) == 1) {
+            return;
+        }
+        // Either the row doesn't exist yet or the charge would go over the limit
+        if (!storageUsageRepository.existsById(key)) {
+            loadRow(key);
+            if (storageUsageRepository.charge(key.scope(), key.ownerId(), bytes, limit) == 1) {
+                return;
+            }
+        }
+        metricsService.incrementStorageQuotaRejected(key.scope().name());
+        throw new StorageQuotaExceededException(key.scope(), limit);
+    }
+
+    private Usage usage(Key key) {
+        Usage usage = cachedUsage.get(key);
+        if (usage != null) {
+            return usage;
+        }
+        StorageUsage row = loadRow(key);
+        Usage loaded = new Usage(row.getUsedBytes(), row.getFileCount());
+        Usage existing = cachedUsage.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Committed on its own so the row is visible to other uploads straight away
+    private StorageUsage loadRow(Key key) {
+        try {
+            return newTransaction.execute(status -> storageUsageRepository.findById(key)
+                    .orElseGet(() -> {
+                        UsageTotals totals = countUsage(key);
+                        // Not save(), which would merge over a row created meanwhile instead of failing
+                        storageUsageRepository.create(key.scope().name(), key.ownerId(), totals.getBytes(), totals.getFiles());
+                        return new StorageUsage(key.scope(), key.ownerId(), totals.getBytes(), totals.getFiles());
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent upload
+            return storageUsageRepository.findById(key).orElseThrow();
+        }
+    }
+
+    private UsageTotals countUsage(Key key) {
+        return key.scope() == Scope.USER
+                ? taskAttachmentRepository.sumUsageByUploaderId(key.ownerId())
+                : taskAttachmentRepository.sumUsageByTaskId(key.ownerId());
+    }
+
+    // Only totals already in memory are adjusted; anything else is read fresh when next needed
+    private void adjustCached(Key key, long bytes, long files) {
+        Usage usage = cachedUsage.get(key);
+        if (usage != null) {
+            usage.bytes.add(bytes);
+            usage.files.add(files);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private long limitFor(Scope scope) {
+        return scope == Scope.USER ? quota.getPerUser().toBytes() : quota.getPerTask().toBytes();
+    }
+
+    /**
+     * In-memory totals. Uploads add to these from many threads at once, which
+     * LongAdder's striped cells absorb without contending on a single value.
+     */
+    private static final class Usage {
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder files = new LongAdder();
+
+        Usage(long bytes, long files) {
+            this.bytes.add(bytes);
+            this.files.add(files);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.projects.taskmanager.service;
+
+import com.projects.taskmanager.config.StorageProperties;
+import com.projects.taskmanager.model.StoredBlob;
+import com.projects.taskmanager.observability.MetricsService;
+import com.projects.taskmanager.repository.StoredBlobRepository;
+import com.projects.taskmanager.repository.UserRepository;
+import com.projects.taskmanager.storage.BlobStore;
+import com.projects.taskmanager.storage.ContentAddressedStorage;
+import com.projects.taskmanager.storage.HotFileCache;
+import com.projects.taskmanager.storage.ImageVariantService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Finds and deletes stored files that nothing references any more: blobs
+ * whose attachments were removed by task cascades, replaced avatars, image
+ * variants of either, and temp files left by interrupted uploads.
+ *
+ * The blob store listing and the known content hashes are walked side by
+ * side in ascending order, a page at a time. The avatar and variant
+ * directories are read in batches, with one lookup query per batch. Memory
+ * use is bounded by the batch size however many files are stored. Files
+ * younger than the grace period are never touched, so content whose
+ * database rows haven't committed yet is safe.
+ */
+@Service
+public class StorageReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageReconciliationService.class);
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final UserRepository userRepository;
+    private final ContentAddressedStorage contentAddressedStorage;
+    private final AvatarService avatarService;
+    private final ImageVariantService imageVariantService;
+    private final HotFileCache hotFileCache;
+    private final MetricsService metricsService;
+    private final StorageProperties storageProperties;
+
+    @Value("${uploads.session-ttl:PT24H}")
+    private Duration uploadSessionTtl;
+
+    public StorageReconciliationService(StoredBlobRepository storedBlobRepository,
+                                        UserRepository userRepository,
+                                        ContentAddressedStorage contentAddressedStorage,
+                                        AvatarService avatarService,
+                                        ImageVariantService imageVariantService,
+                                        HotFileCache hotFileCache,
+                                        MetricsService metricsService,
+                                        StorageProperties storageProperties) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.userRepository = userRepository;
+        this.contentAddressedStorage = contentAddressedStorage;
+        this.avatarService = avatarService;
+        this.imageVariantService = imageVariantService;
+        this.hotFileCache = hotFileCache;
+        this.metricsService = metricsService;
+        this.storageProperties = storageProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${storage.reconcile.interval:PT6H}", initialDelayString = "${storage.reconcile.initial-delay:PT10M}")
+    public void scheduledReconcile() {
+        if (!storageProperties.getReconcile().isEnabled()) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Storage reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Run one reconciliation pass over every kind of stored file.
+     * @return the number of bytes reclaimed
+     */
+    public long reconcile() throws IOException {
+        long startedAt = System.nanoTime();
+        Instant cutoff = Instant.now().minus(storageProperties.getReconcile().getGracePeriod());
+
+        Tally blobs = new Tally("blob");
+        reclaimUnattachedBlobs(cutoff, blobs);
+        sweepBlobStore(cutoff, blobs);
+
+        Tally avatars = new Tally("avatar");
+        sweepDirectory(avatarService.getAvatarDir(), 0, cutoff,
+            name -> name.startsWith("avatar_") ? name : null,
+            this::findLiveAvatars,
+            filename -> hotFileCache.invalidateMatching(filename),
+            avatars);
+
+        Tally variants = new Tally("variant");
+        // Variants sit two shard directories down, ab/cd/<key>-<variant>
+        sweepDirectory(imageVariantService.getVariantRoot(), 2, cutoff,
+            ImageVariantService::keyOf,
+            this::findLiveVariantKeys,
+            key -> hotFileCache.invalidateMatching(key),
+            variants);
+
+        // An upload session keeps its temp file alive for as long as it is in use
+        Tally tempFiles = new Tally("temp");
+        Duration tempGrace = uploadSessionTtl.compareTo(storageProperties.getReconcile().getGracePeriod()) > 0
+            ? uploadSessionTtl : storageProperties.getReconcile().getGracePeriod();
+        sweepDirectory(Paths.get(storageProperties.getTempDir()), 0, Instant.now().minus(tempGrace),
+            name -> name.endsWith(".part") ? name : null,
+            keys -> Set.of(),
+            key -> { },
+            tempFiles);
+
+        long reclaimed = 0;
+        for (Tally tally : List.of(blobs, avatars, variants, tempFiles)) {
+            metricsService.recordStorageReclaimed(tally.kind, tally.files, tally.bytes);
+            reclaimed += tally.bytes;
+        }
+        logger.info("Storage reconciliation reclaimed {} bytes in {} ms ({}, {}, {}, {})",
+            reclaimed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), blobs, avatars, variants, tempFiles);
+        return reclaimed;
+    }
+
+    /**
+     * Remove blob rows that no attachment points to. Deleting a task cascades
+     * its attachment rows without releasing their blobs.
+     */
+    private void reclaimUnattachedBlobs(Instant cutoff, Tally tally) throws IOException {
+        long afterId = 0;
+        List<StoredBlob> batch;
+        do {
+            batch = storedBlobRepository.findUnattachedCreatedBefore(afterId, cutoff, batchRequest());
+            for (StoredBlob blob : batch) {
+                afterId = blob.getId();
+                if (contentAddressedStorage.reclaim(blob)) {
+                    hotFileCache.invalidateMatching(blob.getContentHash());
+                    tally.add(blob.getStoredSize());
+                }
+            }
+        } while (!batch.isEmpty());
+    }
+
+    /**
+     * Delete stored content that has no blob row, merging the sorted store
+     * listing with the sorted content hashes.
+     */
+    private void sweepBlobStore(Instant cutoff, Tally tally) throws IOException {
+        BlobStore blobStore = contentAddressedStorage.getBlobStore();
+        KnownHashes knownHashes = new KnownHashes();
+
+        try (Stream<BlobStore.Entry> entries = blobStore.list()) {
+            Iterator<BlobStore.Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                BlobStore.Entry entry = iterator.next();
+                if (!entry.lastModified().isBefore(cutoff) || knownHashes.contains(entry.key())) {
+                    continue;
+                }
+                // Confirm before deleting, in case the database collates keys differently from the store
+                if (storedBlobRepository.findByContentHash(entry.key()).isPresent()) {
+                    continue;
+                }
+                blobStore.delete(entry.key());
+                tally.add(entry.size());
+            }
+        }
+    }
+
+    /**
+     * Delete files in a directory whose key is no longer referenced.
+     * @param shardDepth levels of shard directories between the directory and its files
+     * @param keyOf maps a file name to the key it is stored under, or null to leave the file alone
+     * @param findLive returns the keys of a batch that are still referenced
+     */
+    private void sweepDirectory(Path dir, int shardDepth, Instant cutoff, Function<String, String> keyOf,
+                                Function<Set<String>, Set<String>> findLive, Consumer<String> onDeleted,
+                                Tally tally) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+
+        List<Path> dirs = List.of(dir);
+        for (int level = 0; level < shardDepth; level++) {
+            List<Path> shards = new ArrayList<>();
+            for (Path parent : dirs) {
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(parent, Files::isDirectory)) {
+                    children.forEach(shards::add);
+                }
+            }
+            dirs = shards;
+        }
+
+        int batchSize = storageProperties.getReconcile().getBatchSize();
+        List<Candidate> batch = new ArrayList<>(batchSize);
+        for (Path leaf : dirs) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(leaf)) {
+                for (Path file : files) {
+                    String key = keyOf.apply(file.getFileName().toString());
+                    if (key == null) {
+                        continue;
+                    }
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        // Deleted while listing
+                        continue;
+                    }
+                    if (!attributes.isRegularFile() || !attributes.lastModifiedTime().toInstant().isBefore(cutoff)) {
+                        continue;
+                    }
+
+                    batch.add(new Candidate(file, key, attributes.size()));
+                    if (batch.size() == batchSize) {
+                        deleteOrphans(batch, findLive, onDeleted, tally);
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        deleteOrphans(batch, findLive, onDeleted, tally);
+    }
+
+    private void deleteOrphans(List<Candidate> batch, Function<Set<String>, Set<String>> findLive,
+                               Consumer<String> onDeleted, Tally tally) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Set<String> keys = new HashSet<>();
+        for (Candidate candidate : batch) {
+            keys.add(candidate.key());
+        }
+        Set<String> live = findLive.apply(keys);
+
+        for (Candidate candidate : batch) {
+            if (!live.contains(candidate.key()) && Files.deleteIfExists(candidate.file())) {
+                onDeleted.accept(candidate.key());
+                tally.add(candidate.size());
+            }
+        }
+    }
+
+    private Set<String> findLiveAvatars(Set<String> filenames) {
+        Map<String, String> filenamesByUrl = new HashMap<>();
+        for (String filename : filenames) {
+            filenamesByUrl.put(avatarService.avatarUrlFor(filename), filename);
+        }
+
+        Set<String> live = new HashSet<>();
+        for (String avatarUrl : userRepository.findAvatarUrlsIn(filenamesByUrl.keySet())) {
+            live.add(filenamesByUrl.get(avatarUrl));
+        }
+        return live;
+    }
+
+    // Variants are keyed by avatar filename or by attachment content hash
+    private Set<String> findLiveVariantKeys(Set<String> keys) {
+        Set<String> avatarKeys = new HashSet<>();
+        Set<String> contentHashes = new HashSet<>();
+        for (String key : keys) {
+            (key.startsWith("avatar_") ? avatarKeys : contentHashes).add(key);
+        }
+
+        Set<String> live = new HashSet<>();
+        if (!avatarKeys.isEmpty()) {
+            live.addAll(findLiveAvatars(avatarKeys));
+        }
+        if (!contentHashes.isEmpty()) {
+            live.addAll(storedBlobRepository.findContentHashesIn(contentHashes));
+        }
+        return live;
+    }
+
+    private PageRequest batchRequest() {
+        return PageRequest.of(0, storageProperties.getReconcile().getBatchSize());
+    }
+
+    /**
+     * Cursor over all stored content hashes in ascending order, fetched a page at a time.
+     * Lookups must be made in ascending key order.
+     */
+    private class KnownHashes {
+        private List<String> page = List.of();
+        private int index;
+        private boolean lastPage;
+
+        boolean contains(String key) {
+            while (true) {
+                if (index == page.size()) {
+                    if (lastPage) {
+                        return false;
+                    }
+                    String after = page.isEmpty() ? "" : page.get(page.size() - 1);
+                    page = storedBlobRepository.findContentHashesAfter(after, batchRequest());
+                    index = 0;
+                    lastPage = page.size() < storageProperties.getReconcile().getBatchSize();
+                    continue;
+                }
+
+                int comparison = page.get(index).compareTo(key);
+                if (comparison == 0) {
+                    return true;
+                }
+                if (comparison > 0) {
+                    return false;
+                }
+                index++;
+            }
+        }
+    }
+
+    private record Candidate(Path file, String key, long size) {
+    }
+
+    private static final class Tally {
+        private final String kind;
+        private long files;
+        private long bytes;
+
+        Tally(String kind) {
+            this.kind = kind;
+        }
+
+        void add(long size) {
+            files++;
+            bytes += size;
+        }
+
+        @Override
+        public String toString() {
+            return kind + ": " + files + " files/" + bytes + " bytes";
+        }
+    }
+}
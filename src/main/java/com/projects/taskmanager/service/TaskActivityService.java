@@ -1,34 +1,71 @@
 package com.projects.taskmanager.service;
 
+import com.projects.taskmanager.graphql.ActivityPage;
 import com.projects.taskmanager.model.TaskActivity;
 import com.projects.taskmanager.model.Task;
 import com.projects.taskmanager.model.User;
 import com.projects.taskmanager.model.ActivityType;
+import com.projects.taskmanager.observability.jfr.ActivityWriteEvent;
 import com.projects.taskmanager.repository.TaskActivityRepository;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 
 @Service
 @Transactional
 public class TaskActivityService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final TaskActivityRepository taskActivityRepository;
+    private final TaskSummaryService taskSummaryService;
+    private final ObservationRegistry observationRegistry;
     
-    public TaskActivityService(TaskActivityRepository taskActivityRepository) {
+    public TaskActivityService(TaskActivityRepository taskActivityRepository, TaskSummaryService taskSummaryService,
+                               ObservationRegistry observationRegistry) {
         this.taskActivityRepository = taskActivityRepository;
+        this.taskSummaryService = taskSummaryService;
+        this.observationRegistry = observationRegistry;
     }
     
     public TaskActivity logActivity(Task task, User user, ActivityType activityType, String description) {
         TaskActivity activity = new TaskActivity(task, user, activityType, description);
-        return taskActivityRepository.save(activity);
+        return record(activity);
     }
     
     public TaskActivity logActivity(Task task, User user, ActivityType activityType, String description, String oldValue, String newValue) {
         TaskActivity activity = new TaskActivity(task, user, activityType, description, oldValue, newValue);
-        return taskActivityRepository.save(activity);
+        return record(activity);
+    }
+    
+    private TaskActivity record(TaskActivity activity) {
+        ActivityWriteEvent event = new ActivityWriteEvent();
+        event.begin();
+        TaskActivity saved = Observation.createNotStarted("task.activity.write", observationRegistry)
+                .lowCardinalityKeyValue("activity.type", activity.getActivityType().name())
+                .observe(() -> {
+                    TaskActivity inserted = taskActivityRepository.save(activity);
+                    taskSummaryService.activityLogged(inserted.getTask().getId(), inserted.getCreatedAt());
+                    return inserted;
+                });
+        event.end();
+        if (event.shouldCommit()) {
+            event.setTaskId(saved.getTask().getId());
+            event.setActivityType(saved.getActivityType().name());
+            event.commit();
+        }
+        return saved;
     }
     
     @Transactional(readOnly = true)
@@ -36,9 +73,41 @@ public class TaskActivityService {
         return taskActivityRepository.findByTaskIdOrderByCreatedAtDesc(taskId);
     }
     
+    /**
+     * Get a page of a task's activity, newest first.
+     * @param types activity types to include, or null/empty for all
+     * @param after endCursor of the previous page (optional)
+     */
     @Transactional(readOnly = true)
-    public List<TaskActivity> getRecentActivitiesByTaskId(Long taskId) {
-        return taskActivityRepository.findRecentActivitiesByTaskId(taskId);
+    public ActivityPage getActivityFeed(Long taskId, Collection<ActivityType> types, int first, String after) {
+        PageRequest limit = pageLimit(first);
+        Collection<ActivityType> included = typesOrAll(types);
+        List<TaskActivity> rows;
+        if (after == null) {
+            rows = taskActivityRepository.findFeedByTaskId(taskId, included, limit);
+        } else {
+            Cursor cursor = Cursor.decode(after);
+            rows = taskActivityRepository.findFeedByTaskIdBefore(taskId, included, cursor.createdAt(), cursor.id(), limit);
+        }
+        return toPage(rows, first);
+    }
+    
+    /**
+     * Get a page of activity across all tasks, newest first.
+     * @see #getActivityFeed
+     */
+    @Transactional(readOnly = true)
+    public ActivityPage getGlobalActivityFeed(Collection<ActivityType> types, int first, String after) {
+        PageRequest limit = pageLimit(first);
+        Collection<ActivityType> included = typesOrAll(types);
+        List<TaskActivity> rows;
+        if (after == null) {
+            rows = taskActivityRepository.findFeed(included, limit);
+        } else {
+            Cursor cursor = Cursor.decode(after);
+            rows = taskActivityRepository.findFeedBefore(included, cursor.createdAt(), cursor.id(), limit);
+        }
+        return toPage(rows, first);
     }
     
     @Transactional(readOnly = true)
@@ -50,4 +119,45 @@ public class TaskActivityService {
     public long getActivityCountByTaskId(Long taskId) {
         return taskActivityRepository.countByTaskId(taskId);
     }
+    
+    // One extra row tells us whether there is another page
+    private PageRequest pageLimit(int first) {
+        if (first <= 0 || first > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("first must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(0, first + 1);
+    }
+    
+    private Collection<ActivityType> typesOrAll(Collection<ActivityType> types) {
+        return types == null || types.isEmpty() ? EnumSet.allOf(ActivityType.class) : types;
+    }
+    
+    private ActivityPage toPage(List<TaskActivity> rows, int first) {
+        boolean hasNextPage = rows.size() > first;
+        List<TaskActivity> content = hasNextPage ? rows.subList(0, first) : rows;
+        String endCursor = content.isEmpty() ? null : Cursor.encode(content.get(content.size() - 1));
+        return new ActivityPage(content, endCursor, hasNextPage);
+    }
+    
+    /**
+     * Position in a feed: the creation time and id of the last activity seen.
+     * Opaque to clients.
+     */
+    private record Cursor(Instant createdAt, Long id) {
+        
+        static String encode(TaskActivity activity) {
+            String raw = activity.getCreatedAt() + "_" + activity.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('_');
+                return new Cursor(Instant.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
 }
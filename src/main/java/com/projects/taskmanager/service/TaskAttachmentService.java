@@ -4,9 +4,13 @@ import com.projects.taskmanager.model.TaskAttachment;
 import com.projects.taskmanager.model.Task;
 import com.projects.taskmanager.model.User;
 import com.projects.taskmanager.model.ActivityType;
+import com.projects.taskmanager.model.StoredBlob;
 import com.projects.taskmanager.repository.TaskAttachmentRepository;
 import com.projects.taskmanager.repository.TaskRepository;
 import com.projects.taskmanager.observability.MetricsService;
+import com.projects.taskmanager.storage.ContentAddressedStorage;
+import com.projects.taskmanager.storage.HotFileCache;
+import com.projects.taskmanager.storage.ImageVariantService;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,13 +18,17 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @Transactional
@@ -30,9 +38,13 @@ public class TaskAttachmentService {
     private final TaskRepository taskRepository;
     private final TaskActivityService taskActivityService;
     private final MetricsService metricsService;
+    private final ContentAddressedStorage contentAddressedStorage;
+    private final ImageVariantService imageVariantService;
+    private final HotFileCache hotFileCache;
+    private final StorageQuotaService storageQuotaService;
+    private final TaskSummaryService taskSummaryService;
     
     // Configuration for file uploads
-    private static final String UPLOAD_DIR = "uploads/attachments";
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
     private static final List<String> ALLOWED_IMAGE_TYPES = List.of(
         "image/jpeg", "image/png", "image/gif", "image/webp"
@@ -45,11 +57,21 @@ public class TaskAttachmentService {
     public TaskAttachmentService(TaskAttachmentRepository taskAttachmentRepository,
                                TaskRepository taskRepository,
                                TaskActivityService taskActivityService,
-                               MetricsService metricsService) {
+                               MetricsService metricsService,
+                               ContentAddressedStorage contentAddressedStorage,
+                               ImageVariantService imageVariantService,
+                               HotFileCache hotFileCache,
+                               StorageQuotaService storageQuotaService,
+                               TaskSummaryService taskSummaryService) {
         this.taskAttachmentRepository = taskAttachmentRepository;
         this.taskRepository = taskRepository;
         this.taskActivityService = taskActivityService;
         this.metricsService = metricsService;
+        this.contentAddressedStorage = contentAddressedStorage;
+        this.imageVariantService = imageVariantService;
+        this.hotFileCache = hotFileCache;
+        this.storageQuotaService = storageQuotaService;
+        this.taskSummaryService = taskSummaryService;
     }
     
     @PreAuthorize("hasRole('USER')")
@@ -58,39 +80,59 @@ public class TaskAttachmentService {
             .orElseThrow(() -> new RuntimeException("Task not found with id: " + taskId));
         
         // Validate file
-        validateFile(file);
+        validateUpload(file.getContentType(), file.getSize());
+        storageQuotaService.checkQuota(uploader.getId(), taskId, file.getSize());
         
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(UPLOAD_DIR);
-        if (!Files.exists(uploadPath)) {
-            try {
-                Files.createDirectories(uploadPath);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to create upload directory: " + e.getMessage(), e);
-            }
+        // Store content once per distinct hash
+        StoredBlob blob;
+        try (InputStream in = file.getInputStream()) {
+            blob = contentAddressedStorage.store(in, file.getContentType());
         }
         
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFilename);
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-        Path filePath = uploadPath.resolve(uniqueFilename);
+        return createAttachment(task, blob, file.getOriginalFilename(), file.getContentType(), file.getSize(), description, uploader);
+    }
+    
+    /**
+     * Create an attachment from a file that was already written and hashed,
+     * such as a completed chunked upload. The file is moved into blob storage.
+     */
+    @PreAuthorize("hasRole('USER')")
+    public TaskAttachment attachStoredFile(Long taskId, Path file, String contentHash, long size,
+                                           String originalFilename, String contentType,
+                                           String description, User uploader) throws IOException {
+        Task task = taskRepository.findById(taskId)
+            .orElseThrow(() -> new RuntimeException("Task not found with id: " + taskId));
         
-        // Save file
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        validateUpload(contentType, size);
+        storageQuotaService.checkQuota(uploader.getId(), taskId, size);
         
+        StoredBlob blob = contentAddressedStorage.commit(file, contentHash, size, contentType);
+        return createAttachment(task, blob, originalFilename, contentType, size, description, uploader);
+    }
+    
+    private TaskAttachment createAttachment(Task task, StoredBlob blob, String originalFilename, String contentType,
+                                            long size, String description, User uploader) {
         // Create attachment record
         TaskAttachment attachment = new TaskAttachment();
         attachment.setTask(task);
         attachment.setUploader(uploader);
-        attachment.setFilename(uniqueFilename);
+        attachment.setFilename(blob.getContentHash() + getFileExtension(originalFilename));
         attachment.setOriginalFilename(originalFilename);
-        attachment.setContentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream");
-        attachment.setFileSize(file.getSize());
-        attachment.setFilePath(filePath.toString());
+        attachment.setContentType(contentType != null ? contentType : "application/octet-stream");
+        attachment.setFileSize(size);
+        attachment.setFilePath(blob.getStoragePath());
+        attachment.setContentHash(blob.getContentHash());
+        attachment.setBlob(blob);
         attachment.setDescription(description);
         
+        storageQuotaService.charge(uploader.getId(), task.getId(), size);
         TaskAttachment savedAttachment = taskAttachmentRepository.save(attachment);
+        taskSummaryService.attachmentAdded(task.getId(), attachment.isImage());
+        
+        // Thumbnails are shared by every attachment of the same content
+        if (attachment.isImage()) {
+            imageVariantService.requestVariants(blob.getContentHash(), () -> contentAddressedStorage.open(blob));
+        }
         
         // Log activity
         String activityDescription = "Uploaded attachment: " + originalFilename;
@@ -118,12 +160,24 @@ public class TaskAttachmentService {
         String filename = attachment.getOriginalFilename();
         
         try {
-            // Delete file from filesystem
-            Path filePath = Paths.get(attachment.getFilePath());
-            Files.deleteIfExists(filePath);
+            storageQuotaService.refund(attachment.getUploader().getId(), task.getId(), attachment.getFileSize());
             
-            // Delete database record
+            // Delete database record first so the blob is no longer referenced
             taskAttachmentRepository.delete(attachment);
+            taskAttachmentRepository.flush();
+            taskSummaryService.attachmentRemoved(task.getId(), attachment.isImage());
+            
+            // Release shared content, which reconciliation reclaims with its variants once unused,
+            // or delete the file of a pre-deduplication attachment
+            if (attachment.getBlob() != null) {
+                contentAddressedStorage.release(attachment.getBlob());
+            } else {
+                Files.deleteIfExists(Paths.get(attachment.getFilePath()));
+                if (attachment.getContentHash() != null) {
+                    imageVariantService.deleteVariants(attachment.getContentHash());
+                    hotFileCache.invalidateMatching(attachment.getContentHash());
+                }
+            }
             
             // Log activity
             taskActivityService.logActivity(task, user, ActivityType.ATTACHMENT_DELETED, 
@@ -167,16 +221,47 @@ public class TaskAttachmentService {
         return taskAttachmentRepository.countByTaskIdAndContentTypeStartingWith(taskId, "image/");
     }
     
-    private void validateFile(MultipartFile file) {
-        if (file.isEmpty()) {
+    /**
+     * Get the content hash of an attachment, computing and storing it for
+     * attachments uploaded before hashes were recorded.
+     */
+    public String resolveContentHash(TaskAttachment attachment) throws IOException {
+        if (attachment.getContentHash() != null) {
+            return attachment.getContentHash();
+        }
+        if (attachment.getBlob() != null) {
+            return attachment.getBlob().getContentHash();
+        }
+        MessageDigest digest = newContentDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(Paths.get(attachment.getFilePath())), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        attachment.setContentHash(HexFormat.of().formatHex(digest.digest()));
+        taskAttachmentRepository.save(attachment);
+        return attachment.getContentHash();
+    }
+    
+    private MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Check an upload's declared type and size against the attachment limits.
+     * Called before any bytes are accepted, for both multipart and chunked uploads.
+     */
+    public void validateUpload(String contentType, long size) {
+        if (size <= 0) {
             throw new RuntimeException("File is empty");
         }
         
-        if (file.getSize() > MAX_FILE_SIZE) {
+        if (size > MAX_FILE_SIZE) {
             throw new RuntimeException("File size exceeds maximum allowed size of " + (MAX_FILE_SIZE / 1024 / 1024) + "MB");
         }
         
-        String contentType = file.getContentType();
         if (contentType == null || (!ALLOWED_IMAGE_TYPES.contains(contentType) && !ALLOWED_DOCUMENT_TYPES.contains(contentType))) {
             throw new RuntimeException("File type not allowed. Allowed types: images (JPEG, PNG, GIF, WebP) and documents (PDF, TXT, DOC, DOCX)");
         }
@@ -9,32 +9,48 @@ import com.projects.taskmanager.repository.TaskRepository;
 import com.projects.taskmanager.repository.UserRepository;
 import com.projects.taskmanager.graphql.input.CreateTaskCommentInput;
 import com.projects.taskmanager.graphql.input.UpdateTaskCommentInput;
+import com.projects.taskmanager.graphql.CommentThread;
+import com.projects.taskmanager.graphql.CommentThreadPage;
 import com.projects.taskmanager.observability.MetricsService;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class TaskCommentService {
     
+    private static final Logger logger = LoggerFactory.getLogger(TaskCommentService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final TaskCommentRepository taskCommentRepository;
     private final TaskRepository taskRepository;
     private final TaskActivityService taskActivityService;
     private final MetricsService metricsService;
+    private final TaskSummaryService taskSummaryService;
     
     public TaskCommentService(TaskCommentRepository taskCommentRepository, 
                             TaskRepository taskRepository,
                             TaskActivityService taskActivityService,
-                            MetricsService metricsService) {
+                            MetricsService metricsService,
+                            TaskSummaryService taskSummaryService) {
         this.taskCommentRepository = taskCommentRepository;
         this.taskRepository = taskRepository;
         this.taskActivityService = taskActivityService;
         this.metricsService = metricsService;
+        this.taskSummaryService = taskSummaryService;
     }
     
     @PreAuthorize("hasRole('USER')")
@@ -51,10 +67,20 @@ public class TaskCommentService {
         if (input.getParentCommentId() != null) {
             TaskComment parentComment = taskCommentRepository.findById(input.getParentCommentId())
                 .orElseThrow(() -> new RuntimeException("Parent comment not found with id: " + input.getParentCommentId()));
+            if (!parentComment.getTask().getId().equals(task.getId())) {
+                throw new IllegalArgumentException("Parent comment belongs to a different task");
+            }
+            if (parentComment.getDepth() + 1 > TaskComment.MAX_DEPTH) {
+                throw new IllegalArgumentException("Replies can't be nested more than " + TaskComment.MAX_DEPTH + " deep");
+            }
             comment.setParentComment(parentComment);
+            comment.setPath(parentComment.getChildPath());
+        } else {
+            comment.setPath(TaskComment.ROOT_PATH);
         }
         
         TaskComment savedComment = taskCommentRepository.save(comment);
+        taskSummaryService.commentsAdded(task.getId(), 1);
         
         // Log activity
         taskActivityService.logActivity(task, author, ActivityType.COMMENT_ADDED, 
@@ -100,13 +126,9 @@ public class TaskCommentService {
         
         Task task = comment.getTask();
         
-        // Delete child comments first
-        List<TaskComment> childComments = taskCommentRepository.findByParentCommentIdOrderByCreatedAtAsc(commentId);
-        for (TaskComment child : childComments) {
-            taskCommentRepository.delete(child);
-        }
-        
-        taskCommentRepository.delete(comment);
+        // Replies at every depth go with it
+        int deleted = taskCommentRepository.deleteSubtree(task.getId(), commentId, comment.getChildPath());
+        taskSummaryService.commentsAdded(task.getId(), -deleted);
         
         // Log activity
         taskActivityService.logActivity(task, user, ActivityType.COMMENT_DELETED, 
@@ -122,6 +144,54 @@ public class TaskCommentService {
         return taskCommentRepository.findByTaskIdOrderByCreatedAtAsc(taskId);
     }
     
+    /**
+     * Get a page of a task's threads, each top-level comment with all of its
+     * replies. Loads the page's top-level comments and then every reply under
+     * them in a single range query on the path, and builds the trees in memory.
+     * @param after id of the last top-level comment on the previous page (optional)
+     */
+    @Transactional(readOnly = true)
+    public CommentThreadPage getCommentThread(Long taskId, int first, Long after) {
+        if (first <= 0 || first > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("first must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        List<TaskComment> roots = taskCommentRepository.findThreadRoots(taskId, after != null ? after : 0L,
+                PageRequest.of(0, first + 1));
+        boolean hasNextPage = roots.size() > first;
+        if (hasNextPage) {
+            roots = roots.subList(0, first);
+        }
+        if (roots.isEmpty()) {
+            return new CommentThreadPage(List.of(), null, false);
+        }
+        
+        // The page's roots are consecutive, so their subtrees share one contiguous run of paths
+        Long lastRootId = roots.get(roots.size() - 1).getId();
+        List<TaskComment> replies = taskCommentRepository.findRepliesInPathRange(taskId,
+                roots.get(0).getChildPath(), TaskComment.childPath(TaskComment.ROOT_PATH, lastRootId + 1));
+        
+        Map<Long, CommentThread> threads = new HashMap<>();
+        List<CommentThread> content = new ArrayList<>(roots.size());
+        for (TaskComment root : roots) {
+            CommentThread thread = new CommentThread(root);
+            threads.put(root.getId(), thread);
+            content.add(thread);
+        }
+        for (TaskComment reply : replies) {
+            threads.put(reply.getId(), new CommentThread(reply));
+        }
+        // Replies come oldest first, so each list of replies ends up in the order they were written
+        for (TaskComment reply : replies) {
+            CommentThread parent = threads.get(reply.getParentComment().getId());
+            if (parent != null) {
+                parent.getReplies().add(threads.get(reply.getId()));
+            }
+        }
+        
+        return new CommentThreadPage(content, lastRootId, hasNextPage);
+    }
+    
     @Transactional(readOnly = true)
     public List<TaskComment> getTopLevelCommentsByTaskId(Long taskId) {
         return taskCommentRepository.findTopLevelCommentsByTaskId(taskId);
@@ -141,4 +211,19 @@ public class TaskCommentService {
     public long getCommentCountByTaskId(Long taskId) {
         return taskCommentRepository.countByTaskId(taskId);
     }
+    
+    /**
+     * Give comments written before paths were kept a path, one thread level per statement.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPaths() {
+        int updated = taskCommentRepository.backfillRootPaths();
+        int level;
+        while ((level = taskCommentRepository.backfillReplyPaths()) > 0) {
+            updated += level;
+        }
+        if (updated > 0) {
+            logger.info("Backfilled thread paths of {} comments", updated);
+        }
+    }
 }
@@ -34,17 +34,19 @@ public class TaskService {
     private final TextNormalizer textNormalizer;
     private final WebSocketNotificationService notificationService;
     private final TaskActivityService taskActivityService;
+    private final StorageQuotaService storageQuotaService;
 
     /**
      * Constructor for TaskService.
      * @param taskRepository the repository to use for task operations
      */
-    public TaskService(TaskRepository taskRepository, TaskProperties taskProperties, TextNormalizer textNormalizer, WebSocketNotificationService notificationService, TaskActivityService taskActivityService) {
+    public TaskService(TaskRepository taskRepository, TaskProperties taskProperties, TextNormalizer textNormalizer, WebSocketNotificationService notificationService, TaskActivityService taskActivityService, StorageQuotaService storageQuotaService) {
         this.taskRepository = taskRepository;
         this.taskProperties = taskProperties;
         this.textNormalizer = textNormalizer;
         this.notificationService = notificationService;
         this.taskActivityService = taskActivityService;
+        this.storageQuotaService = storageQuotaService;
     }
 
     /**
@@ -102,7 +104,7 @@ public class TaskService {
      */
     public boolean deleteTask(Long id) {
         if (taskRepository.existsById(id)) {
-            taskRepository.deleteById(id);
+            storageQuotaService.refundDeletedTask(id, () -> taskRepository.deleteById(id));
             
             // Send WebSocket notification
             notificationService.notifyTaskDeleted(id);
@@ -365,7 +367,7 @@ public class TaskService {
         for (Long taskId : taskIds) {
             try {
                 if (taskRepository.existsById(taskId)) {
-                    taskRepository.deleteById(taskId);
+                    storageQuotaService.refundDeletedTask(taskId, () -> taskRepository.deleteById(taskId));
                     deletedCount++;
                 } else {
                     errors.add("Task not found: " + taskId);
@@ -0,0 +1,110 @@
+package com.projects.taskmanager.service;
+
+import com.projects.taskmanager.config.TaskProperties;
+import com.projects.taskmanager.graphql.TaskSummary;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.repository.TaskRepository.SummaryRow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attachment, comment and activity totals for task lists, loaded for a whole
+ * page of tasks at once.
+ *
+ * By default the totals are counted from the child tables in a single
+ * statement per page. With {@code task.summary-counters} on they are read from
+ * counter columns on the task instead, which the services adjust in the same
+ * transaction as each insert or delete. Counters start out null and a task is
+ * counted the first time it is summarised.
+ */
+@Service
+@Transactional
+public class TaskSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSummaryService.class);
+
+    private final TaskRepository taskRepository;
+    private final boolean useCounters;
+
+    public TaskSummaryService(TaskRepository taskRepository, TaskProperties taskProperties) {
+        this.taskRepository = taskRepository;
+        this.useCounters = taskProperties.isSummaryCounters();
+    }
+
+    /**
+     * Counters aren't maintained while they are switched off, so forget any
+     * that are left over rather than trust stale totals if they are turned
+     * back on.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void clearStaleCounters() {
+        if (!useCounters) {
+            int cleared = taskRepository.clearSummaryCounters();
+            if (cleared > 0) {
+                logger.info("Cleared summary counters of {} tasks", cleared);
+            }
+        }
+    }
+
+    public Map<Long, TaskSummary> getSummaries(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Map.of();
+        }
+
+        List<SummaryRow> rows;
+        if (useCounters) {
+            if (!taskRepository.lockUncounted(taskIds).isEmpty()) {
+                taskRepository.countSummaries(taskIds);
+            }
+            rows = taskRepository.findSummaryCounters(taskIds);
+        } else {
+            rows = taskRepository.summarize(taskIds);
+        }
+
+        Map<Long, TaskSummary> summaries = new HashMap<>();
+        for (SummaryRow row : rows) {
+            summaries.put(row.getTaskId(), new TaskSummary(valueOf(row.getAttachmentCount()), valueOf(row.getImageCount()),
+                valueOf(row.getCommentCount()), valueOf(row.getActivityCount()), row.getLastActivityAt()));
+        }
+        return summaries;
+    }
+
+    public void attachmentAdded(Long taskId, boolean image) {
+        if (useCounters) {
+            taskRepository.adjustAttachmentCount(taskId, 1, image ? 1 : 0);
+        }
+    }
+
+    public void attachmentRemoved(Long taskId, boolean image) {
+        if (useCounters) {
+            taskRepository.adjustAttachmentCount(taskId, -1, image ? -1 : 0);
+        }
+    }
+
+    public void commentsAdded(Long taskId, int count) {
+        if (useCounters) {
+            taskRepository.adjustCommentCount(taskId, count);
+        }
+    }
+
+    public void activityLogged(Long taskId, Instant at) {
+        if (useCounters) {
+            taskRepository.recordActivity(taskId, at != null ? at : Instant.now());
+        }
+    }
+
+    private int valueOf(Integer count) {
+        return count != null ? count : 0;
+    }
+}
@@ -13,6 +13,7 @@ import com.projects.taskmanager.repository.UserRepository;
 import com.projects.taskmanager.service.exception.TaskNotFoundException;
 import com.projects.taskmanager.service.exception.UserNotFoundException;
 import com.projects.taskmanager.graphql.BulkOperationResult;
+import com.projects.taskmanager.storage.HotFileCache;
 import java.util.ArrayList;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -26,6 +27,7 @@ public class UserService {
     private final TaskRepository taskRepository;
     private final WebSocketNotificationService notificationService;
     private final PasswordEncoder passwordEncoder;
+    private final HotFileCache hotFileCache;
 
     /**
      * Constructor for UserService.
@@ -34,11 +36,13 @@ public class UserService {
      * @param notificationService the notification service
      * @param passwordEncoder the password encoder
      */
-    public UserService(UserRepository userRepository, TaskRepository taskRepository, WebSocketNotificationService notificationService, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, TaskRepository taskRepository, WebSocketNotificationService notificationService,
+                       PasswordEncoder passwordEncoder, HotFileCache hotFileCache) {
         this.userRepository = userRepository;
         this.taskRepository = taskRepository;
         this.notificationService = notificationService;
         this.passwordEncoder = passwordEncoder;
+        this.hotFileCache = hotFileCache;
     }
 
     /**
@@ -297,6 +301,12 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
+        // Stop serving the previous avatar and its variants from memory
+        String previousAvatarUrl = user.getAvatarUrl();
+        if (previousAvatarUrl != null && !previousAvatarUrl.equals(avatarUrl)) {
+            hotFileCache.invalidateMatching(previousAvatarUrl.substring(previousAvatarUrl.lastIndexOf('/') + 1));
+        }
+
         user.setAvatarUrl(avatarUrl);
         return userRepository.save(user);
     }
@@ -1,20 +1,29 @@
 package com.projects.taskmanager.service;
 
+import com.projects.taskmanager.model.Notification;
 import com.projects.taskmanager.model.Task;
 import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.observability.jfr.NotificationSendEvent;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
 public class WebSocketNotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationInboxService notificationInboxService;
+    private final ObservationRegistry observationRegistry;
 
-    public WebSocketNotificationService(SimpMessagingTemplate messagingTemplate) {
+    public WebSocketNotificationService(SimpMessagingTemplate messagingTemplate, NotificationInboxService notificationInboxService,
+                                        ObservationRegistry observationRegistry) {
         this.messagingTemplate = messagingTemplate;
+        this.notificationInboxService = notificationInboxService;
+        this.observationRegistry = observationRegistry;
     }
 
     /**
@@ -22,7 +31,7 @@ public class WebSocketNotificationService {
      */
     public void notifyTaskCreated(Task task) {
         Map<String, Object> notification = createTaskNotification("TASK_CREATED", task);
-        messagingTemplate.convertAndSend("/topic/tasks", notification);
+        send("/topic/tasks", notification);
     }
 
     /**
@@ -30,47 +39,52 @@ public class WebSocketNotificationService {
      */
     public void notifyTaskUpdated(Task task) {
         Map<String, Object> notification = createTaskNotification("TASK_UPDATED", task);
-        messagingTemplate.convertAndSend("/topic/tasks", notification);
+        send("/topic/tasks", notification);
     }
 
     /**
      * Notify all users about a task deletion
      */
     public void notifyTaskDeleted(Long taskId) {
-        Map<String, Object> notification = new HashMap<>();
+        Map<String, Object> notification = new LinkedHashMap<>();
         notification.put("type", "TASK_DELETED");
         notification.put("taskId", taskId);
         notification.put("timestamp", System.currentTimeMillis());
         
-        messagingTemplate.convertAndSend("/topic/tasks", notification);
+        send("/topic/tasks", notification);
     }
 
     /**
      * Notify all users about bulk operations
      */
     public void notifyBulkOperation(String operationType, int count) {
-        Map<String, Object> notification = new HashMap<>();
+        Map<String, Object> notification = new LinkedHashMap<>();
         notification.put("type", "BULK_OPERATION");
         notification.put("operation", operationType);
         notification.put("count", count);
         notification.put("timestamp", System.currentTimeMillis());
         
-        messagingTemplate.convertAndSend("/topic/tasks", notification);
+        send("/topic/tasks", notification);
     }
 
     /**
-     * Notify assigned users about task changes
+     * Notify assigned users about task changes.
+     * Each notification is stored in the user's inbox first so offline users see it later.
      */
     public void notifyAssignedUsers(Task task, String eventType) {
-        Map<String, Object> notification = createTaskNotification(eventType, task);
+        Map<String, Object> taskMap = convertTaskToMap(task);
         
         // Send notification to each assigned user
         for (User user : task.getAssignedUsers()) {
-            messagingTemplate.convertAndSendToUser(
-                user.getUsername(), 
-                "/queue/notifications", 
-                notification
-            );
+            Notification stored = notificationInboxService.record(user.getId(), task.getId(), eventType);
+
+            Map<String, Object> notification = new LinkedHashMap<>();
+            notification.put("type", eventType);
+            notification.put("notificationId", stored.getId());
+            notification.put("task", taskMap);
+            notification.put("timestamp", System.currentTimeMillis());
+
+            sendToUser(user.getUsername(), "/queue/notifications", notification);
         }
     }
 
@@ -78,25 +92,60 @@ public class WebSocketNotificationService {
      * Send user presence update
      */
     public void notifyUserPresence(String username, boolean isOnline) {
-        Map<String, Object> notification = new HashMap<>();
+        Map<String, Object> notification = new LinkedHashMap<>();
         notification.put("type", "USER_PRESENCE");
         notification.put("username", username);
         notification.put("isOnline", isOnline);
         notification.put("timestamp", System.currentTimeMillis());
         
-        messagingTemplate.convertAndSend("/topic/presence", notification);
+        send("/topic/presence", notification);
+    }
+
+    private void send(String destination, Map<String, Object> notification) {
+        NotificationSendEvent event = new NotificationSendEvent();
+        event.begin();
+        observeSend(destination, null, notification)
+                .observe(() -> messagingTemplate.convertAndSend(destination, notification));
+        commit(event, destination, null, notification);
+    }
+
+    private void sendToUser(String username, String destination, Map<String, Object> notification) {
+        NotificationSendEvent event = new NotificationSendEvent();
+        event.begin();
+        observeSend(destination, username, notification)
+                .observe(() -> messagingTemplate.convertAndSendToUser(username, destination, notification));
+        commit(event, destination, username, notification);
+    }
+
+    private Observation observeSend(String destination, String username, Map<String, Object> notification) {
+        Observation observation = Observation.createNotStarted("websocket.send", observationRegistry)
+                .contextualName("send " + destination)
+                .lowCardinalityKeyValue("destination", destination)
+                .lowCardinalityKeyValue("type", String.valueOf(notification.get("type")));
+        return username != null ? observation.highCardinalityKeyValue("user", username) : observation;
+    }
+
+    private void commit(NotificationSendEvent event, String destination, String username, Map<String, Object> notification) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setDestination(destination);
+            event.setType(String.valueOf(notification.get("type")));
+            event.setUser(username);
+            event.commit();
+        }
     }
 
     private Map<String, Object> createTaskNotification(String type, Task task) {
-        Map<String, Object> notification = new HashMap<>();
+        Map<String, Object> notification = new LinkedHashMap<>();
         notification.put("type", type);
         notification.put("task", convertTaskToMap(task));
         notification.put("timestamp", System.currentTimeMillis());
         return notification;
     }
 
+    // Task events use a fixed key order so JSON and CBOR frames have a stable layout
     private Map<String, Object> convertTaskToMap(Task task) {
-        Map<String, Object> taskMap = new HashMap<>();
+        Map<String, Object> taskMap = new LinkedHashMap<>();
         taskMap.put("id", task.getId());
         taskMap.put("title", task.getTitle());
         taskMap.put("description", task.getDescription());
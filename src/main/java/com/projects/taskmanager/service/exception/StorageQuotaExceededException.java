@@ -0,0 +1,27 @@
+package com.projects.taskmanager.service.exception;
+
+import com.projects.taskmanager.model.StorageUsage;
+
+/**
+ * Exception thrown when an upload would take a user or task over its storage quota.
+ */
+public class StorageQuotaExceededException extends RuntimeException {
+
+    private final StorageUsage.Scope scope;
+
+    public StorageQuotaExceededException(StorageUsage.Scope scope, long quotaBytes) {
+        super((scope == StorageUsage.Scope.USER ? "Your attachments" : "This task's attachments")
+                + " would exceed the storage quota of " + format(quotaBytes));
+        this.scope = scope;
+    }
+
+    public StorageUsage.Scope getScope() {
+        return scope;
+    }
+
+    private static String format(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        int exp = (int) (Math.log(bytes) / Math.log(1024));
+        return String.format("%.1f %sB", bytes / Math.pow(1024, exp), "KMGTPE".charAt(exp - 1));
+    }
+}
@@ -0,0 +1,170 @@
+package com.projects.taskmanager.storage;
+
+import com.projects.taskmanager.config.StorageProperties;
+import com.projects.taskmanager.model.StoredBlob;
+import com.projects.taskmanager.model.TaskAttachment;
+import com.projects.taskmanager.repository.StoredBlobRepository;
+import com.projects.taskmanager.repository.TaskAttachmentRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One-off migration into the configured blob store, enabled with
+ * {@code storage.migration.enabled=true}.
+ *
+ * Attachments still stored as loose files are moved into content-addressed
+ * storage. If {@code storage.migration.source-root} points at an existing local
+ * blob tree, blobs missing from the configured store (for example a freshly
+ * configured S3 bucket) are copied across. Both steps are idempotent, so an
+ * interrupted run can simply be restarted.
+ */
+@Component
+@ConditionalOnProperty(prefix = "storage.migration", name = "enabled", havingValue = "true")
+public class BlobMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobMigrationRunner.class);
+
+    private final TaskAttachmentRepository taskAttachmentRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final ContentAddressedStorage contentAddressedStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageProperties.Migration migration;
+
+    public BlobMigrationRunner(TaskAttachmentRepository taskAttachmentRepository,
+                               StoredBlobRepository storedBlobRepository,
+                               ContentAddressedStorage contentAddressedStorage,
+                               TransactionTemplate transactionTemplate,
+                               StorageProperties storageProperties) {
+        this.taskAttachmentRepository = taskAttachmentRepository;
+        this.storedBlobRepository = storedBlobRepository;
+        this.contentAddressedStorage = contentAddressedStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.migration = storageProperties.getMigration();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        migrateLooseAttachments();
+        if (migration.getSourceRoot() != null && !migration.getSourceRoot().isBlank()) {
+            copyBlobs(new LocalBlobStore(Paths.get(migration.getSourceRoot())));
+        }
+    }
+
+    /**
+     * Move attachments uploaded before blob storage into the content-addressed store.
+     */
+    private void migrateLooseAttachments() {
+        long migrated = 0;
+        long missing = 0;
+        long bytes = 0;
+        long afterId = 0;
+
+        List<TaskAttachment> batch;
+        do {
+            batch = taskAttachmentRepository.findByBlobIsNullAndIdGreaterThanOrderByIdAsc(
+                afterId, PageRequest.of(0, migration.getBatchSize()));
+            for (TaskAttachment attachment : batch) {
+                afterId = attachment.getId();
+                Path source = Paths.get(attachment.getFilePath());
+                try {
+                    StoredBlob blob = transactionTemplate.execute(status -> moveIntoStore(attachment, source));
+                    migrated++;
+                    bytes += blob.getSize();
+                    if (migration.isDeleteSource()) {
+                        Files.deleteIfExists(source);
+                    }
+                } catch (UncheckedIOException e) {
+                    if (e.getCause() instanceof NoSuchFileException) {
+                        missing++;
+                        logger.warn("Attachment {} has no file at {}, skipping", attachment.getId(), source);
+                    } else {
+                        logger.error("Failed to migrate attachment {}: {}", attachment.getId(), e.getCause().getMessage());
+                    }
+                } catch (IOException e) {
+                    logger.warn("Migrated attachment {} but could not delete {}: {}", attachment.getId(), source, e.getMessage());
+                }
+            }
+        } while (!batch.isEmpty());
+
+        logger.info("Blob migration: moved {} loose attachments ({} bytes), {} missing on disk", migrated, bytes, missing);
+    }
+
+    private StoredBlob moveIntoStore(TaskAttachment attachment, Path source) {
+        try (InputStream in = Files.newInputStream(source)) {
+            StoredBlob blob = contentAddressedStorage.store(in, attachment.getContentType());
+            attachment.setBlob(blob);
+            attachment.setContentHash(blob.getContentHash());
+            attachment.setFilePath(blob.getStoragePath());
+            taskAttachmentRepository.save(attachment);
+            return blob;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copy every known blob missing from the configured store out of a local blob tree.
+     */
+    private void copyBlobs(LocalBlobStore source) throws IOException {
+        BlobStore target = contentAddressedStorage.getBlobStore();
+        long copied = 0;
+        long present = 0;
+        long missing = 0;
+        long bytes = 0;
+        long afterId = 0;
+
+        List<StoredBlob> batch;
+        do {
+            batch = storedBlobRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, migration.getBatchSize()));
+            for (StoredBlob blob : batch) {
+                afterId = blob.getId();
+                String key = blob.getContentHash();
+                if (!target.exists(key)) {
+                    Optional<Path> sourcePath = source.localPath(key).filter(Files::exists);
+                    if (sourcePath.isEmpty()) {
+                        missing++;
+                        logger.warn("Blob {} not found under {}, skipping", key, source.getRoot());
+                        continue;
+                    }
+                    // put() consumes its input, so hand over a copy unless the source may go
+                    Path upload = sourcePath.get();
+                    if (!migration.isDeleteSource()) {
+                        upload = contentAddressedStorage.newTempFile();
+                        Files.copy(sourcePath.get(), upload);
+                    }
+                    target.put(key, upload, blob.getStoredSize());
+                    copied++;
+                    bytes += blob.getStoredSize();
+                } else {
+                    present++;
+                }
+
+                String storagePath = target.describe(key);
+                if (!storagePath.equals(blob.getStoragePath())) {
+                    blob.setStoragePath(storagePath);
+                    storedBlobRepository.save(blob);
+                }
+            }
+        } while (!batch.isEmpty());
+
+        logger.info("Blob migration: copied {} blobs ({} bytes) from {}, {} already present, {} missing",
+            copied, bytes, source.getRoot(), present, missing);
+    }
+}
@@ -0,0 +1,57 @@
+package com.projects.taskmanager.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Physical storage for blob content, addressed by key (the content hash).
+ * Content streams in from a local file and out as a stream; implementations
+ * never hold whole blobs in memory. Reading a missing key throws
+ * {@link java.nio.file.NoSuchFileException}.
+ */
+public interface BlobStore {
+
+    /**
+     * A stored key as seen in a listing.
+     */
+    record Entry(String key, long size, Instant lastModified) {
+    }
+
+    /**
+     * Store a local file under the key. The source file is consumed:
+     * moved into place or deleted once uploaded.
+     */
+    void put(String key, Path source, long size) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Open part of a blob.
+     */
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Every stored key in ascending order. The listing is read lazily, so it
+     * can be walked in bounded memory; the stream must be closed.
+     */
+    Stream<Entry> list() throws IOException;
+
+    /**
+     * The blob's file when this store keeps content on the local filesystem,
+     * which lets downloads use zero-copy transfers.
+     */
+    Optional<Path> localPath(String key);
+
+    /**
+     * Location of the key, recorded with the blob for operators.
+     */
+    String describe(String key);
+}
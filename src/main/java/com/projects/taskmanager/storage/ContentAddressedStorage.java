@@ -0,0 +1,303 @@
+package com.projects.taskmanager.storage;
+
+import com.projects.taskmanager.config.StorageProperties;
+import com.projects.taskmanager.model.StoredBlob;
+import com.projects.taskmanager.observability.MetricsService;
+import com.projects.taskmanager.repository.StoredBlobRepository;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed, deduplicated file storage.
+ *
+ * Uploads are hashed while they stream to a temporary file. Content that is
+ * already stored only gains a reference; new content is handed to the
+ * configured {@link BlobStore} under its hash. Releasing the last reference
+ * leaves the blob in place for a later upload to adopt; reconciliation
+ * {@linkplain #reclaim reclaims} it once it has stayed unattached for the
+ * grace period. Content is only ever deleted there, under the row lock, so
+ * it can't be removed from under an upload that is storing it again.
+ *
+ * Content types on the compression allowlist are stored gzip-compressed when
+ * that saves enough space. The hash always identifies the original content,
+ * and {@link #open} always returns the original content.
+ */
+@Service
+@Transactional
+public class ContentAddressedStorage {
+
+    public static final String GZIP = "gzip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Each retry means another upload or a release changed the row in between
+    private static final int MAX_COMMIT_ATTEMPTS = 5;
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final BlobStore blobStore;
+    private final MetricsService metricsService;
+    private final Path tempDir;
+    private final StorageProperties.Compression compression;
+    private final List<MediaType> compressibleTypes;
+    private final TransactionTemplate newTransaction;
+
+    public ContentAddressedStorage(StoredBlobRepository storedBlobRepository,
+                                   BlobStore blobStore,
+                                   MetricsService metricsService,
+                                   StorageProperties storageProperties,
+                                   PlatformTransactionManager transactionManager) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.blobStore = blobStore;
+        this.metricsService = metricsService;
+        this.tempDir = Paths.get(storageProperties.getTempDir());
+        this.compression = storageProperties.getCompression();
+        this.compressibleTypes = MediaType.parseMediaTypes(compression.getContentTypes());
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Store content and return its blob with one new reference.
+     * @param contentType declared type of the content, used to decide on compression
+     */
+    public StoredBlob store(InputStream content, String contentType) throws IOException {
+        Path tempFile = newTempFile();
+
+        MessageDigest digest = newDigest();
+        CRC32 crc = new CRC32();
+        long size;
+        try (InputStream in = new CheckedInputStream(new DigestInputStream(content, digest), crc)) {
+            size = Files.copy(in, tempFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        return commit(tempFile, HexFormat.of().formatHex(digest.digest()), size, contentType, crc.getValue());
+    }
+
+    /**
+     * Add a reference to an already written file whose hash is known.
+     * The file is handed to the blob store, or deleted if the content already exists.
+     * @param contentType declared type of the content, used to decide on compression
+     */
+    public StoredBlob commit(Path tempFile, String contentHash, long size, String contentType) throws IOException {
+        return commit(tempFile, contentHash, size, contentType, null);
+    }
+
+    /**
+     * Insert-or-increment against the database, so uploads of the same content
+     * on any node end up sharing one row.
+     */
+    private StoredBlob commit(Path tempFile, String contentHash, long size, String contentType, Long crc32)
+            throws IOException {
+        Upload stored = null;
+        for (int attempt = 0; attempt < MAX_COMMIT_ATTEMPTS; attempt++) {
+            Optional<StoredBlob> existing = storedBlobRepository.findByContentHash(contentHash);
+            // Zero rows means the blob was released or reclaimed since it was read, so it is stored again
+            if (existing.isPresent() && storedBlobRepository.incrementReferenceCount(existing.get().getId()) == 1) {
+                Files.deleteIfExists(tempFile);
+                StoredBlob blob = existing.get();
+                if (blob.getCrc32() == null && crc32 != null) {
+                    // Not through the entity, whose reference count is now stale
+                    storedBlobRepository.updateCrc32(blob.getId(), crc32);
+                }
+                return blob;
+            }
+
+            if (stored == null) {
+                stored = upload(tempFile, contentHash, size, contentType);
+            }
+            StoredBlob blob = new StoredBlob(contentHash, size, blobStore.describe(contentHash));
+            if (stored.contentEncoding() != null) {
+                blob.setContentEncoding(stored.contentEncoding());
+                blob.setStoredSize(stored.storedSize());
+            }
+            blob.setCrc32(crc32);
+            blob.setReferenceCount(0);
+            try {
+                // Committed on its own with no references; the next pass takes the first one
+                newTransaction.executeWithoutResult(status -> storedBlobRepository.saveAndFlush(blob));
+            } catch (DataIntegrityViolationException e) {
+                // Inserted by a concurrent upload of the same content
+            }
+        }
+        throw new IllegalStateException("Could not store content " + contentHash + " after "
+                + MAX_COMMIT_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Hand new content to the blob store, compressed if that is worthwhile.
+     */
+    private Upload upload(Path tempFile, String contentHash, long size, String contentType) throws IOException {
+        Path upload = tempFile;
+        long storedSize = size;
+        String contentEncoding = null;
+        MediaType mediaType = compressibleType(contentType, size);
+        if (mediaType != null) {
+            Path compressed = gzip(tempFile);
+            long compressedSize = Files.size(compressed);
+            metricsService.recordCompression(mediaType.toString(), size, compressedSize);
+            if (compressedSize <= size * (1 - compression.getMinSavings())) {
+                Files.delete(tempFile);
+                upload = compressed;
+                storedSize = compressedSize;
+                contentEncoding = GZIP;
+            } else {
+                // Already compressed formats such as DOCX gain little; keep the original
+                Files.delete(compressed);
+            }
+        }
+
+        blobStore.put(contentHash, upload, storedSize);
+        return new Upload(contentEncoding, storedSize);
+    }
+
+    private record Upload(String contentEncoding, long storedSize) {
+    }
+
+    /**
+     * Drop one reference to a blob. A blob with no references left keeps its
+     * row and content until {@link #reclaim} removes it.
+     */
+    public void release(StoredBlob blob) {
+        storedBlobRepository.decrementReferenceCount(blob.getId());
+    }
+
+    /**
+     * Remove a blob that no attachment references any more, whatever its
+     * reference count says. Runs in its own transaction and deletes the
+     * content before the row delete commits, so an upload of the same content
+     * that still sees the row re-stores it only after the content is gone.
+     * @return true if the blob was removed
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = IOException.class)
+    public boolean reclaim(StoredBlob blob) throws IOException {
+        // Matching the count read with the row skips blobs a concurrent upload has just adopted
+        if (storedBlobRepository.deleteIfUnattached(blob.getId(), blob.getReferenceCount()) == 0) {
+            return false;
+        }
+        blobStore.delete(blob.getContentHash());
+        return true;
+    }
+
+    /**
+     * Reserve a path for an upload in progress. With the local store this is on
+     * the same filesystem as the blob tree, so {@link #commit} moves it into
+     * place without copying.
+     */
+    public Path newTempFile() throws IOException {
+        Files.createDirectories(tempDir);
+        return tempDir.resolve(UUID.randomUUID() + ".part");
+    }
+
+    /**
+     * Open a blob's original content, decompressing it if it is stored compressed.
+     */
+    public InputStream open(StoredBlob blob) throws IOException {
+        InputStream in = blobStore.open(blob.getContentHash());
+        if (!GZIP.equals(blob.getContentEncoding())) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * CRC-32 of a blob's original content. Blobs that arrived without one
+     * (chunked uploads, older rows) are read once and the result is kept.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long crc32(StoredBlob blob) throws IOException {
+        if (blob.getCrc32() != null) {
+            return blob.getCrc32();
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(open(blob), crc)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        storedBlobRepository.updateCrc32(blob.getId(), crc.getValue());
+        blob.setCrc32(crc.getValue());
+        return crc.getValue();
+    }
+
+    public BlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    /**
+     * The base media type if content of this type and size should be compressed, otherwise null.
+     */
+    private MediaType compressibleType(String contentType, long size) {
+        if (!compression.isEnabled() || contentType == null || size < compression.getMinSize().toBytes()) {
+            return null;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        for (MediaType allowed : compressibleTypes) {
+            if (allowed.includes(mediaType)) {
+                return new MediaType(mediaType.getType(), mediaType.getSubtype());
+            }
+        }
+        return null;
+    }
+
+    private Path gzip(Path source) throws IOException {
+        Path target = newTempFile();
+        int level = compression.getLevel();
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE) {
+                 {
+                     def.setLevel(level);
+                 }
+             }) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return target;
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
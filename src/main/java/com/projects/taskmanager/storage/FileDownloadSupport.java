@@ -0,0 +1,390 @@
+package com.projects.taskmanager.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Builds streaming file responses for downloads.
+ *
+ * Files on disk are streamed, never read into memory; small hot files can instead be
+ * served from {@link HotFileCache}. Range requests (single and multipart/byteranges)
+ * and If-None-Match / If-Modified-Since are handled by Spring MVC for {@link Resource}
+ * bodies. Full GET responses for larger files are handed to Tomcat's sendfile support
+ * so the kernel copies the file straight to the socket.
+ */
+@Component
+public class FileDownloadSupport {
+
+    // Request attributes understood by Tomcat's NIO connector (see DefaultServlet)
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // Below this size a plain buffered copy is cheaper than a sendfile hand-off
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final int DECOMPRESS_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Serve a file with validators derived from its content hash.
+     * @param path file to serve
+     * @param contentType media type of the file
+     * @param contentHash hash of the stored bytes, used as a strong ETag
+     * @param disposition content disposition (optional)
+     * @param cacheControl cache control directives (optional)
+     * @param webRequest current request
+     */
+    public ResponseEntity<Resource> serve(Path path,
+                                         MediaType contentType,
+                                         String contentHash,
+                                         ContentDisposition disposition,
+                                         CacheControl cacheControl,
+                                         ServletWebRequest webRequest) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + contentHash + "\"";
+
+        HttpHeaders headers = buildHeaders(contentType, etag, lastModified, disposition, cacheControl);
+        return servePath(path, attributes.size(), etag, lastModified, headers, webRequest);
+    }
+
+    private ResponseEntity<Resource> servePath(Path path, long length, String etag, long lastModified,
+                                               HttpHeaders headers, ServletWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getRequest();
+        if (canSendfile(request, length)) {
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, length);
+            headers.setContentLength(length);
+            return ResponseEntity.ok().headers(headers).build();
+        }
+
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(path));
+    }
+
+    /**
+     * Serve a blob from a blob store. Local blobs are served like any other file;
+     * remote blobs are streamed through, with a single requested range fetched
+     * as a ranged read instead of reading and skipping the whole blob.
+     */
+    public ResponseEntity<Resource> serve(BlobStore blobStore,
+                                         String key,
+                                         long length,
+                                         long lastModified,
+                                         MediaType contentType,
+                                         String contentHash,
+                                         ContentDisposition disposition,
+                                         CacheControl cacheControl,
+                                         ServletWebRequest webRequest) throws IOException {
+        Optional<Path> localPath = blobStore.localPath(key);
+        if (localPath.isPresent()) {
+            return serve(localPath.get(), contentType, contentHash, disposition, cacheControl, webRequest);
+        }
+
+        String etag = "\"" + contentHash + "\"";
+        HttpHeaders headers = buildHeaders(contentType, etag, lastModified, disposition, cacheControl);
+        return serveStream(
+            (offset, count) -> offset == 0 && count == length ? blobStore.open(key) : blobStore.open(key, offset, count),
+            length, etag, lastModified, headers, blobStore.describe(key), webRequest);
+    }
+
+    /**
+     * Serve a blob stored with a content encoding such as gzip. When
+     * {@link #canPassThrough} allows it the stored bytes are sent as they are
+     * with a Content-Encoding header; otherwise the original content is
+     * decompressed on the fly, and ranges refer to the original content.
+     * @param storedLength length of the encoded bytes in the store
+     * @param length length of the original content
+     */
+    public ResponseEntity<Resource> serveEncoded(BlobStore blobStore,
+                                                String key,
+                                                String contentEncoding,
+                                                long storedLength,
+                                                long length,
+                                                long lastModified,
+                                                MediaType contentType,
+                                                String contentHash,
+                                                ContentDisposition disposition,
+                                                CacheControl cacheControl,
+                                                ServletWebRequest webRequest) throws IOException {
+        if (canPassThrough(contentEncoding, webRequest)) {
+            String etag = "\"" + contentHash + "-" + contentEncoding + "\"";
+            HttpHeaders headers = buildHeaders(contentType, etag, lastModified, disposition, cacheControl);
+            headers.set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+            Optional<Path> localPath = blobStore.localPath(key);
+            if (localPath.isPresent()) {
+                return servePath(localPath.get(), storedLength, etag, lastModified, headers, webRequest);
+            }
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+            return ResponseEntity.ok().headers(headers)
+                    .body(new StreamResource((offset, count) -> blobStore.open(key), storedLength, blobStore.describe(key)));
+        }
+
+        if (!ContentAddressedStorage.GZIP.equals(contentEncoding)) {
+            throw new IllegalArgumentException("Unsupported content encoding: " + contentEncoding);
+        }
+        String etag = "\"" + contentHash + "\"";
+        HttpHeaders headers = buildHeaders(contentType, etag, lastModified, disposition, cacheControl);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        return serveStream((offset, count) -> {
+            InputStream in = new GZIPInputStream(blobStore.open(key), DECOMPRESS_BUFFER_SIZE);
+            try {
+                // Ranges of compressed content can only be reached by inflating up to them
+                in.skipNBytes(offset);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+            return new BoundedInputStream(in, count);
+        }, length, etag, lastModified, headers, blobStore.describe(key), webRequest);
+    }
+
+    /**
+     * Whether a client can be sent stored bytes in the given encoding as they
+     * are. Range requests are always answered from the original content.
+     */
+    public boolean canPassThrough(String contentEncoding, ServletWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getRequest();
+        if (request.getHeader(HttpHeaders.RANGE) != null) {
+            return false;
+        }
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(contentEncoding)) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(String qvalue) {
+        try {
+            return Double.parseDouble(qvalue) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private ResponseEntity<Resource> serveStream(RangeSource source, long length, String etag, long lastModified,
+                                                 HttpHeaders headers, String description, ServletWebRequest webRequest) throws IOException {
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        List<HttpRange> ranges = parseRanges(webRequest.getRequest().getHeader(HttpHeaders.RANGE));
+        if (ranges.size() == 1 && length > 0) {
+            long start = ranges.get(0).getRangeStart(length);
+            long end = ranges.get(0).getRangeEnd(length);
+            if (start >= length) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            headers.setContentLength(end - start + 1);
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers)
+                    .body(new InputStreamResource(source.open(start, end - start + 1)));
+        }
+
+        // Full responses and multi-range requests read the content from the start
+        return ResponseEntity.ok().headers(headers).body(new StreamResource(source, length, description));
+    }
+
+    /**
+     * Serve a file from the hot file cache. Ranges and conditional requests
+     * are handled the same way as for files on disk.
+     */
+    public ResponseEntity<Resource> serve(HotFileCache.CachedFile file,
+                                         ContentDisposition disposition,
+                                         CacheControl cacheControl) {
+        return serve(file, null, false, disposition, cacheControl);
+    }
+
+    /**
+     * Serve a file from the hot file cache, possibly holding encoded bytes.
+     * @param contentEncoding encoding of the cached bytes, or null for original content
+     * @param varyOnEncoding whether the stored content has other encodings, so caches must vary on Accept-Encoding
+     */
+    public ResponseEntity<Resource> serve(HotFileCache.CachedFile file,
+                                         String contentEncoding,
+                                         boolean varyOnEncoding,
+                                         ContentDisposition disposition,
+                                         CacheControl cacheControl) {
+        HttpHeaders headers = buildHeaders(file.contentType(), "\"" + file.etag() + "\"", file.lastModified(),
+                disposition, cacheControl);
+        if (contentEncoding != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        if (varyOnEncoding) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+        return ResponseEntity.ok().headers(headers).body(new ByteBufferResource(file.content()));
+    }
+
+    private List<HttpRange> parseRanges(String rangeHeader) {
+        if (rangeHeader == null) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private HttpHeaders buildHeaders(MediaType contentType, String etag, long lastModified,
+                                     ContentDisposition disposition, CacheControl cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (disposition != null) {
+            headers.setContentDisposition(disposition);
+        }
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        return headers;
+    }
+
+    private boolean canSendfile(HttpServletRequest request, long length) {
+        return "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && length >= SENDFILE_THRESHOLD
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR));
+    }
+
+    /**
+     * Opens part of some content.
+     */
+    @FunctionalInterface
+    private interface RangeSource {
+        InputStream open(long offset, long length) throws IOException;
+    }
+
+    /**
+     * Resource that opens its content only when the response body is written.
+     */
+    private static class StreamResource extends AbstractResource {
+
+        private final RangeSource source;
+        private final long length;
+        private final String description;
+
+        StreamResource(RangeSource source, long length, String description) {
+            this.source = source;
+            this.length = length;
+            this.description = description;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return source.open(0, length);
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * Read-only resource over a shared buffer; every stream reads its own view.
+     */
+    private static class ByteBufferResource extends AbstractResource {
+
+        private final ByteBuffer content;
+
+        ByteBufferResource(ByteBuffer content) {
+            this.content = content;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer view = content.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return view.hasRemaining() ? view.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!view.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, view.remaining());
+                    view.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) {
+                    int skipped = (int) Math.max(0, Math.min(n, view.remaining()));
+                    view.position(view.position() + skipped);
+                    return skipped;
+                }
+
+                @Override
+                public int available() {
+                    return view.remaining();
+                }
+            };
+        }
+
+        @Override
+        public long contentLength() {
+            return content.remaining();
+        }
+
+        @Override
+        public String getDescription() {
+            return "cached file content";
+        }
+    }
+}
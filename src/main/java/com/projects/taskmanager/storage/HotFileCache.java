@@ -0,0 +1,181 @@
+package com.projects.taskmanager.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.Files;
+
+/**
+ * In-memory cache of small, frequently served files.
+ *
+ * Entries are keyed by entity tag. Stored files are never rewritten in place
+ * (blobs are content-addressed and avatars get a new name per upload), so the
+ * tag identifies the content and a cached entry stays valid until the file is
+ * deleted. Hits are served without touching the disk.
+ * Contents are held in direct buffers outside the Java heap; the cache is
+ * bounded by total content size and uses Caffeine's W-TinyLFU eviction.
+ * Files found to be too large are remembered by tag as well, so later requests
+ * for them skip the cache without reopening the file.
+ */
+@Component
+public class HotFileCache {
+
+    /**
+     * Cached file contents and the metadata needed to serve them.
+     */
+    public record CachedFile(ByteBuffer content, MediaType contentType, String etag, long lastModified) {
+
+        public long length() {
+            return content.remaining();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ContentTypeResolver {
+        MediaType resolve(Path path) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    private final Cache<String, CachedFile> cache;
+    private final Cache<String, Boolean> oversized;
+    private final long maxEntrySize;
+
+    public HotFileCache(@Value("${files.cache.max-size:64MB}") DataSize maxSize,
+                        @Value("${files.cache.max-entry-size:256KB}") DataSize maxEntrySize,
+                        MeterRegistry meterRegistry) {
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedFile file) -> (int) Math.min(Integer.MAX_VALUE, file.length()))
+                .recordStats()
+                .build();
+        this.oversized = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "hotFiles");
+        Gauge.builder("files.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of file requests served from the hot file cache")
+                .register(meterRegistry);
+        Gauge.builder("files.cache.resident.bytes", this, HotFileCache::getResidentBytes)
+                .description("Bytes of file content held in the hot file cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a file from the cache, reading it on a miss.
+     * @param etag entity tag identifying the file's content
+     * @param path where to read the file from on a miss
+     * @return the cached file, or null if the file doesn't exist or is too large to cache
+     */
+    public CachedFile get(String etag, Path path, ContentTypeResolver contentTypeResolver) throws IOException {
+        if (oversized.getIfPresent(etag) != null) {
+            return null;
+        }
+        try {
+            return cache.get(etag, key -> load(etag, path, contentTypeResolver));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Get content of known size from the cache, streaming it in on a miss.
+     * Content larger than the entry limit is never read.
+     * @return the cached file, or null if the content is too large to cache
+     */
+    public CachedFile get(String etag, long size, long lastModified, MediaType contentType,
+                          ContentSource source) throws IOException {
+        if (size > maxEntrySize) {
+            return null;
+        }
+        try {
+            return cache.get(etag, key -> {
+                try (InputStream in = source.open()) {
+                    ByteBuffer content = ByteBuffer.allocateDirect((int) size);
+                    byte[] buffer = new byte[(int) Math.min(size, 16 * 1024) + 1];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        if (read > content.remaining()) {
+                            throw new IOException("Content of " + etag + " is larger than " + size + " bytes");
+                        }
+                        content.put(buffer, 0, read);
+                    }
+                    content.flip();
+                    return new CachedFile(content.asReadOnlyBuffer(), contentType, etag, lastModified);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Get a file only if it is already cached.
+     */
+    public CachedFile getIfPresent(String etag) {
+        return cache.getIfPresent(etag);
+    }
+
+    /**
+     * Drop every cached file whose entity tag contains the given text, such as
+     * a content hash or avatar file name together with its resized variants.
+     */
+    public void invalidateMatching(String etagPart) {
+        cache.asMap().keySet().removeIf(etag -> etag.contains(etagPart));
+        oversized.asMap().keySet().removeIf(etag -> etag.contains(etagPart));
+    }
+
+    public long getResidentBytes() {
+        // Weights are applied by Caffeine's asynchronous maintenance, so settle it first
+        cache.cleanUp();
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private CachedFile load(String etag, Path path, ContentTypeResolver contentTypeResolver) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxEntrySize) {
+                oversized.put(etag, Boolean.TRUE);
+                return null;
+            }
+            ByteBuffer content = ByteBuffer.allocateDirect((int) size);
+            while (content.hasRemaining() && channel.read(content) != -1) {
+                // Keep reading until the buffer is full
+            }
+            content.flip();
+
+            long lastModified = Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+            return new CachedFile(content.asReadOnlyBuffer(), contentTypeResolver.resolve(path), etag, lastModified);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.projects.taskmanager.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Derives resized variants of uploaded images in the background.
+ *
+ * Variants are keyed by their source (content hash for attachments, file name
+ * for avatars) and cached on disk under {@code uploads/variants}, sharded into
+ * {@code ab/cd/} directories like the local blob store. Until a
+ * variant exists callers serve the original, and asking for a missing variant
+ * queues it again. Sources smaller than a variant are never resized.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final Path VARIANT_ROOT = Paths.get("uploads", "variants");
+    private static final float JPEG_QUALITY = 0.82f;
+
+    // Attachment variants are keyed by a SHA-256 content hash, which can be sharded on directly
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    public enum Variant {
+        THUMBNAIL(200),
+        PREVIEW(1024);
+
+        private final int maxDimension;
+
+        Variant(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+
+        public static Optional<Variant> fromPath(String name) {
+            for (Variant variant : values()) {
+                if (variant.name().equalsIgnoreCase(name)) {
+                    return Optional.of(variant);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * A generated variant file and the media type it was encoded as.
+     */
+    public record StoredVariant(Path path, String contentType) {
+    }
+
+    /**
+     * Opens the original image, wherever it is stored.
+     */
+    @FunctionalInterface
+    public interface ImageSource {
+        InputStream open() throws IOException;
+    }
+
+    private final ThreadPoolTaskExecutor imageProcessingExecutor;
+
+    // Sources with a generation job queued or running
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService(ThreadPoolTaskExecutor imageProcessingExecutor) {
+        this.imageProcessingExecutor = imageProcessingExecutor;
+    }
+
+    /**
+     * Queue generation of all variants for an image. Inside a transaction the
+     * job is queued after commit, so rolled back uploads are never processed.
+     */
+    public void requestVariants(String key, ImageSource source) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(key, source);
+                }
+            });
+        } else {
+            submit(key, source);
+        }
+    }
+
+    /**
+     * Look up a generated variant. If it isn't ready yet, generation is queued
+     * and an empty result tells the caller to fall back to the original.
+     */
+    public Optional<StoredVariant> findVariant(String key, ImageSource source, Variant variant) {
+        for (String extension : new String[] {"jpg", "png"}) {
+            Path path = pathFor(key, variant, extension);
+            if (Files.exists(path)) {
+                return Optional.of(new StoredVariant(path, "jpg".equals(extension) ? "image/jpeg" : "image/png"));
+            }
+        }
+        if (!Files.exists(markerFor(key))) {
+            submit(key, source);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Remove all variants of a source that is no longer stored.
+     */
+    public void deleteVariants(String key) {
+        try {
+            for (Variant variant : Variant.values()) {
+                Files.deleteIfExists(pathFor(key, variant, "jpg"));
+                Files.deleteIfExists(pathFor(key, variant, "png"));
+            }
+            Files.deleteIfExists(markerFor(key));
+        } catch (IOException e) {
+            logger.warn("Failed to delete image variants of {}: {}", key, e.getMessage());
+        }
+    }
+
+    public Path getVariantRoot() {
+        return VARIANT_ROOT;
+    }
+
+    /**
+     * Move variants written before the cache was sharded into their shard
+     * directories, in the background so a large cache doesn't hold up startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void shardFlatVariants() {
+        if (!Files.isDirectory(VARIANT_ROOT)) {
+            return;
+        }
+        try {
+            imageProcessingExecutor.execute(this::moveFlatVariants);
+        } catch (TaskRejectedException e) {
+            logger.debug("Image processing queue full, leaving unsharded variants until the next start");
+        }
+    }
+
+    /**
+     * The source key a file in the variant directory belongs to, or null if
+     * the file isn't one this service writes.
+     */
+    public static String keyOf(String fileName) {
+        if (fileName.endsWith(".done")) {
+            return fileName.substring(0, fileName.length() - ".done".length());
+        }
+        String name = fileName.endsWith(".tmp") ? fileName.substring(0, fileName.length() - ".tmp".length()) : fileName;
+        int extension = name.lastIndexOf('.');
+        int suffix = name.lastIndexOf('-');
+        if (extension < 0 || suffix < 0 || suffix > extension
+                || Variant.fromPath(name.substring(suffix + 1, extension)).isEmpty()) {
+            return null;
+        }
+        return name.substring(0, suffix);
+    }
+
+    private void submit(String key, ImageSource source) {
+        if (!pending.add(key)) {
+            return;
+        }
+        try {
+            imageProcessingExecutor.execute(() -> {
+                try {
+                    generate(key, source);
+                } catch (Exception e) {
+                    logger.warn("Failed to generate image variants of {}: {}", key, e.getMessage());
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Originals are served meanwhile; the next request for a variant retries
+            pending.remove(key);
+            logger.debug("Image processing queue full, skipping variants of {}", key);
+        }
+    }
+
+    private void generate(String key, ImageSource source) throws IOException {
+        if (Files.exists(markerFor(key))) {
+            return;
+        }
+
+        // Decode once, subsampled to about twice the largest variant
+        BufferedImage image = decode(source, Variant.PREVIEW.getMaxDimension() * 2);
+        if (image != null) {
+            for (Variant variant : Variant.values()) {
+                if (Math.max(image.getWidth(), image.getHeight()) > variant.getMaxDimension()) {
+                    BufferedImage resized = resize(image, variant.getMaxDimension());
+                    boolean opaque = !resized.getColorModel().hasAlpha();
+                    write(resized, pathFor(key, variant, opaque ? "jpg" : "png"), opaque);
+                }
+            }
+        }
+
+        // Marks the source as processed, so undecodable or small images aren't retried
+        Files.createDirectories(markerFor(key).getParent());
+        Files.writeString(markerFor(key), "");
+    }
+
+    private BufferedImage decode(ImageSource source, int targetDimension) throws IOException {
+        try (InputStream content = source.open();
+             ImageInputStream in = new MemoryCacheImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int largestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, largestSide / targetDimension);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale down in halving steps, which keeps bilinear filtering sharp
+     * without the cost of bicubic on large images.
+     */
+    private BufferedImage resize(BufferedImage image, int maxDimension) {
+        double scale = (double) maxDimension / Math.max(image.getWidth(), image.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void write(BufferedImage image, Path target, boolean jpeg) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(jpeg ? "jpeg" : "png").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tempFile.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (jpeg) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        // Readers only ever see complete files
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void moveFlatVariants() {
+        int moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(VARIANT_ROOT, Files::isRegularFile)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String key = keyOf(name);
+                if (key == null) {
+                    continue;
+                }
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                Path target = shardFor(key).resolve(name);
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                moved++;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to move image variants into shard directories: {}", e.getMessage());
+        }
+        if (moved > 0) {
+            logger.info("Moved {} image variants into shard directories", moved);
+        }
+    }
+
+    private Path pathFor(String key, Variant variant, String extension) {
+        return shardFor(key).resolve(key + "-" + variant.name().toLowerCase() + "." + extension);
+    }
+
+    private Path markerFor(String key) {
+        return shardFor(key).resolve(key + ".done");
+    }
+
+    /**
+     * Directory of a source's variants. Avatar file names aren't hashes, so
+     * their shard comes from the name's hash code instead.
+     */
+    private static Path shardFor(String key) {
+        String hash = CONTENT_HASH.matcher(key).matches() ? key : HexFormat.of().toHexDigits(key.hashCode());
+        return VARIANT_ROOT.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+    }
+}
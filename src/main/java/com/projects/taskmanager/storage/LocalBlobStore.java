@@ -0,0 +1,137 @@
+package com.projects.taskmanager.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Blob store on the local filesystem.
+ *
+ * Keys are spread over a two-level directory tree by their first four
+ * characters ({@code root/ab/cd/abcd...}), so no directory grows past a few
+ * thousand entries even with millions of blobs.
+ */
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public void put(String key, Path source, long size) throws IOException {
+        Path target = pathFor(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Source is on another filesystem: copy beside the target, then rename
+            Path partial = target.resolveSibling(key + ".partial");
+            Files.copy(source, partial, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(source);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(pathFor(key));
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(pathFor(key), StandardOpenOption.READ).position(offset);
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(pathFor(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathFor(key));
+    }
+
+    /**
+     * Walks the tree one directory at a time. Shard names are key prefixes,
+     * so visiting each level in name order yields keys in ascending order.
+     */
+    @Override
+    public Stream<Entry> list() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        return sortedChildren(root, LocalBlobStore::isShard)
+                .flatMap(first -> sortedChildren(first, LocalBlobStore::isShard)
+                        .flatMap(second -> sortedChildren(second, file -> isKeyIn(file, first, second))))
+                .map(LocalBlobStore::toEntry)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(pathFor(key));
+    }
+
+    @Override
+    public String describe(String key) {
+        return pathFor(key).toString();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    private Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static Stream<Path> sortedChildren(Path dir, Predicate<Path> filter) {
+        try (Stream<Path> children = Files.list(dir)) {
+            List<Path> sorted = children.filter(filter)
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+            return sorted.stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Two lowercase hex digits; skips the temp directory and anything else kept under the root
+    private static boolean isShard(Path path) {
+        return path.getFileName().toString().matches("[0-9a-f]{2}") && Files.isDirectory(path);
+    }
+
+    private static boolean isKeyIn(Path file, Path first, Path second) {
+        String name = file.getFileName().toString();
+        return name.startsWith(first.getFileName().toString() + second.getFileName())
+                && !name.endsWith(".partial");
+    }
+
+    private static Entry toEntry(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Entry(file.getFileName().toString(), attributes.size(), attributes.lastModifiedTime().toInstant());
+        } catch (IOException e) {
+            // Deleted while listing
+            return null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.projects.taskmanager.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Blob store on S3 or an S3-compatible service such as MinIO.
+ *
+ * Files larger than one part are sent as a multipart upload, one part at a
+ * time straight from the file, so memory use doesn't depend on blob size.
+ * Partial reads use ranged GETs.
+ */
+public class S3BlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3BlobStore.class);
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String prefix;
+    private final long partSize;
+
+    public S3BlobStore(S3Client s3Client, String bucket, String prefix, long partSize) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefix = prefix != null ? prefix : "";
+        this.partSize = partSize;
+    }
+
+    @Override
+    public void put(String key, Path source, long size) throws IOException {
+        try {
+            if (size <= partSize) {
+                s3Client.putObject(b -> b.bucket(bucket).key(objectKey(key)).contentLength(size),
+                        RequestBody.fromFile(source));
+            } else {
+                multipartUpload(objectKey(key), source, size);
+            }
+        } catch (S3Exception e) {
+            throw new IOException("Failed to upload " + describe(key), e);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    private void multipartUpload(String objectKey, Path source, long size) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(b -> b.bucket(bucket).key(objectKey)).uploadId();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                channel.position(offset);
+                // Not closed here: closing would close the shared channel
+                InputStream part = Channels.newInputStream(channel);
+                int number = partNumber;
+                String etag = s3Client.uploadPart(
+                        b -> b.bucket(bucket).key(objectKey).uploadId(uploadId).partNumber(number).contentLength(length),
+                        RequestBody.fromInputStream(part, length)).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            s3Client.completeMultipartUpload(b -> b.bucket(bucket).key(objectKey).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (IOException | RuntimeException e) {
+            try {
+                s3Client.abortMultipartUpload(b -> b.bucket(bucket).key(objectKey).uploadId(uploadId));
+            } catch (S3Exception abortFailure) {
+                logger.warn("Failed to abort multipart upload {} of {}: {}", uploadId, objectKey, abortFailure.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return get(key, GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        String range = "bytes=" + offset + "-" + (offset + length - 1);
+        return get(key, GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).range(range).build());
+    }
+
+    private InputStream get(String key, GetObjectRequest request) throws IOException {
+        try {
+            return s3Client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(describe(key));
+        } catch (S3Exception e) {
+            throw new IOException("Failed to read " + describe(key), e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            s3Client.headObject(b -> b.bucket(bucket).key(objectKey(key)));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new IOException("Failed to check " + describe(key), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(b -> b.bucket(bucket).key(objectKey(key)));
+        } catch (S3Exception e) {
+            throw new IOException("Failed to delete " + describe(key), e);
+        }
+    }
+
+    /**
+     * S3 lists keys in ascending binary order, a page at a time.
+     */
+    @Override
+    public Stream<Entry> list() throws IOException {
+        try {
+            return s3Client.listObjectsV2Paginator(b -> b.bucket(bucket).prefix(prefix))
+                    .contents()
+                    .stream()
+                    .map(object -> new Entry(object.key().substring(prefix.length()), object.size(), object.lastModified()));
+        } catch (S3Exception e) {
+            throw new IOException("Failed to list " + bucket + "/" + prefix, e);
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public String describe(String key) {
+        return "s3://" + bucket + "/" + objectKey(key);
+    }
+
+    private String objectKey(String key) {
+        return prefix + key;
+    }
+}
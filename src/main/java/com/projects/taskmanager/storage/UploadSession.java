@@ -0,0 +1,236 @@
+package com.projects.taskmanager.storage;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * State of a resumable chunked upload.
+ *
+ * The file is sized up front and split into fixed-size chunks; each chunk is
+ * written in place at its offset, so chunks may arrive in any order, in
+ * parallel, or be retried after a dropped connection.
+ *
+ * A chunk only counts as received once its bytes are written and verified,
+ * and its CRC32C is kept so the assembled file can be checked again on
+ * completion. Chunk writes and completion exclude each other through the
+ * session's lock.
+ */
+public class UploadSession {
+
+    public enum Purpose {
+        ATTACHMENT,
+        AVATAR
+    }
+
+    private final String id;
+    private final Purpose purpose;
+    private final Long userId;
+    private final Long taskId;
+    private final String originalFilename;
+    private final String contentType;
+    private final String description;
+    private final long totalSize;
+    private final int chunkSize;
+    private final String expectedSha256;
+    private final Path file;
+    private final BitSet receivedChunks;
+    private final long[] chunkCrcs;
+    private volatile Instant lastActivityAt;
+    private int activeWrites;
+    private boolean completing;
+
+    public UploadSession(String id, Purpose purpose, Long userId, Long taskId, String originalFilename,
+                         String contentType, String description, long totalSize, int chunkSize,
+                         String expectedSha256, Path file) {
+        this.id = id;
+        this.purpose = purpose;
+        this.userId = userId;
+        this.taskId = taskId;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.description = description;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.expectedSha256 = expectedSha256;
+        this.file = file;
+        this.receivedChunks = new BitSet(getChunkCount());
+        this.chunkCrcs = new long[getChunkCount()];
+        this.lastActivityAt = Instant.now();
+    }
+
+    public int getChunkCount() {
+        return (int) ((totalSize + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * Expected length of the chunk starting at the given offset,
+     * or -1 if the offset is not on a chunk boundary.
+     */
+    public int expectedChunkLength(long offset) {
+        if (offset < 0 || offset >= totalSize || offset % chunkSize != 0) {
+            return -1;
+        }
+        return (int) Math.min(chunkSize, totalSize - offset);
+    }
+
+    /**
+     * Claim the chunk at the given offset for writing. It stops counting as
+     * received until the write is verified, since the retry overwrites it.
+     * @return false if the session is being completed
+     */
+    public synchronized boolean beginChunk(long offset) {
+        if (completing) {
+            return false;
+        }
+        receivedChunks.clear(chunkIndex(offset));
+        activeWrites++;
+        touch();
+        return true;
+    }
+
+    /**
+     * Record a chunk whose bytes were written and matched their CRC32C.
+     */
+    public synchronized void markReceived(long offset, long crc32c) {
+        activeWrites--;
+        chunkCrcs[chunkIndex(offset)] = crc32c;
+        receivedChunks.set(chunkIndex(offset));
+        touch();
+    }
+
+    /**
+     * Release a chunk whose write failed; whatever reached the file is not trusted.
+     */
+    public synchronized void markFailed(long offset) {
+        activeWrites--;
+        receivedChunks.clear(chunkIndex(offset));
+        touch();
+    }
+
+    /**
+     * CRC32C of a received chunk as it was verified on arrival.
+     */
+    public synchronized long getChunkCrc(long offset) {
+        return chunkCrcs[chunkIndex(offset)];
+    }
+
+    public synchronized long getReceivedBytes() {
+        long received = (long) receivedChunks.cardinality() * chunkSize;
+        if (receivedChunks.get(getChunkCount() - 1)) {
+            // The last chunk may be short
+            received -= (long) getChunkCount() * chunkSize - totalSize;
+        }
+        return received;
+    }
+
+    public synchronized boolean isComplete() {
+        return receivedChunks.cardinality() == getChunkCount();
+    }
+
+    /**
+     * Offsets of chunks that have not been received yet.
+     */
+    public synchronized long[] getMissingOffsets() {
+        int chunkCount = getChunkCount();
+        long[] missing = new long[chunkCount - receivedChunks.cardinality()];
+        int i = 0;
+        for (int chunk = receivedChunks.nextClearBit(0); chunk < chunkCount; chunk = receivedChunks.nextClearBit(chunk + 1)) {
+            missing[i++] = (long) chunk * chunkSize;
+        }
+        return missing;
+    }
+
+    /**
+     * Claim the session for completion so it is finalized exactly once, and
+     * only when every chunk is received and none is being rewritten.
+     */
+    public synchronized void beginCompletion() {
+        if (completing) {
+            throw new IllegalStateException("Upload is already being completed");
+        }
+        if (!isComplete()) {
+            throw new IllegalStateException("Upload is missing " + getMissingOffsets().length + " chunks");
+        }
+        if (activeWrites > 0) {
+            throw new IllegalStateException("Upload still has chunks being written");
+        }
+        completing = true;
+    }
+
+    public synchronized void abortCompletion() {
+        completing = false;
+    }
+
+    /**
+     * Reopen chunks whose bytes no longer match the CRC32C they arrived with,
+     * so they can be uploaded again.
+     */
+    public synchronized void rejectChunks(List<Long> offsets) {
+        for (long offset : offsets) {
+            receivedChunks.clear(chunkIndex(offset));
+        }
+    }
+
+    public synchronized boolean isCompleting() {
+        return completing;
+    }
+
+    private int chunkIndex(long offset) {
+        return (int) (offset / chunkSize);
+    }
+
+    public void touch() {
+        lastActivityAt = Instant.now();
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public Purpose getPurpose() {
+        return purpose;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public String getExpectedSha256() {
+        return expectedSha256;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Instant getLastActivityAt() {
+        return lastActivityAt;
+    }
+}
@@ -0,0 +1,84 @@
+package com.projects.taskmanager.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Outbound interceptor that re-encodes JSON MESSAGE frames as CBOR for sessions
+ * that negotiated binary frames.
+ *
+ * The broker fans a broadcast out as one message per subscriber, all sharing the
+ * same payload array, so the encoded form is cached by payload identity and each
+ * broadcast is transcoded at most once.
+ */
+@Component
+public class BinaryFrameEncodingInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryFrameEncodingInterceptor.class);
+
+    private final StompContentNegotiation contentNegotiation;
+    private final ObjectMapper jsonMapper;
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    // byte[] uses identity equals/hashCode, so this is an identity cache released with the payload
+    private final Map<byte[], byte[]> encodedPayloads = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public BinaryFrameEncodingInterceptor(StompContentNegotiation contentNegotiation,
+                                          ObjectMapper jsonMapper) {
+        this.contentNegotiation = contentNegotiation;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!(message.getPayload() instanceof byte[] payload)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !contentNegotiation.prefersCbor(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+            return message;
+        }
+
+        Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+        MimeType mimeType = contentType instanceof MimeType mt ? mt
+                : contentType != null ? MimeTypeUtils.parseMimeType(contentType.toString()) : null;
+        if (mimeType == null || !MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(mimeType)) {
+            return message;
+        }
+
+        byte[] encoded = encodedPayloads.computeIfAbsent(payload, this::toCbor);
+        if (encoded == null) {
+            return message;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(StompContentNegotiation.APPLICATION_CBOR);
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+
+    private byte[] toCbor(byte[] json) {
+        try {
+            JsonNode tree = jsonMapper.readTree(json);
+            return cborMapper.writeValueAsBytes(tree);
+        } catch (IOException e) {
+            logger.warn("Failed to transcode STOMP payload to CBOR, sending JSON: {}", e.getMessage());
+            return null;
+        }
+    }
+}
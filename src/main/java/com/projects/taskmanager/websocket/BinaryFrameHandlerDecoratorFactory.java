@@ -0,0 +1,75 @@
+package com.projects.taskmanager.websocket;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.io.IOException;
+
+/**
+ * Sends the frames of CBOR sessions as binary WebSocket messages.
+ *
+ * The STOMP handler only writes binary frames for octet-stream payloads and
+ * hands everything else over as text, which would mangle CBOR bytes. Plain
+ * WebSocket sessions are allowed to negotiate CBOR here, and once they have,
+ * their frames go out binary with the encoded bytes untouched. SockJS
+ * sessions can only carry text and are left to JSON.
+ */
+@Component
+public class BinaryFrameHandlerDecoratorFactory implements WebSocketHandlerDecoratorFactory {
+
+    private final StompContentNegotiation contentNegotiation;
+
+    public BinaryFrameHandlerDecoratorFactory(StompContentNegotiation contentNegotiation) {
+        this.contentNegotiation = contentNegotiation;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                if (session instanceof SockJsSession) {
+                    super.afterConnectionEstablished(session);
+                    return;
+                }
+                contentNegotiation.allowBinaryFrames(session.getId());
+                super.afterConnectionEstablished(new BinaryFrameSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                try {
+                    super.afterConnectionClosed(session, closeStatus);
+                } finally {
+                    contentNegotiation.forget(session.getId());
+                }
+            }
+        };
+    }
+
+    private final class BinaryFrameSession extends WebSocketSessionDecorator {
+
+        BinaryFrameSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            // The encoded frame is kept as bytes, so it is sent exactly as the STOMP encoder wrote it
+            if (message instanceof TextMessage text && contentNegotiation.prefersCbor(getId())) {
+                message = new BinaryMessage(text.asBytes(), text.isLast());
+            }
+            super.sendMessage(message);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.projects.taskmanager.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inbound interceptor that picks up the content type requested on STOMP CONNECT
+ */
+@Component
+public class ContentNegotiationInterceptor implements ChannelInterceptor {
+
+    private final StompContentNegotiation contentNegotiation;
+
+    public ContentNegotiationInterceptor(StompContentNegotiation contentNegotiation) {
+        this.contentNegotiation = contentNegotiation;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            contentNegotiation.negotiate(
+                accessor.getSessionId(),
+                accessor.getFirstNativeHeader(StompContentNegotiation.ACCEPT_CONTENT_TYPE_HEADER)
+            );
+        }
+        return message;
+    }
+}
@@ -0,0 +1,77 @@
+package com.projects.taskmanager.websocket;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the payload content type each STOMP session negotiated on CONNECT.
+ * Clients opt into binary frames by sending an {@code accept-content-type}
+ * header; sessions that don't are served JSON. Only sessions on a plain
+ * WebSocket can carry binary frames, so SockJS sessions always get JSON.
+ */
+@Component
+public class StompContentNegotiation {
+
+    public static final String ACCEPT_CONTENT_TYPE_HEADER = "accept-content-type";
+    public static final MimeType APPLICATION_CBOR = MimeType.valueOf("application/cbor");
+
+    // Only sessions that negotiated a non-default type are stored
+    private final Map<String, MimeType> sessionContentTypes = new ConcurrentHashMap<>();
+    private final Set<String> binarySessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Allow a session to negotiate CBOR, once its transport is known to send binary frames
+     */
+    public void allowBinaryFrames(String sessionId) {
+        binarySessions.add(sessionId);
+    }
+
+    /**
+     * Record the preferred content type for a session from its CONNECT header
+     */
+    public void negotiate(String sessionId, String acceptHeader) {
+        if (sessionId == null || acceptHeader == null || acceptHeader.isBlank() || !binarySessions.contains(sessionId)) {
+            return;
+        }
+        List<MimeType> accepted;
+        try {
+            accepted = MimeTypeUtils.parseMimeTypes(acceptHeader);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        for (MimeType mimeType : accepted) {
+            if (APPLICATION_CBOR.equalsTypeAndSubtype(mimeType)) {
+                sessionContentTypes.put(sessionId, APPLICATION_CBOR);
+                return;
+            }
+            if (MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(mimeType)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Check whether a session should receive CBOR frames
+     */
+    public boolean prefersCbor(String sessionId) {
+        return sessionId != null && sessionContentTypes.get(sessionId) != null;
+    }
+
+    public void forget(String sessionId) {
+        sessionContentTypes.remove(sessionId);
+        binarySessions.remove(sessionId);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        forget(event.getSessionId());
+    }
+}
@@ -0,0 +1,97 @@
+package com.projects.taskmanager.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.projects.taskmanager.model.Role;
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskComment;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.observability.SqlStatementScope;
+import com.projects.taskmanager.repository.TaskCommentRepository;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@AutoConfigureGraphQlTester
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Comment thread statement budget")
+class CommentThreadStatementBudgetTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskCommentRepository taskCommentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long taskId;
+
+    @BeforeEach
+    void setUp() {
+        User author = userRepository.save(new User("budget", "budget@example.com", "Budget", "Test", "secret", Role.USER));
+        Task task = taskRepository.save(Task.create("Threaded task", "Has a deep thread"));
+        taskId = task.getId();
+
+        // Three threads, each three replies deep
+        for (int thread = 0; thread < 3; thread++) {
+            TaskComment parent = comment(task, author, null);
+            for (int depth = 0; depth < 3; depth++) {
+                parent = comment(task, author, parent);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("should load a page of threads in a fixed number of statements")
+    void shouldLoadThreadsWithinBudget() {
+        try (SqlStatementScope sql = SqlStatementScope.open()) {
+            graphQlTester.document("""
+                    query($taskId: ID!) {
+                        commentThread(taskId: $taskId, first: 2) {
+                            hasNextPage
+                            content {
+                                comment { content author { username } }
+                                replies { replies { replies { comment { content } } } }
+                            }
+                        }
+                    }
+                    """)
+                .variable("taskId", taskId)
+                .execute()
+                .path("commentThread.hasNextPage").entity(Boolean.class).isEqualTo(true)
+                .path("commentThread.content[1].replies[0].replies[0].replies[0].comment.content").entity(String.class).isEqualTo("reply");
+
+            // Top-level comments, their task and every reply beneath them
+            assertTrue(sql.getStatementCount() <= 3, sql.describe());
+        }
+    }
+
+    private TaskComment comment(Task task, User author, TaskComment parent) {
+        TaskComment comment = new TaskComment(task, author, parent == null ? "top" : "reply", parent);
+        comment.setPath(parent == null ? TaskComment.ROOT_PATH : parent.getChildPath());
+        return taskCommentRepository.save(comment);
+    }
+}
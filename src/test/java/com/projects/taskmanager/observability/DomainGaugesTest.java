@@ -0,0 +1,96 @@
+package com.projects.taskmanager.observability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskStatus;
+import com.projects.taskmanager.repository.TaskRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The gauges follow committed changes. Not transactional, since nothing is
+ * counted until a commit succeeds.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Domain gauges")
+class DomainGaugesTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("a status change should move one task between the status gauges")
+    void shouldMoveTaskBetweenStatuses() {
+        Task task = taskRepository.save(Task.create("Gauged", "Status changes"));
+        double todo = tasks(TaskStatus.TODO);
+        double inProgress = tasks(TaskStatus.IN_PROGRESS);
+
+        update(task, t -> t.setStatus(TaskStatus.IN_PROGRESS));
+
+        assertEquals(todo - 1, tasks(TaskStatus.TODO));
+        assertEquals(inProgress + 1, tasks(TaskStatus.IN_PROGRESS));
+    }
+
+    @Test
+    @DisplayName("finishing an overdue task should take it off the overdue gauge")
+    void shouldStopCountingFinishedTaskAsOverdue() {
+        Task task = Task.create("Late", "Past its due date");
+        task.setDueDate(LocalDate.now().minusDays(3));
+        double overdue = overdue();
+        task = taskRepository.save(task);
+        assertEquals(overdue + 1, overdue());
+        double done = tasks(TaskStatus.DONE);
+
+        update(task, t -> t.setStatus(TaskStatus.DONE));
+
+        assertEquals(overdue, overdue());
+        assertEquals(done + 1, tasks(TaskStatus.DONE));
+    }
+
+    @Test
+    @DisplayName("a rolled back change should not move the gauges")
+    void shouldIgnoreRolledBackChange() {
+        Task task = taskRepository.save(Task.create("Gauged", "Rolled back"));
+        double todo = tasks(TaskStatus.TODO);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            taskRepository.findById(task.getId()).orElseThrow().setStatus(TaskStatus.DONE);
+            taskRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(todo, tasks(TaskStatus.TODO));
+    }
+
+    private void update(Task task, Consumer<Task> change) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                change.accept(taskRepository.findById(task.getId()).orElseThrow()));
+    }
+
+    private double tasks(TaskStatus status) {
+        return meterRegistry.get("tasks.count").tag("status", status.name()).gauge().value();
+    }
+
+    private double overdue() {
+        return meterRegistry.get("tasks.overdue").gauge().value();
+    }
+}
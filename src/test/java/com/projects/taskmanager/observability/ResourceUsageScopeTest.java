@@ -0,0 +1,106 @@
+package com.projects.taskmanager.observability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.context.ContextSnapshotFactory;
+
+@DisplayName("Resource usage scope")
+class ResourceUsageScopeTest {
+
+    private static final int MB = 1024 * 1024;
+
+    private final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+
+    @Test
+    @DisplayName("should add up allocation on every thread the work ran on and report once all are done")
+    void shouldMeasureHandedOffWork() throws Exception {
+        AtomicReference<ResourceUsageScope> finished = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ResourceUsageScope scope = ResourceUsageScope.open();
+            allocate(MB);
+            CompletableFuture<Void> handedOff = CompletableFuture.runAsync(snapshots.captureAll().wrap(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                allocate(2 * MB);
+            }), executor);
+            scope.leave();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            scope.finish(finished::set);
+
+            // The other thread's segment is still open
+            assertNull(finished.get());
+
+            release.countDown();
+            handedOff.get(5, TimeUnit.SECONDS);
+
+            assertSame(scope, finished.get());
+            assertTrue(scope.getAllocatedBytes() >= 3 * MB, "allocated " + scope.getAllocatedBytes());
+            assertTrue(scope.getCpuNanos() > 0);
+            assertTrue(scope.isMeasured());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("should mark an outer scope when another is opened inside it")
+    void shouldFlagNestedScopes() {
+        ResourceUsageScope outer = ResourceUsageScope.open();
+        ResourceUsageScope inner = ResourceUsageScope.open();
+        allocate(MB);
+        inner.leave();
+        outer.leave();
+        inner.finish(scope -> { });
+        outer.finish(scope -> { });
+
+        assertTrue(outer.hasNestedScopes());
+        assertFalse(inner.hasNestedScopes());
+        assertTrue(outer.getAllocatedBytes() >= inner.getAllocatedBytes());
+    }
+
+    @Test
+    @DisplayName("leaving should also end segments left open inside the scope")
+    void shouldCloseAbandonedSegmentsOnLeave() {
+        AtomicReference<ResourceUsageScope> finished = new AtomicReference<>();
+        ResourceUsageScope outer = ResourceUsageScope.open();
+        // An inner operation that failed before it could leave
+        ResourceUsageScope abandoned = ResourceUsageScope.open();
+
+        outer.leave();
+        outer.finish(finished::set);
+
+        assertSame(outer, finished.get());
+        // Nothing is left on the thread for the next scope to nest in
+        ResourceUsageScope.open().leave();
+        assertFalse(abandoned.hasNestedScopes());
+    }
+
+    private static void allocate(int bytes) {
+        byte[][] chunks = new byte[bytes / 1024][];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new byte[1024];
+        }
+        assertEquals(bytes / 1024, chunks.length);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
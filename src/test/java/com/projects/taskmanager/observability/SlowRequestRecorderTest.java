@@ -0,0 +1,110 @@
+package com.projects.taskmanager.observability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.projects.taskmanager.observability.SlowRequestRecorder.SlowRequest;
+import com.projects.taskmanager.observability.SlowRequestRecorder.WindowSnapshot;
+
+@DisplayName("Slow request recorder")
+class SlowRequestRecorderTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    @Test
+    @DisplayName("should drop windows that leave the ring and reuse their slots")
+    void shouldRollWindowsOver() {
+        // Every request is slow; three windows in the ring
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ZERO, WINDOW, 3, 2, Duration.ofSeconds(1));
+
+        at(recorder, 100);
+        record(recorder, "first");
+        at(recorder, 101);
+        record(recorder, "second");
+
+        assertEquals(List.of(List.of("second"), List.of("first")), operations(recorder.snapshot()));
+        assertEquals(Instant.ofEpochMilli(101 * WINDOW.toMillis()), recorder.snapshot().get(0).start());
+
+        // Window 103 takes the slot window 100 held
+        at(recorder, 103);
+        record(recorder, "fourth");
+
+        assertEquals(List.of(List.of("fourth"), List.of("second")), operations(recorder.snapshot()));
+
+        // Nothing recorded since window 103; 101 has left the ring even though its slot was never reused
+        at(recorder, 104);
+
+        assertEquals(List.of(List.of("fourth")), operations(recorder.snapshot()));
+
+        at(recorder, 107);
+
+        assertTrue(recorder.snapshot().isEmpty());
+    }
+
+    @Test
+    @DisplayName("a full window should keep its slowest requests")
+    void shouldKeepSlowestPerWindow() throws InterruptedException {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ZERO, WINDOW, 3, 2, Duration.ofSeconds(1));
+        at(recorder, 100);
+
+        record(recorder, "fast");
+        record(recorder, "fast");
+        SlowRequestRecorder.InFlight slow = recorder.start("slow", Map.of());
+        Thread.sleep(20);
+        recorder.finish(slow, 0);
+
+        List<SlowRequest> kept = recorder.snapshot().get(0).requests();
+        assertEquals(List.of("slow", "fast"), kept.stream().map(SlowRequest::operation).toList());
+        assertTrue(kept.get(0).durationMs() >= 20);
+    }
+
+    @Test
+    @DisplayName("the sampler should capture a slow request's stack from its own daemon thread")
+    void shouldSampleStacksOnDaemonThread() throws InterruptedException {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(Duration.ofMillis(50), WINDOW, 3, 2,
+                Duration.ofMillis(10));
+        recorder.startSampler();
+        try {
+            SlowRequestRecorder.InFlight request = recorder.start("sleepy", Map.of("password", "hunter2"));
+            Thread.sleep(300);
+            recorder.finish(request, 3);
+
+            Thread sampler = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().equals("slow-request-sampler"))
+                    .findFirst().orElseThrow();
+            assertTrue(sampler.isDaemon());
+
+            SlowRequest recorded = recorder.snapshot().get(0).requests().get(0);
+            assertEquals(Map.of("password", "[redacted]"), recorded.variables());
+            assertNotNull(recorded.stack());
+            assertTrue(recorded.stack().stream().anyMatch(frame -> frame.contains("Thread.sleep")));
+        } finally {
+            recorder.stopSampler();
+        }
+    }
+
+    private static void at(SlowRequestRecorder recorder, long window) {
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(window * WINDOW.toMillis() + 1_000), ZoneOffset.UTC);
+        ReflectionTestUtils.setField(recorder, "clock", clock);
+    }
+
+    private static void record(SlowRequestRecorder recorder, String operation) {
+        recorder.finish(recorder.start(operation, Map.of()), 0);
+    }
+
+    private static List<List<String>> operations(List<WindowSnapshot> snapshot) {
+        return snapshot.stream()
+                .map(window -> window.requests().stream().map(SlowRequest::operation).toList())
+                .toList();
+    }
+}
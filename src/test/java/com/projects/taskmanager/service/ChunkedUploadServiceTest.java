@@ -0,0 +1,157 @@
+package com.projects.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.storage.ContentAddressedStorage;
+import com.projects.taskmanager.storage.UploadSession;
+
+@DisplayName("Chunked uploads")
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 16;
+
+    @TempDir
+    Path tempDir;
+
+    private ChunkedUploadService service;
+    private AvatarService avatarService;
+    private User user;
+    private final byte[] content = "0123456789abcdef0123456789ABCDEF0123456789".getBytes();
+    private final AtomicReference<byte[]> adopted = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ContentAddressedStorage storage = mock(ContentAddressedStorage.class);
+        when(storage.newTempFile()).thenReturn(tempDir.resolve("upload.part"));
+        avatarService = mock(AvatarService.class);
+        when(avatarService.adoptAvatar(any(), any(), any())).thenAnswer(invocation -> {
+            adopted.set(Files.readAllBytes(invocation.getArgument(1)));
+            return "/avatars/1.png";
+        });
+
+        service = new ChunkedUploadService(mock(TaskAttachmentService.class), avatarService, storage,
+                mock(StorageQuotaService.class));
+        ReflectionTestUtils.setField(service, "chunkSize", DataSize.ofBytes(CHUNK_SIZE));
+        user = new User("uploader", "uploader@example.com", "Up", "Loader");
+        user.setId(1L);
+    }
+
+    @Test
+    @DisplayName("should resume after a dropped chunk and assemble the file")
+    void shouldResumeMissingChunks() throws Exception {
+        UploadSession session = init();
+        send(session, 0, chunk(0));
+        send(session, 32, chunk(32));
+
+        assertArrayEquals(new long[] {16}, service.getUpload(session.getId(), user).getMissingOffsets());
+        assertThrows(IllegalStateException.class, () -> service.completeAvatar(session.getId(), user));
+
+        send(session, 16, chunk(16));
+
+        assertEquals("/avatars/1.png", service.completeAvatar(session.getId(), user));
+        assertArrayEquals(content, adopted.get());
+    }
+
+    @Test
+    @DisplayName("a failed retry of a received chunk should leave it missing rather than corrupt")
+    void shouldReopenChunkWhenRetryFails() throws Exception {
+        UploadSession session = init();
+        sendAll(session);
+
+        byte[] corrupt = chunk(16);
+        corrupt[3] ^= 1;
+        assertThrows(IllegalArgumentException.class,
+                () -> service.writeChunk(session.getId(), user, 16, new ByteArrayInputStream(corrupt), crc(chunk(16))));
+
+        assertArrayEquals(new long[] {16}, session.getMissingOffsets());
+        send(session, 16, chunk(16));
+        service.completeAvatar(session.getId(), user);
+        assertArrayEquals(content, adopted.get());
+    }
+
+    @Test
+    @DisplayName("completion should reopen chunks whose bytes changed after they were verified")
+    void shouldRecheckChunksOnCompletion() throws Exception {
+        UploadSession session = init();
+        sendAll(session);
+        try (FileChannel channel = FileChannel.open(session.getFile(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), 20);
+        }
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.completeAvatar(session.getId(), user));
+        assertTrue(e.getMessage().contains("[16]"));
+        assertArrayEquals(new long[] {16}, session.getMissingOffsets());
+        assertFalse(session.isCompleting());
+
+        send(session, 16, chunk(16));
+        service.completeAvatar(session.getId(), user);
+        assertArrayEquals(content, adopted.get());
+    }
+
+    @Test
+    @DisplayName("chunk writes and completion should exclude each other")
+    void shouldNotWriteWhileCompleting() throws Exception {
+        UploadSession session = init();
+        sendAll(session);
+
+        assertTrue(session.beginChunk(0));
+        assertThrows(IllegalStateException.class, session::beginCompletion);
+        session.markReceived(0, crc32c(chunk(0)));
+
+        session.beginCompletion();
+        assertFalse(session.beginChunk(0));
+        assertThrows(IllegalStateException.class,
+                () -> service.writeChunk(session.getId(), user, 0, new ByteArrayInputStream(chunk(0)), crc(chunk(0))));
+    }
+
+    private UploadSession init() throws IOException {
+        return service.initUpload(UploadSession.Purpose.AVATAR, user, null, "avatar.png", "image/png",
+                content.length, null, null);
+    }
+
+    private void sendAll(UploadSession session) throws IOException {
+        for (long offset = 0; offset < content.length; offset += CHUNK_SIZE) {
+            send(session, offset, chunk(offset));
+        }
+    }
+
+    private void send(UploadSession session, long offset, byte[] chunk) throws IOException {
+        service.writeChunk(session.getId(), user, offset, new ByteArrayInputStream(chunk), crc(chunk));
+    }
+
+    private byte[] chunk(long offset) {
+        return Arrays.copyOfRange(content, (int) offset, (int) Math.min(offset + CHUNK_SIZE, content.length));
+    }
+
+    private static String crc(byte[] chunk) {
+        return Long.toHexString(crc32c(chunk));
+    }
+
+    private static long crc32c(byte[] chunk) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(chunk);
+        return checksum.getValue();
+    }
+}
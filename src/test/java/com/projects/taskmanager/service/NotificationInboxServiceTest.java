@@ -0,0 +1,113 @@
+package com.projects.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projects.taskmanager.model.Notification;
+
+/**
+ * Unread counters as notifications are recorded, read and pruned. Not
+ * transactional: the races need each call to commit on its own.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Notification inbox counters")
+class NotificationInboxServiceTest {
+
+    // Recipients are plain ids, so each test takes fresh ones
+    private static final AtomicLong RECIPIENTS = new AtomicLong(1_000_000);
+
+    @Autowired
+    private NotificationInboxService inboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("concurrent first notifications should all be counted")
+    void shouldCountConcurrentFirstNotifications() throws Exception {
+        int recipients = 20;
+        int perRecipient = 4;
+        List<Long> recipientIds = new ArrayList<>();
+        for (int i = 0; i < recipients; i++) {
+            recipientIds.add(RECIPIENTS.incrementAndGet());
+        }
+
+        // One thread per notification of a recipient, released together; each holds
+        // two connections at most, so this stays inside the default pool
+        ExecutorService executor = Executors.newFixedThreadPool(perRecipient);
+        try {
+            CyclicBarrier start = new CyclicBarrier(perRecipient);
+            List<Future<Notification>> results = new ArrayList<>();
+            for (Long recipientId : recipientIds) {
+                for (int i = 0; i < perRecipient; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return inboxService.record(recipientId, null, "TASK_ASSIGNED");
+                    }));
+                }
+            }
+            for (Future<Notification> result : results) {
+                assertNotNull(result.get().getId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (Long recipientId : recipientIds) {
+            assertEquals(perRecipient, inboxService.getUnreadCount(recipientId));
+        }
+    }
+
+    @Test
+    @DisplayName("pruning should release exactly the expired unread notifications")
+    void shouldReleaseExpiredUnreadOnPrune() {
+        Long recipientId = RECIPIENTS.incrementAndGet();
+        Notification expiredRead = inboxService.record(recipientId, null, "TASK_ASSIGNED");
+        Notification expiredUnread = inboxService.record(recipientId, null, "TASK_ASSIGNED");
+        inboxService.markRead(recipientId, expiredRead.getId());
+        inboxService.record(recipientId, null, "TASK_UPDATED");
+        age(expiredRead, expiredUnread);
+        assertEquals(2, inboxService.getUnreadCount(recipientId));
+
+        inboxService.pruneExpired();
+
+        assertEquals(1, inboxService.getUnreadCount(recipientId));
+        assertEquals(1, inboxService.getNotifications(recipientId, 10, null).getContent().size());
+    }
+
+    @Test
+    @DisplayName("reading should never take the count below zero")
+    void shouldClampCountAtZero() {
+        Long recipientId = RECIPIENTS.incrementAndGet();
+        Notification notification = inboxService.record(recipientId, null, "TASK_ASSIGNED");
+
+        assertEquals(0, inboxService.markRead(recipientId, notification.getId()));
+        assertEquals(0, inboxService.markRead(recipientId, notification.getId()));
+    }
+
+    // Backdate past the TTL; created_at isn't updatable through the entity
+    private void age(Notification... notifications) {
+        Timestamp expired = Timestamp.from(Instant.now().minus(Duration.ofDays(60)));
+        for (Notification notification : notifications) {
+            jdbcTemplate.update("UPDATE notification SET created_at = ? WHERE id = ?", expired, notification.getId());
+        }
+    }
+}
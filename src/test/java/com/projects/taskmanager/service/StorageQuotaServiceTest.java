@@ -0,0 +1,143 @@
+package com.projects.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.projects.taskmanager.graphql.StorageUsageSummary;
+import com.projects.taskmanager.model.StorageUsage.Scope;
+import com.projects.taskmanager.service.exception.StorageQuotaExceededException;
+
+/**
+ * Quota charges and refunds against the usage rows. Not transactional, so
+ * every charge commits and the in-memory totals follow as they do in
+ * production. Owners are fresh ids with no attachments.
+ */
+@SpringBootTest(properties = {
+    "storage.quota.per-user=10KB",
+    "storage.quota.per-task=4KB"
+})
+@ActiveProfiles("test")
+@DisplayName("Storage quota")
+class StorageQuotaServiceTest {
+
+    private static final AtomicLong OWNERS = new AtomicLong(2_000_000);
+
+    @Autowired
+    private StorageQuotaService quotaService;
+
+    @Test
+    @DisplayName("should charge and refund both the uploader and the task")
+    void shouldChargeAndRefund() {
+        Long userId = OWNERS.incrementAndGet();
+        Long taskId = OWNERS.incrementAndGet();
+
+        quotaService.charge(userId, taskId, 1500);
+        quotaService.charge(userId, taskId, 500);
+
+        assertUsage(Scope.USER, userId, 2000, 2);
+        assertUsage(Scope.TASK, taskId, 2000, 2);
+
+        quotaService.refund(userId, taskId, 1500);
+
+        assertUsage(Scope.USER, userId, 500, 1);
+        assertUsage(Scope.TASK, taskId, 500, 1);
+    }
+
+    @Test
+    @DisplayName("should reject a charge over either quota and leave both totals alone")
+    void shouldRejectChargeOverQuota() {
+        Long userId = OWNERS.incrementAndGet();
+        Long taskId = OWNERS.incrementAndGet();
+        quotaService.charge(userId, taskId, 3000);
+
+        StorageQuotaExceededException e = assertThrows(StorageQuotaExceededException.class,
+                () -> quotaService.charge(userId, taskId, 2000));
+
+        assertNotNull(e.getMessage());
+        assertUsage(Scope.USER, userId, 3000, 1);
+        assertUsage(Scope.TASK, taskId, 3000, 1);
+        assertThrows(StorageQuotaExceededException.class, () -> quotaService.checkQuota(userId, taskId, 2000));
+    }
+
+    @Test
+    @DisplayName("a refund should never take a total below zero")
+    void shouldClampRefundAtZero() {
+        Long userId = OWNERS.incrementAndGet();
+        Long taskId = OWNERS.incrementAndGet();
+        quotaService.charge(userId, taskId, 100);
+
+        quotaService.refund(userId, taskId, 100);
+        quotaService.refund(userId, taskId, 100);
+
+        assertUsage(Scope.USER, userId, 0, 0);
+    }
+
+    @Test
+    @DisplayName("concurrent first charges should create the rows once and never overshoot the quota")
+    void shouldNotOvershootUnderConcurrentCharges() throws Exception {
+        Long userId = OWNERS.incrementAndGet();
+        Long taskId = OWNERS.incrementAndGet();
+        int uploads = 4;
+
+        // 4 x 1.5KB against a 4KB task quota: only two fit
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        int charged = 0;
+        try {
+            CyclicBarrier start = new CyclicBarrier(uploads);
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    quotaService.charge(userId, taskId, 1536);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                    charged++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(StorageQuotaExceededException.class, e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(2, charged);
+        assertUsage(Scope.TASK, taskId, 2 * 1536, 2);
+    }
+
+    @Test
+    @DisplayName("reconciliation should drop totals that no attachment backs")
+    void shouldReconcileDriftedTotals() {
+        Long userId = OWNERS.incrementAndGet();
+        Long taskId = OWNERS.incrementAndGet();
+        quotaService.charge(userId, taskId, 1000);
+
+        assertTrue(quotaService.reconcile() >= 2);
+
+        assertUsage(Scope.USER, userId, 0, 0);
+        assertUsage(Scope.TASK, taskId, 0, 0);
+    }
+
+    private void assertUsage(Scope scope, Long ownerId, long bytes, long files) {
+        StorageUsageSummary usage = quotaService.getUsage(scope, ownerId);
+        assertEquals(bytes, usage.getUsedBytes(), scope + " bytes");
+        assertEquals(files, usage.getFileCount(), scope + " files");
+    }
+}
@@ -0,0 +1,144 @@
+package com.projects.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.projects.taskmanager.graphql.ActivityPage;
+import com.projects.taskmanager.model.ActivityType;
+import com.projects.taskmanager.model.Role;
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskActivity;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Feed paging where many activities share one creation time, as they do
+ * when a single update logs several changes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Activity feeds")
+class TaskActivityServiceTest {
+
+    // Later than anything else in the database, so the global feed starts with these rows
+    private static final Instant SAME_INSTANT = Instant.parse("2100-01-01T00:00:00Z");
+
+    @Autowired
+    private TaskActivityService taskActivityService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("feed", "feed@example.com", "Feed", "Test", "secret", Role.USER));
+        task = taskRepository.save(Task.create("Busy task", "Lots of activity"));
+    }
+
+    @Test
+    @DisplayName("should page through activities with equal timestamps without skipping or repeating any")
+    void shouldPageThroughEqualTimestamps() {
+        List<Long> ids = logAtSameInstant(List.of(ActivityType.TASK_UPDATED, ActivityType.TASK_ASSIGNED,
+                ActivityType.TASK_STATUS_CHANGED, ActivityType.COMMENT_ADDED, ActivityType.TASK_UPDATED,
+                ActivityType.TASK_DUE_DATE_CHANGED, ActivityType.TASK_UPDATED));
+
+        List<Long> seen = readAll(after -> taskActivityService.getActivityFeed(task.getId(), null, 2, after));
+
+        assertEquals(ids.stream().sorted(Comparator.reverseOrder()).toList(), seen);
+    }
+
+    @Test
+    @DisplayName("a type filter should apply across page boundaries on equal timestamps")
+    void shouldFilterAcrossPages() {
+        List<ActivityType> types = List.of(ActivityType.TASK_UPDATED, ActivityType.COMMENT_ADDED,
+                ActivityType.TASK_UPDATED, ActivityType.TASK_ASSIGNED, ActivityType.TASK_UPDATED);
+        List<Long> ids = logAtSameInstant(types);
+        List<Long> updates = new ArrayList<>();
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            if (types.get(i) == ActivityType.TASK_UPDATED) {
+                updates.add(ids.get(i));
+            }
+        }
+
+        List<Long> seen = readAll(after ->
+                taskActivityService.getActivityFeed(task.getId(), Set.of(ActivityType.TASK_UPDATED), 1, after));
+
+        assertEquals(updates, seen);
+    }
+
+    @Test
+    @DisplayName("the global feed should use the same cursor on equal timestamps")
+    void shouldPageGlobalFeed() {
+        List<Long> ids = logAtSameInstant(List.of(ActivityType.TASK_CREATED, ActivityType.TASK_UPDATED,
+                ActivityType.TASK_UPDATED, ActivityType.TASK_DELETED));
+
+        ActivityPage first = taskActivityService.getGlobalActivityFeed(null, 3, null);
+        ActivityPage second = taskActivityService.getGlobalActivityFeed(null, 3, first.getEndCursor());
+
+        assertEquals(List.of(ids.get(3), ids.get(2), ids.get(1)),
+                first.getContent().stream().map(TaskActivity::getId).toList());
+        assertTrue(first.isHasNextPage());
+        assertEquals(ids.get(0), second.getContent().get(0).getId());
+    }
+
+    @Test
+    @DisplayName("should reject a cursor it did not issue")
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskActivityService.getActivityFeed(task.getId(), null, 2, "not-a-cursor"));
+    }
+
+    private List<Long> logAtSameInstant(List<ActivityType> types) {
+        List<Long> ids = new ArrayList<>();
+        for (ActivityType type : types) {
+            ids.add(taskActivityService.logActivity(task, user, type, type.name()).getId());
+        }
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE task_activity SET created_at = :createdAt WHERE task_id = :taskId")
+                .setParameter("createdAt", Timestamp.from(SAME_INSTANT))
+                .setParameter("taskId", task.getId())
+                .executeUpdate();
+        entityManager.clear();
+        return ids;
+    }
+
+    private static List<Long> readAll(Function<String, ActivityPage> feed) {
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        ActivityPage page;
+        do {
+            page = feed.apply(after);
+            page.getContent().forEach(activity -> seen.add(activity.getId()));
+            after = page.getEndCursor();
+        } while (page.isHasNextPage());
+        return seen;
+    }
+}
@@ -0,0 +1,141 @@
+package com.projects.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.projects.taskmanager.graphql.CommentThread;
+import com.projects.taskmanager.graphql.CommentThreadPage;
+import com.projects.taskmanager.model.Role;
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskComment;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.repository.TaskCommentRepository;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@WithMockUser(roles = "USER")
+@DisplayName("Task comment threads")
+class TaskCommentServiceTest {
+
+    @Autowired
+    private TaskCommentService taskCommentService;
+
+    @Autowired
+    private TaskCommentRepository taskCommentRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User author;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        author = userRepository.save(new User("threads", "threads@example.com", "Thread", "Test", "secret", Role.USER));
+        task = taskRepository.save(Task.create("Threaded task", "Has nested replies"));
+    }
+
+    @Test
+    @DisplayName("deleting a comment should remove every reply beneath it and nothing else")
+    void shouldDeleteWholeSubtree() {
+        TaskComment first = comment(null, "first");
+        TaskComment reply = comment(first, "reply");
+        TaskComment nested = comment(reply, "nested");
+        comment(nested, "deepest");
+        TaskComment sibling = comment(first, "sibling");
+        TaskComment second = comment(null, "second");
+        TaskComment secondReply = comment(second, "second reply");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(taskCommentService.deleteComment(reply.getId(), author));
+        entityManager.clear();
+
+        assertEquals(List.of(first.getId(), sibling.getId(), second.getId(), secondReply.getId()),
+                taskCommentRepository.findByTaskIdOrderByCreatedAtAsc(task.getId()).stream()
+                        .map(TaskComment::getId).sorted().toList());
+        assertEquals(4, taskCommentService.getCommentCountByTaskId(task.getId()));
+    }
+
+    @Test
+    @DisplayName("deleting a top-level comment should leave the neighbouring threads intact")
+    void shouldDeleteOnlyItsOwnThread() {
+        TaskComment first = comment(null, "first");
+        comment(comment(first, "reply"), "nested");
+        TaskComment second = comment(null, "second");
+        TaskComment secondReply = comment(second, "second reply");
+        entityManager.flush();
+        entityManager.clear();
+
+        taskCommentService.deleteComment(first.getId(), author);
+        entityManager.clear();
+
+        CommentThreadPage page = taskCommentService.getCommentThread(task.getId(), 10, null);
+        assertEquals(1, page.getContent().size());
+        CommentThread thread = page.getContent().get(0);
+        assertEquals(second.getId(), thread.getComment().getId());
+        assertEquals(secondReply.getId(), thread.getReplies().get(0).getComment().getId());
+    }
+
+    @Test
+    @DisplayName("backfill should give older comments the paths a new comment would get")
+    void shouldBackfillPaths() {
+        TaskComment first = comment(null, "first");
+        TaskComment reply = comment(first, "reply");
+        TaskComment nested = comment(reply, "nested");
+        TaskComment second = comment(null, "second");
+        entityManager.flush();
+        Map<Long, String> expected = taskCommentRepository.findByTaskIdOrderByCreatedAtAsc(task.getId()).stream()
+                .collect(Collectors.toMap(TaskComment::getId, TaskComment::getPath));
+        entityManager.createNativeQuery("UPDATE task_comment SET path = NULL WHERE task_id = :taskId")
+                .setParameter("taskId", task.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        taskCommentService.backfillPaths();
+        entityManager.clear();
+
+        Map<Long, TaskComment> backfilled = taskCommentRepository.findByTaskIdOrderByCreatedAtAsc(task.getId()).stream()
+                .collect(Collectors.toMap(TaskComment::getId, Function.identity()));
+        for (Map.Entry<Long, String> path : expected.entrySet()) {
+            assertEquals(path.getValue(), backfilled.get(path.getKey()).getPath());
+        }
+        assertEquals(2, backfilled.get(nested.getId()).getDepth());
+
+        CommentThreadPage page = taskCommentService.getCommentThread(task.getId(), 10, null);
+        assertEquals(List.of(first.getId(), second.getId()),
+                page.getContent().stream().map(thread -> thread.getComment().getId()).toList());
+        assertEquals(nested.getId(),
+                page.getContent().get(0).getReplies().get(0).getReplies().get(0).getComment().getId());
+    }
+
+    private TaskComment comment(TaskComment parent, String content) {
+        TaskComment comment = new TaskComment(task, author, content, parent);
+        comment.setPath(parent == null ? TaskComment.ROOT_PATH : parent.getChildPath());
+        return taskCommentRepository.save(comment);
+    }
+}
@@ -0,0 +1,82 @@
+package com.projects.taskmanager.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.projects.taskmanager.graphql.TaskSummary;
+import com.projects.taskmanager.graphql.input.CreateTaskCommentInput;
+import com.projects.taskmanager.model.Role;
+import com.projects.taskmanager.model.Task;
+import com.projects.taskmanager.model.TaskComment;
+import com.projects.taskmanager.model.User;
+import com.projects.taskmanager.repository.TaskRepository;
+import com.projects.taskmanager.repository.TaskRepository.SummaryRow;
+import com.projects.taskmanager.repository.UserRepository;
+
+/**
+ * With counters on, the totals kept on the task should match a count of the
+ * child tables after every change.
+ */
+@SpringBootTest(properties = "task.summary-counters=true")
+@ActiveProfiles("test")
+@Transactional
+@WithMockUser(roles = "USER")
+@DisplayName("Task summary counters")
+class TaskSummaryServiceTest {
+
+    @Autowired
+    private TaskSummaryService taskSummaryService;
+
+    @Autowired
+    private TaskCommentService taskCommentService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("counters should follow comments added and subtrees deleted")
+    void shouldKeepCountersInStepWithComments() {
+        User author = userRepository.save(new User("summary", "summary@example.com", "Sum", "Mary", "secret", Role.USER));
+        Task task = taskRepository.save(Task.create("Summarised", "Counted"));
+        Task untouched = taskRepository.save(Task.create("Quiet", "No activity"));
+        List<Long> ids = List.of(task.getId(), untouched.getId());
+
+        // The first summary counts the tasks and starts their counters
+        assertEquals(0, taskSummaryService.getSummaries(ids).get(task.getId()).getCommentCount());
+
+        TaskComment root = taskCommentService.createComment(new CreateTaskCommentInput(task.getId(), "root"), author);
+        taskCommentService.createComment(new CreateTaskCommentInput(task.getId(), "reply", root.getId()), author);
+        taskCommentService.createComment(new CreateTaskCommentInput(task.getId(), "other"), author);
+        assertMatchesCount(task.getId(), 3, 3);
+
+        taskCommentService.deleteComment(root.getId(), author);
+        assertMatchesCount(task.getId(), 1, 4);
+
+        TaskSummary quiet = taskSummaryService.getSummaries(ids).get(untouched.getId());
+        assertEquals(0, quiet.getCommentCount());
+        assertNull(quiet.getLastActivityAt());
+    }
+
+    private void assertMatchesCount(Long taskId, int comments, int activities) {
+        TaskSummary summary = taskSummaryService.getSummaries(List.of(taskId)).get(taskId);
+        SummaryRow counted = taskRepository.summarize(List.of(taskId)).get(0);
+
+        assertEquals(comments, summary.getCommentCount());
+        assertEquals(activities, summary.getActivityCount());
+        assertEquals(counted.getCommentCount(), summary.getCommentCount());
+        assertEquals(counted.getActivityCount(), summary.getActivityCount());
+        assertNotNull(summary.getLastActivityAt());
+    }
+}
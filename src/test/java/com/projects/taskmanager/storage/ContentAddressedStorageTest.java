@@ -0,0 +1,190 @@
+package com.projects.taskmanager.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.projects.taskmanager.model.StoredBlob;
+import com.projects.taskmanager.repository.StoredBlobRepository;
+
+/**
+ * Reference counting of deduplicated content when uploads, releases and
+ * reclaims of the same content overlap. Not transactional: every call
+ * commits on its own, as it does in production.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Content-addressed storage")
+class ContentAddressedStorageTest {
+
+    @TempDir
+    static Path storageRoot;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("storage.local.root", () -> storageRoot.resolve("blobs").toString());
+        registry.add("storage.temp-dir", () -> storageRoot.resolve("tmp").toString());
+    }
+
+    @Autowired
+    private ContentAddressedStorage storage;
+
+    @MockitoSpyBean
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("concurrent uploads of the same content should share one blob")
+    void shouldShareBlobBetweenConcurrentUploads() throws Exception {
+        int uploads = 4;
+        byte[] content = uniqueContent();
+
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        List<Future<StoredBlob>> results = new ArrayList<>();
+        try {
+            CyclicBarrier start = new CyclicBarrier(uploads);
+            for (int i = 0; i < uploads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return storage.store(new ByteArrayInputStream(content), "application/octet-stream");
+                }));
+            }
+            for (Future<StoredBlob> result : results) {
+                assertEquals(results.get(0).get().getId(), result.get().getId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        StoredBlob blob = storedBlobRepository.findById(results.get(0).get().getId()).orElseThrow();
+        assertEquals(uploads, blob.getReferenceCount());
+        assertArrayEquals(content, read(blob));
+    }
+
+    @Test
+    @DisplayName("an upload whose blob is removed before it takes a reference should store the content again")
+    void shouldStoreAgainWhenBlobRemovedBeforeIncrement() throws Exception {
+        byte[] content = uniqueContent();
+        StoredBlob original = storage.store(new ByteArrayInputStream(content), "application/octet-stream");
+
+        // Another node drops the row between this upload's read and its increment
+        AtomicBoolean removed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (removed.compareAndSet(false, true)) {
+                CompletableFuture.runAsync(() -> jdbcTemplate.update("DELETE FROM stored_blob WHERE id = ?", original.getId())).join();
+            }
+            return jdbcTemplate.update("UPDATE stored_blob SET reference_count = reference_count + 1 WHERE id = ?",
+                    (Long) invocation.getArgument(0));
+        }).when(storedBlobRepository).incrementReferenceCount(anyLong());
+
+        StoredBlob stored = storage.store(new ByteArrayInputStream(content), "application/octet-stream");
+
+        assertNotEquals(original.getId(), stored.getId());
+        assertEquals(1, storedBlobRepository.findById(stored.getId()).orElseThrow().getReferenceCount());
+        assertArrayEquals(content, read(stored));
+    }
+
+    @Test
+    @DisplayName("releasing the last reference should keep the content for the next upload to adopt")
+    void shouldKeepReleasedBlobForNextUpload() throws Exception {
+        byte[] content = uniqueContent();
+        StoredBlob first = storage.store(new ByteArrayInputStream(content), "text/plain");
+
+        storage.release(first);
+        assertEquals(0, storedBlobRepository.findById(first.getId()).orElseThrow().getReferenceCount());
+        assertTrue(storage.getBlobStore().exists(first.getContentHash()));
+        StoredBlob second = storage.store(new ByteArrayInputStream(content), "text/plain");
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, storedBlobRepository.findById(second.getId()).orElseThrow().getReferenceCount());
+        assertArrayEquals(content, read(second));
+    }
+
+    @Test
+    @DisplayName("an upload racing the release and reclaim of the same content should always keep its content")
+    void shouldKeepContentStoredWhileReleasedBlobIsReclaimed() throws Exception {
+        byte[] content = uniqueContent();
+        StoredBlob current = storage.store(new ByteArrayInputStream(content), "application/octet-stream");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                StoredBlob released = current;
+                CyclicBarrier start = new CyclicBarrier(2);
+                // The last attachment goes away and reconciliation runs straight after. There are no
+                // attachment rows here, so only a blob without references stands for an unattached one
+                Future<?> reclaim = executor.submit(() -> {
+                    start.await();
+                    storage.release(released);
+                    StoredBlob unreferenced = storedBlobRepository.findById(released.getId()).orElse(null);
+                    return unreferenced != null && unreferenced.getReferenceCount() == 0
+                            && storage.reclaim(unreferenced);
+                });
+                Future<StoredBlob> upload = executor.submit(() -> {
+                    start.await();
+                    return storage.store(new ByteArrayInputStream(content), "application/octet-stream");
+                });
+                reclaim.get();
+                current = upload.get();
+
+                assertEquals(1, storedBlobRepository.findById(current.getId()).orElseThrow().getReferenceCount());
+                assertArrayEquals(content, read(current), "round " + round);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("reclaiming should skip a blob that was referenced again since it was read")
+    void shouldNotReclaimAdoptedBlob() throws Exception {
+        byte[] content = uniqueContent();
+        StoredBlob stale = storage.store(new ByteArrayInputStream(content), "application/octet-stream");
+        storage.store(new ByteArrayInputStream(content), "application/octet-stream");
+
+        assertFalse(storage.reclaim(stale));
+        StoredBlob current = storedBlobRepository.findById(stale.getId()).orElseThrow();
+        assertArrayEquals(content, read(current));
+
+        assertTrue(storage.reclaim(current));
+        assertFalse(storedBlobRepository.existsById(current.getId()));
+        assertFalse(storage.getBlobStore().exists(current.getContentHash()));
+    }
+
+    private static byte[] uniqueContent() {
+        return ("attachment " + UUID.randomUUID() + " ").repeat(64).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] read(StoredBlob blob) throws Exception {
+        try (InputStream in = storage.open(blob)) {
+            return in.readAllBytes();
+        }
+    }
+}
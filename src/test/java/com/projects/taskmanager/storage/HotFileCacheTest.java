@@ -0,0 +1,93 @@
+package com.projects.taskmanager.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Hot file cache")
+class HotFileCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private HotFileCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new HotFileCache(DataSize.ofKilobytes(64), DataSize.ofKilobytes(16), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should serve repeat requests from memory with the resolved metadata")
+    void shouldServeFromMemory() throws Exception {
+        Path file = Files.write(tempDir.resolve("avatar.png"), new byte[] {1, 2, 3, 4});
+        int[] resolved = {0};
+
+        HotFileCache.CachedFile first = cache.get("avatar.png", file, path -> {
+            resolved[0]++;
+            return MediaType.IMAGE_PNG;
+        });
+        Files.delete(file);
+        HotFileCache.CachedFile second = cache.get("avatar.png", file, path -> MediaType.IMAGE_JPEG);
+
+        assertSame(first, second);
+        assertEquals(1, resolved[0]);
+        assertEquals(MediaType.IMAGE_PNG, second.contentType());
+        assertEquals(4, second.length());
+        assertTrue(second.content().isDirect());
+        assertEquals(4, cache.getResidentBytes());
+        assertEquals(0.5, meterRegistry.get("files.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("should not cache missing or oversized files")
+    void shouldSkipMissingAndLargeFiles() throws Exception {
+        Path large = Files.write(tempDir.resolve("large.bin"), new byte[32 * 1024]);
+
+        assertNull(cache.get("missing", tempDir.resolve("missing.bin"), path -> MediaType.IMAGE_PNG));
+        assertNull(cache.get("large", large, path -> MediaType.APPLICATION_OCTET_STREAM));
+        assertEquals(0, cache.getResidentBytes());
+    }
+
+    @Test
+    @DisplayName("should not reopen a file once it is known to be too large")
+    void shouldRememberOversizedFiles() throws Exception {
+        Path large = Files.write(tempDir.resolve("large.bin"), new byte[32 * 1024]);
+        assertNull(cache.get("large", large, path -> MediaType.APPLICATION_OCTET_STREAM));
+
+        // Tagged content never changes, so a file that now fits proves it wasn't read again
+        Files.write(large, new byte[] {1});
+        assertNull(cache.get("large", large, path -> MediaType.APPLICATION_OCTET_STREAM));
+        assertEquals(1, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+
+        cache.invalidateMatching("large");
+        assertNotNull(cache.get("large", large, path -> MediaType.APPLICATION_OCTET_STREAM));
+    }
+
+    @Test
+    @DisplayName("should invalidate a file together with its variants")
+    void shouldInvalidateMatchingEntries() throws Exception {
+        Path file = Files.write(tempDir.resolve("a.png"), new byte[] {1});
+        cache.get("abc123", file, path -> MediaType.IMAGE_PNG);
+        cache.get("abc123-thumbnail", file, path -> MediaType.IMAGE_JPEG);
+        cache.get("def456", file, path -> MediaType.IMAGE_PNG);
+
+        cache.invalidateMatching("abc123");
+
+        assertNull(cache.getIfPresent("abc123"));
+        assertNull(cache.getIfPresent("abc123-thumbnail"));
+        assertNotNull(cache.getIfPresent("def456"));
+    }
+}
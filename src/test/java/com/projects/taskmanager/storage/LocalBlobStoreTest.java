@@ -0,0 +1,49 @@
+package com.projects.taskmanager.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Local blob store")
+class LocalBlobStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should list keys in ascending order and skip anything that isn't a blob")
+    void shouldListKeysInOrder() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(tempDir.resolve("blobs"));
+        for (String key : List.of("ffee01", "0a1b02", "0a0c03", "9f0004")) {
+            store.put(key, Files.write(tempDir.resolve(key), key.getBytes()), key.length());
+        }
+        Files.createDirectories(tempDir.resolve("blobs/tmp"));
+        Files.write(tempDir.resolve("blobs/tmp/upload.part"), new byte[] {1});
+        Files.write(tempDir.resolve("blobs/0a/1b/0a1b02.partial"), new byte[] {1});
+
+        try (Stream<BlobStore.Entry> entries = store.list()) {
+            assertEquals(List.of("0a0c03", "0a1b02", "9f0004", "ffee01"),
+                entries.map(BlobStore.Entry::key).toList());
+        }
+        assertFalse(Files.exists(tempDir.resolve("ffee01")));
+    }
+
+    @Test
+    @DisplayName("should read a byte range of a blob")
+    void shouldReadRange() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(tempDir.resolve("blobs"));
+        store.put("abcdef", Files.write(tempDir.resolve("source"), "0123456789".getBytes()), 10);
+
+        try (InputStream in = store.open("abcdef", 3, 4)) {
+            assertEquals("3456", new String(in.readAllBytes()));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.projects.taskmanager.storage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.projects.taskmanager.config.StorageConfig;
+import com.projects.taskmanager.config.StorageProperties;
+import com.projects.taskmanager.testutil.InMemoryS3Server;
+
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * The S3 blob store against an in-memory S3 endpoint, using the client
+ * exactly as the application configures it.
+ */
+@DisplayName("S3 blob store")
+class S3BlobStoreTest {
+
+    private static final int PART_SIZE = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryS3Server server;
+    private S3Client s3Client;
+    private S3BlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new InMemoryS3Server();
+        StorageProperties properties = new StorageProperties();
+        properties.getS3().setEndpoint(server.endpoint().toString());
+        properties.getS3().setPathStyleAccess(true);
+        properties.getS3().setAccessKey("test");
+        properties.getS3().setSecretKey("test");
+        s3Client = new StorageConfig().s3Client(properties);
+        store = new S3BlobStore(s3Client, "attachments", "blobs/", PART_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("should send a file larger than one part as a multipart upload")
+    void shouldUploadInParts() throws Exception {
+        byte[] content = randomBytes(PART_SIZE * 5 / 2);
+        Path source = Files.write(tempDir.resolve("upload.part"), content);
+
+        store.put("abcdef", source, content.length);
+
+        assertArrayEquals(content, server.object("attachments", "blobs/abcdef"));
+        assertTrue(server.openUploads().isEmpty());
+        assertFalse(Files.exists(source));
+        try (InputStream in = store.open("abcdef")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("should abort the multipart upload when a part fails")
+    void shouldAbortFailedMultipartUpload() throws Exception {
+        byte[] content = randomBytes(PART_SIZE * 3);
+        Path source = Files.write(tempDir.resolve("upload.part"), content);
+        server.failPart(2);
+
+        assertThrows(IOException.class, () -> store.put("abcdef", source, content.length));
+
+        assertEquals(1, server.abortedUploads().size());
+        assertTrue(server.openUploads().isEmpty());
+        assertNull(server.object("attachments", "blobs/abcdef"));
+        assertTrue(Files.exists(source));
+        assertFalse(store.exists("abcdef"));
+    }
+
+    @Test
+    @DisplayName("should read a byte range with a ranged GET")
+    void shouldReadRange() throws Exception {
+        store.put("abcdef", Files.write(tempDir.resolve("source"), "0123456789".getBytes()), 10);
+
+        try (InputStream in = store.open("abcdef", 3, 4)) {
+            assertEquals("3456", new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    @DisplayName("should list, check and delete stored keys under its prefix")
+    void shouldListAndDelete() throws Exception {
+        for (String key : List.of("ffee01", "0a1b02")) {
+            store.put(key, Files.write(tempDir.resolve(key), key.getBytes()), key.length());
+        }
+
+        try (Stream<BlobStore.Entry> entries = store.list()) {
+            assertEquals(List.of("0a1b02", "ffee01"), entries.map(BlobStore.Entry::key).toList());
+        }
+        assertTrue(store.exists("ffee01"));
+
+        store.delete("ffee01");
+
+        assertFalse(store.exists("ffee01"));
+        assertThrows(NoSuchFileException.class, () -> store.open("ffee01"));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
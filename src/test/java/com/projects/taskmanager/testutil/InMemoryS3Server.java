@@ -0,0 +1,276 @@
+package com.projects.taskmanager.testutil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Just enough of the S3 REST API, path-style, for the blob store: object
+ * put, get (including ranges), head, delete and list, and multipart uploads.
+ * Request bodies in the SDK's aws-chunked encoding are decoded; signatures
+ * are not checked.
+ */
+public class InMemoryS3Server implements AutoCloseable {
+
+    private static final Pattern CHUNK_HEADER = Pattern.compile("([0-9a-fA-F]+)(;.*)?");
+    private static final Pattern PART_NUMBER = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private final HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final Set<String> abortedUploads = ConcurrentHashMap.newKeySet();
+    private volatile int failingPartNumber = -1;
+
+    public InMemoryS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public byte[] object(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    /**
+     * Multipart uploads that were started and neither completed nor aborted.
+     */
+    public Set<String> openUploads() {
+        return Set.copyOf(uploads.keySet());
+    }
+
+    public Set<String> abortedUploads() {
+        return Set.copyOf(abortedUploads);
+    }
+
+    /**
+     * Reject every upload of the given part number, or -1 to accept all parts.
+     */
+    public void failPart(int partNumber) {
+        this.failingPartNumber = partNumber;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(1);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> put(exchange, path, query);
+                case "POST" -> post(exchange, path, query);
+                case "GET" -> {
+                    if (!path.contains("/")) {
+                        list(exchange, path, query.getOrDefault("prefix", ""));
+                    } else {
+                        get(exchange, path, true);
+                    }
+                }
+                case "HEAD" -> get(exchange, path, false);
+                case "DELETE" -> delete(exchange, path, query);
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String path, Map<String, String> query) throws IOException {
+        byte[] body = body(exchange);
+        String uploadId = query.get("uploadId");
+        if (uploadId == null) {
+            objects.put(path, body);
+        } else {
+            int partNumber = Integer.parseInt(query.get("partNumber"));
+            Map<Integer, byte[]> parts = uploads.get(uploadId);
+            if (parts == null || partNumber == failingPartNumber) {
+                error(exchange, 400, "InvalidPart", "Part " + partNumber + " was rejected");
+                return;
+            }
+            parts.put(partNumber, body);
+        }
+        exchange.getResponseHeaders().add("ETag", "\"" + UUID.randomUUID() + "\"");
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void post(HttpExchange exchange, String path, Map<String, String> query) throws IOException {
+        String key = path.substring(path.indexOf('/') + 1);
+        String bucket = path.substring(0, path.indexOf('/'));
+        if (query.containsKey("uploads")) {
+            String uploadId = UUID.randomUUID().toString();
+            uploads.put(uploadId, new TreeMap<>());
+            xml(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                    + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            return;
+        }
+
+        Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+        if (parts == null) {
+            error(exchange, 404, "NoSuchUpload", "Upload not found");
+            return;
+        }
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        Matcher partNumbers = PART_NUMBER.matcher(new String(body(exchange), StandardCharsets.UTF_8));
+        while (partNumbers.find()) {
+            object.write(parts.get(Integer.parseInt(partNumbers.group(1))));
+        }
+        objects.put(path, object.toByteArray());
+        xml(exchange, 200, "<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key
+                + "</Key><ETag>\"" + UUID.randomUUID() + "\"</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void get(HttpExchange exchange, String path, boolean withBody) throws IOException {
+        byte[] object = objects.get(path);
+        if (object == null) {
+            if (withBody) {
+                error(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+            return;
+        }
+
+        int status = 200;
+        int from = 0;
+        int to = object.length - 1;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null) {
+            Matcher matcher = RANGE.matcher(range);
+            if (!matcher.matches()) {
+                error(exchange, 416, "InvalidRange", "Unsupported range " + range);
+                return;
+            }
+            status = 206;
+            from = Integer.parseInt(matcher.group(1));
+            to = Math.min(to, Integer.parseInt(matcher.group(2)));
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + to + "/" + object.length);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().add("Last-Modified", "Mon, 06 Jan 2025 09:30:00 GMT");
+        if (!withBody) {
+            exchange.getResponseHeaders().add("Content-Length", Integer.toString(object.length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, to - from + 1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object, from, to - from + 1);
+        }
+    }
+
+    private void list(HttpExchange exchange, String bucket, String prefix) throws IOException {
+        StringBuilder contents = new StringBuilder();
+        int count = 0;
+        for (Map.Entry<String, byte[]> object : objects.entrySet()) {
+            if (object.getKey().startsWith(bucket + "/" + prefix)) {
+                contents.append("<Contents><Key>").append(object.getKey().substring(bucket.length() + 1))
+                        .append("</Key><LastModified>2025-01-06T09:30:00.000Z</LastModified><Size>")
+                        .append(object.getValue().length).append("</Size></Contents>");
+                count++;
+            }
+        }
+        xml(exchange, 200, "<ListBucketResult><Name>" + bucket + "</Name><Prefix>" + prefix + "</Prefix><KeyCount>"
+                + count + "</KeyCount><IsTruncated>false</IsTruncated>" + contents + "</ListBucketResult>");
+    }
+
+    private void delete(HttpExchange exchange, String path, Map<String, String> query) throws IOException {
+        String uploadId = query.get("uploadId");
+        if (uploadId != null) {
+            uploads.remove(uploadId);
+            abortedUploads.add(uploadId);
+        } else {
+            objects.remove(path);
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    // The SDK streams uploads as aws-chunked: <hex size>[;signature]\r\n<bytes>\r\n ... 0\r\n<trailers>
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        byte[] raw;
+        try (InputStream in = exchange.getRequestBody()) {
+            raw = in.readAllBytes();
+        }
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        boolean chunked = (encoding != null && encoding.contains("aws-chunked"))
+                || (sha256 != null && sha256.startsWith("STREAMING-"));
+        if (!chunked) {
+            return raw;
+        }
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (true) {
+            int lineEnd = indexOfCrlf(raw, position);
+            Matcher header = CHUNK_HEADER.matcher(new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII));
+            if (!header.matches()) {
+                throw new IOException("Malformed aws-chunked body");
+            }
+            int size = Integer.parseInt(header.group(1), 16);
+            if (size == 0) {
+                return decoded.toByteArray();
+            }
+            decoded.write(raw, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+    }
+
+    private static int indexOfCrlf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length - 1; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : List.of(rawQuery.split("&"))) {
+            int equals = parameter.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? parameter : parameter.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        xml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + message + "</Message></Error>");
+    }
+}
@@ -0,0 +1,218 @@
+package com.projects.taskmanager.websocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.projects.taskmanager.service.WebSocketNotificationService;
+
+/**
+ * Task events as STOMP clients receive them over the wire: JSON text frames by
+ * default, binary CBOR frames for plain WebSocket sessions that ask for CBOR.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Task event encoding")
+class TaskEventEncodingTest {
+
+    private static final AtomicLong TASK_IDS = new AtomicLong(9_000_000);
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebSocketNotificationService notificationService;
+
+    @Test
+    @DisplayName("a CBOR session on the WebSocket endpoint should receive binary CBOR frames")
+    void cborSessionShouldReceiveBinaryCbor() throws Exception {
+        StompConnection cbor = connect(new StandardWebSocketClient(), "ws://localhost:" + port + "/ws/stomp",
+                "application/cbor, application/json");
+        try {
+            Frame frame = cbor.awaitTaskEvent(TASK_IDS.incrementAndGet());
+
+            assertTrue(frame.binary());
+            assertEquals("application/cbor", frame.headers().get("content-type"));
+            JsonNode event = cborMapper.readTree(frame.body());
+            assertEquals("TASK_DELETED", event.get("type").asText());
+            assertEquals(cbor.lastTaskId, event.get("taskId").asLong());
+        } finally {
+            cbor.close();
+        }
+    }
+
+    @Test
+    @DisplayName("sessions that don't ask for CBOR should receive JSON text frames")
+    void jsonSessionShouldReceiveJson() throws Exception {
+        StompConnection json = connect(new StandardWebSocketClient(), "ws://localhost:" + port + "/ws/stomp",
+                "application/json, application/cbor");
+        try {
+            Frame frame = json.awaitTaskEvent(TASK_IDS.incrementAndGet());
+
+            assertFalse(frame.binary());
+            assertEquals("application/json", frame.headers().get("content-type"));
+            assertEquals("TASK_DELETED", jsonMapper.readTree(frame.body()).get("type").asText());
+        } finally {
+            json.close();
+        }
+    }
+
+    @Test
+    @DisplayName("SockJS sessions can't carry binary frames and should get JSON even when asking for CBOR")
+    void sockJsSessionShouldStayOnJson() throws Exception {
+        SockJsClient sockJs = new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())));
+        StompConnection session = connect(sockJs, "http://localhost:" + port + "/ws", "application/cbor");
+        try {
+            Frame frame = session.awaitTaskEvent(TASK_IDS.incrementAndGet());
+
+            assertFalse(frame.binary());
+            assertEquals("application/json", frame.headers().get("content-type"));
+            assertEquals(session.lastTaskId, jsonMapper.readTree(frame.body()).get("taskId").asLong());
+        } finally {
+            session.close();
+        }
+    }
+
+    private StompConnection connect(WebSocketClient client, String url, String accept) throws Exception {
+        StompConnection connection = new StompConnection();
+        connection.session = client.execute(connection, new WebSocketHttpHeaders(), URI.create(url))
+                .get(5, TimeUnit.SECONDS);
+        connection.send("CONNECT\naccept-version:1.2\nhost:localhost\naccept-content-type:" + accept + "\n\n");
+        assertEquals("CONNECTED", connection.next().command());
+        connection.send("SUBSCRIBE\nid:sub-0\ndestination:/topic/tasks\n\n");
+        return connection;
+    }
+
+    private record Frame(String command, Map<String, String> headers, byte[] body, boolean binary) {
+    }
+
+    /**
+     * A STOMP session spoken by hand, so the test sees each frame exactly as
+     * the server put it on the wire.
+     */
+    private final class StompConnection extends AbstractWebSocketHandler {
+
+        private final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+        private WebSocketSession session;
+        private long lastTaskId;
+
+        void send(String frame) throws Exception {
+            session.sendMessage(new TextMessage(frame + "\0"));
+        }
+
+        Frame next() throws InterruptedException {
+            Frame frame = frames.poll(5, TimeUnit.SECONDS);
+            assertNotNull(frame, "no frame from the server");
+            return frame;
+        }
+
+        // The subscription registers asynchronously, so publish until it is delivered
+        Frame awaitTaskEvent(long taskId) throws Exception {
+            lastTaskId = taskId;
+            for (int attempt = 0; attempt < 50; attempt++) {
+                notificationService.notifyTaskDeleted(taskId);
+                Frame frame = frames.poll(100, TimeUnit.MILLISECONDS);
+                if (frame != null) {
+                    assertEquals("MESSAGE", frame.command());
+                    return frame;
+                }
+            }
+            return fail("no task event was delivered");
+        }
+
+        void close() throws Exception {
+            session.close();
+        }
+
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            receive(message.asBytes(), false);
+        }
+
+        @Override
+        protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+            ByteBuffer payload = message.getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            receive(bytes, true);
+        }
+
+        private void receive(byte[] bytes, boolean binary) {
+            int headersEnd = indexOf(bytes, "\n\n".getBytes(StandardCharsets.UTF_8));
+            if (headersEnd < 0) {
+                // Heartbeat
+                return;
+            }
+            String[] lines = new String(bytes, 0, headersEnd, StandardCharsets.UTF_8).split("\n");
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                headers.putIfAbsent(lines[i].substring(0, colon), lines[i].substring(colon + 1));
+            }
+            int bodyEnd = headers.containsKey("content-length")
+                    ? headersEnd + 2 + Integer.parseInt(headers.get("content-length"))
+                    : bytes.length - 1;
+            byte[] body = Arrays.copyOfRange(bytes, headersEnd + 2, bodyEnd);
+            if ("MESSAGE".equals(lines[0]) && !isEvent(body, binary)) {
+                return;
+            }
+            frames.add(new Frame(lines[0], headers, body, binary));
+        }
+
+        // Other tests may publish task events while this one is listening
+        private boolean isEvent(byte[] body, boolean binary) {
+            try {
+                JsonNode event = binary ? cborMapper.readTree(body) : jsonMapper.readTree(body);
+                return event.path("taskId").asLong() == lastTaskId;
+            } catch (Exception e) {
+                // Undecodable bodies are reported to the test rather than skipped
+                return true;
+            }
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (int i = 0; i <= bytes.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}